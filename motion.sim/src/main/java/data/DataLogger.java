@@ -1,47 +1,187 @@
 package data;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
-
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Saved run history: graphs in an append-only journal ({@link GraphJournal}), with a {@link RunIndex} of
+ * their summaries beside it for queries, trimmed oldest first to a {@link RetentionPolicy}.
+ * <p>
+ * Only the summaries are loaded up front. A graph's trajectory is read from the journal when
+ * {@link #getGraph} first asks for it and then kept in a cache of about {@link #DEFAULT_CACHE_BYTES},
+ * least recently used out first, so memory does not grow with the length of the history.
+ */
 public class DataLogger {
-	private static final int MAX_GRAPHS = 5;
-	private final List<GraphData> savedGraphs;
+	// Ten thousand runs or 1 GiB of records, whichever comes first
+	public static final RetentionPolicy DEFAULT_RETENTION = RetentionPolicy.keepLast(10_000).withMaxBytes(1L << 30);
+	public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+	private final ArrayDeque<GraphSummary> summaries = new ArrayDeque<>(); // Oldest first; retention evicts from the head
+	private final Map<Long, GraphData> unsaved = new HashMap<>(); // Graphs the journal could not take, by negative id
+	private final GraphCache cache = new GraphCache(DEFAULT_CACHE_BYTES);
 	private final String fileDirectory;
+	private final GraphJournal.SyncPolicy syncPolicy;
+	private RetentionPolicy retention;
+	private GraphJournal journal;
+	private RunIndex index;
+	private long summaryBytes; // Record bytes of the summarised graphs
+	private long nextUnsavedId = -1;
 
 	public DataLogger(String customDirectory) {
+		this(customDirectory, GraphJournal.SyncPolicy.EVERY_WRITE, DEFAULT_RETENTION);
+	}
+
+	public DataLogger(String customDirectory, GraphJournal.SyncPolicy syncPolicy, RetentionPolicy retention) {
+		this.syncPolicy = syncPolicy;
+		this.retention = retention;
 		if (customDirectory == null || customDirectory.isBlank()) {
 			this.fileDirectory = System.getProperty("user.home") + "/ProjectileSimulator";
 		} else {
 			this.fileDirectory = customDirectory;
 		}
 		ensureDirectoryExists();
-		this.savedGraphs = loadGraphsFromFile();
+		openJournal();
+		loadSummaries();
+		applyRetention();
 		System.out.println("File path used by DataLogger: " + getFilePath());
 	}
 
-	public List<GraphData> getSavedGraphs() {
-		return savedGraphs;
+	// Summaries of the saved graphs, oldest first; pass an id to getGraph() for the trajectory
+	public List<GraphSummary> getSummaries() {
+		return List.copyOf(summaries);
 	}
 
 	public void saveGraph(GraphData graphData) {
-		if (savedGraphs.size() == MAX_GRAPHS) {
-			savedGraphs.remove(0); // Remove the oldest graph to make space
+		long savedAt = System.currentTimeMillis();
+		long id = appendToJournal(graphData, savedAt);
+		if (id < 0) {
+			id = nextUnsavedId--;
+			unsaved.put(id, graphData);
+		}
+		GraphSummary summary = GraphSummary.of(id, savedAt, graphData,
+				id < 0 ? 0 : journal.recordBytes(id));
+		if (id >= 0 && index != null) {
+			try {
+				index.add(summary);
+			} catch (IOException e) {
+				System.err.println("Error indexing graph: " + e.getMessage());
+			}
+		}
+		addSummary(summary);
+		cache.put(id, graphData);
+		applyRetention(); // Remove the oldest graphs to make space
+	}
+
+	/**
+	 * Summaries of the saved runs for range and top-k queries. Null if the index could not be opened.
+	 */
+	public RunIndex getRunIndex() {
+		return index;
+	}
+
+	// The saved graph with a summary's id, loading it if it is not cached; null if it is no longer kept
+	public GraphData getGraph(long id) {
+		GraphData graph = cache.get(id);
+		if (graph != null) return graph;
+		graph = id < 0 ? unsaved.get(id) : readFromJournal(id);
+		if (graph != null) cache.put(id, graph);
+		return graph;
+	}
+
+	public void setRetentionPolicy(RetentionPolicy retention) {
+		this.retention = retention;
+		applyRetention();
+	}
+
+	// Flushes and closes the journal and index; saves after this stay in memory only
+	public void close() {
+		try {
+			if (journal != null) journal.close();
+			if (index != null) index.close();
+		} catch (IOException e) {
+			System.err.println("Error closing graphs journal: " + e.getMessage());
+		}
+		journal = null;
+		index = null;
+		cache.clear();
+	}
+
+	/**
+	 * Streams every saved graph, oldest first, to a JSON file that {@link #importJson} reads back.
+	 * Graphs are read from the journal one at a time, past the cache, so memory stays flat however
+	 * long the history is. The file is written beside the target and renamed over it once complete, so
+	 * a failed export leaves any earlier file as it was. Returns the number of graphs written.
+	 */
+	public int exportJson(Path jsonFile) throws IOException {
+		Path temp = jsonFile.resolveSibling(jsonFile.getFileName() + ".tmp");
+		try {
+			int count;
+			try (GraphJsonWriter writer = new GraphJsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+				for (GraphSummary summary : summaries) {
+					GraphData graph = summary.id() < 0 ? unsaved.get(summary.id())
+							: journal == null ? null : journal.get(summary.id());
+					if (graph != null) writer.write(graph);
+				}
+				writer.finish();
+				count = writer.getCount();
+			}
+			Files.move(temp, jsonFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return count;
+		} finally {
+			Files.deleteIfExists(temp); // Only still there if the export failed
+		}
+	}
+
+	/**
+	 * Saves each graph in a JSON file (an export, or a graphs.json from before the binary store) as
+	 * if it had just been run, reading one graph at a time. Returns the number of graphs saved.
+	 */
+	public int importJson(Path jsonFile) throws IOException {
+		try (GraphJsonReader reader = new GraphJsonReader(Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8))) {
+			int count = 0;
+			while (reader.hasNext()) {
+				saveGraph(reader.next());
+				count++;
+			}
+			return count;
+		} catch (UncheckedIOException e) {
+			throw new IOException("Error importing " + jsonFile + ": " + e.getCause().getMessage(), e.getCause());
 		}
-		savedGraphs.add(graphData); // Add the new graph
+	}
 
-		saveGraphsToFile();
-		System.out.println("Graph saved to " + getFilePath());
+	/**
+	 * One-shot conversion of a graphs.json file (the format used before the binary store) into a
+	 * binary graph file, streamed a graph at a time. Returns the number of graphs converted; the JSON
+	 * file is left untouched, and so is the graph file if the JSON turns out to be invalid.
+	 */
+	public static int importJson(Path jsonFile, Path graphFile) throws IOException {
+		Path temp = graphFile.resolveSibling(graphFile.getFileName() + ".import");
+		Files.deleteIfExists(temp);
+		try (GraphJsonReader reader = new GraphJsonReader(Files.newBufferedReader(jsonFile, StandardCharsets.UTF_8))) {
+			int count = 0;
+			try (GraphJournal converted = new GraphJournal(temp, GraphJournal.SyncPolicy.NEVER, GraphFile.Precision.DOUBLE)) {
+				while (reader.hasNext()) {
+					converted.append(reader.next(), 0); // graphs.json did not record when runs were saved
+					count++;
+				}
+			}
+			// Closing synced the file; its verified mark is dropped below, so the first open checks everything
+			Files.move(temp, graphFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return count;
+		} catch (UncheckedIOException e) {
+			throw new IOException("Invalid graphs JSON in " + jsonFile + ": " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			Files.deleteIfExists(temp);
+			Files.deleteIfExists(temp.resolveSibling(temp.getFileName() + ".verified"));
+		}
 	}
 
 	private void ensureDirectoryExists() {
@@ -57,49 +197,165 @@ public class DataLogger {
 	}
 
 	private String getFilePath() {
+		return fileDirectory + "/graphs.bin";
+	}
+
+	private void applyRetention() {
+		long now = System.currentTimeMillis();
+		while (!summaries.isEmpty()
+				&& retention.exceeded(summaries.size(), summaryBytes, summaries.peekFirst().savedAt(), now)) {
+			GraphSummary oldest = summaries.removeFirst();
+			long id = oldest.id();
+			summaryBytes -= oldest.bytes();
+			cache.remove(id);
+			unsaved.remove(id);
+			removeFromJournal(id);
+			if (index != null && id >= 0) {
+				try {
+					index.remove(id);
+				} catch (IOException e) {
+					System.err.println("Error removing graph from index: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void addSummary(GraphSummary summary) {
+		summaries.add(summary);
+		summaryBytes += summary.bytes();
+	}
+
+	/**
+	 * Opens the run index, brings it in line with the journal, which is the source of truth, and takes
+	 * the summaries from it. Graphs the index is missing are summarised from their record headers, which
+	 * costs one small read each; only records from before headers carried summaries are read in full.
+	 */
+	private void loadSummaries() {
+		if (journal == null) return;
+		List<Long> ids = journal.ids();
+		try {
+			index = new RunIndex(Path.of(fileDirectory), "graphs");
+			for (GraphSummary summary : index.all()) {
+				if (!journal.contains(summary.id())) index.remove(summary.id());
+			}
+			long lastId = index.lastId();
+			boolean rebuild = false;
+			for (long id : ids) {
+				if (!index.contains(id) && id <= lastId) rebuild = true;
+			}
+			if (rebuild) {
+				System.err.println("Run index is out of step with " + getFilePath() + "; rebuilding it.");
+				index.clear();
+			}
+		} catch (IOException e) {
+			System.err.println("Error opening run index: " + e.getMessage());
+			index = null;
+		}
+		// Runs whose records do not say when they were saved are dated now
+		long now = System.currentTimeMillis();
+		for (long id : ids) {
+			GraphSummary summary = index == null ? null : index.get(id);
+			if (summary == null) {
+				summary = summaryFromJournal(id, now);
+				if (summary == null) continue;
+				if (index != null) {
+					try {
+						index.add(summary);
+					} catch (IOException e) {
+						System.err.println("Error indexing graph: " + e.getMessage());
+					}
+				}
+			}
+			addSummary(summary);
+		}
+	}
+
+	private String getLegacyFilePath() {
 		return fileDirectory + "/graphs.json";
 	}
 
-	private List<GraphData> loadGraphsFromFile() {
-		File file = new File(getFilePath());
-		if (!file.exists()) {
+	private void openJournal() {
+		Path file = Path.of(getFilePath());
+		Path legacyFile = Path.of(getLegacyFilePath());
+		if (!Files.exists(file) && Files.exists(legacyFile)) {
+			try {
+				int count = importJson(legacyFile, file);
+				System.out.println("Imported " + count + " graphs from " + legacyFile + " into " + file);
+			} catch (IOException e) {
+				System.err.println("Error importing " + legacyFile + ": " + e.getMessage());
+				backupCorruptedFile(legacyFile, fileDirectory + "/graphs_backup.json");
+			}
+		} else if (!Files.exists(file)) {
 			System.out.println("Graphs file not found. Starting with an empty list.");
-			return new ArrayList<>();
 		}
 
-		try (FileReader reader = new FileReader(file)) {
-			Type listType = new TypeToken<ArrayList<GraphData>>() {}.getType();
-			List<GraphData> graphs = new Gson().fromJson(reader, listType);
-
-			return graphs;
-		} catch (JsonSyntaxException e) {
-			System.err.println("Error parsing JSON file: " + e.getMessage());
-			backupCorruptedFile();
-			return new ArrayList<>();
+		try {
+			// Recovery keeps every record up to the first damaged one and sets the damaged file aside
+			journal = new GraphJournal(file, syncPolicy, GraphFile.Precision.DOUBLE);
 		} catch (IOException e) {
 			System.err.println("Error reading the file: " + e.getMessage());
-			return new ArrayList<>();
 		}
 	}
 
-	private void saveGraphsToFile() {
-		File file = new File(getFilePath());
-		try (FileWriter writer = new FileWriter(file)) {
-			new Gson().toJson(savedGraphs, writer);
-			System.out.println("Graphs saved successfully to: " + file.getAbsolutePath());
+	private GraphData readFromJournal(long id) {
+		if (journal == null) return null;
+		try {
+			return journal.get(id);
+		} catch (IOException e) {
+			System.err.println("Error reading graph from file: " + e.getMessage());
+			return null;
+		}
+	}
+
+	private GraphSummary summaryFromJournal(long id, long now) {
+		GraphSummary summary;
+		try {
+			summary = journal.summary(id);
 		} catch (IOException e) {
-			System.err.println("Error saving graphs to file: " + e.getMessage());
+			System.err.println("Error reading graph from file: " + e.getMessage());
+			return null;
+		}
+		if (summary == null) {
+			GraphData graph = readFromJournal(id);
+			return graph == null ? null : GraphSummary.of(id, now, graph, journal.recordBytes(id));
 		}
+		if (summary.savedAt() == 0) {
+			summary = new GraphSummary(id, now, summary.launchAngle(), summary.initialVelocity(), summary.gravity(),
+					summary.range(), summary.maxHeight(), summary.bytes());
+		}
+		return summary;
 	}
 
-	private void backupCorruptedFile() {
-		File corruptedFile = new File(getFilePath());
-		File backupFile = new File(fileDirectory + "/graphs_backup.json");
+	// Returns the graph's journal id, or -1 if it could not be written
+	private long appendToJournal(GraphData graphData, long savedAt) {
+		if (journal == null) {
+			System.err.println("Graphs journal is not open; the graph is kept in memory only.");
+			return -1;
+		}
+		try {
+			long id = journal.append(graphData, savedAt);
+			System.out.println("Graph saved to " + getFilePath());
+			return id;
+		} catch (IOException e) {
+			System.err.println("Error saving graph to file: " + e.getMessage());
+			return -1;
+		}
+	}
+
+	private void removeFromJournal(long id) {
+		if (journal == null || id < 0) return;
+		try {
+			journal.remove(id);
+		} catch (IOException e) {
+			System.err.println("Error removing graph from file: " + e.getMessage());
+		}
+	}
 
-		if (corruptedFile.exists()) {
+	private void backupCorruptedFile(Path corruptedFile, String backupPath) {
+		if (Files.exists(corruptedFile)) {
 			try {
-				Files.copy(corruptedFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-				System.err.println("Backed up corrupted graphs.json to graphs_backup.json.");
+				Files.copy(corruptedFile, Path.of(backupPath), StandardCopyOption.REPLACE_EXISTING);
+				System.err.println("Backed up corrupted " + corruptedFile.getFileName() + " to " + backupPath + ".");
 			} catch (IOException e) {
 				System.err.println("Failed to create backup of corrupted file: " + e.getMessage());
 			}
@@ -1,5 +1,8 @@
 package data;
 
+import com.google.gson.annotations.JsonAdapter;
+
+@JsonAdapter(DataPointAdapter.class)
 public class DataPoint {
 	private final double x;
 	private final double y;
@@ -22,7 +25,19 @@ public class DataPoint {
 	}
 
 
+	public double getTime() {
+		return time;
+	}
+
+	public double getVelocity() {
+		return velocity;
+	}
+
 	public String getTooltipText() {
+		return formatTooltip(time, velocity, x, y);
+	}
+
+	public static String formatTooltip(double time, double velocity, double x, double y) {
 		return String.format("Time: %.2f s\nVelocity: %.2f m/s\nRange: %.2f m\nHeight: %.2f m", time, velocity, x, y);
 	}
 }
@@ -0,0 +1,70 @@
+package data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON for one sample. Samples are written as a bare {@code [x,y,time,velocity]} array; the keyed
+ * object form {@code {"x":..,"y":..,"time":..,"velocity":..}} that older files use is read as well.
+ * The static methods work on raw values, so whole trajectories can be streamed without a
+ * {@link DataPoint} per sample.
+ */
+class DataPointAdapter extends TypeAdapter<DataPoint> {
+
+	@Override
+	public void write(JsonWriter out, DataPoint point) throws IOException {
+		if (point == null) {
+			out.nullValue();
+			return;
+		}
+		write(out, point.getX(), point.getY(), point.getTime(), point.getVelocity());
+	}
+
+	@Override
+	public DataPoint read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		TrajectoryBuffer single = new TrajectoryBuffer(1);
+		readInto(in, single);
+		return single.getPoint(0);
+	}
+
+	static void write(JsonWriter out, double x, double y, double time, double velocity) throws IOException {
+		out.beginArray();
+		out.value(x).value(y).value(time).value(velocity);
+		out.endArray();
+	}
+
+	// Reads one sample in either form and appends it to the buffer
+	static void readInto(JsonReader in, TrajectoryBuffer buffer) throws IOException {
+		double x = 0, y = 0, time = 0, velocity = 0;
+		if (in.peek() == JsonToken.BEGIN_ARRAY) {
+			in.beginArray();
+			x = in.nextDouble();
+			y = in.nextDouble();
+			time = in.nextDouble();
+			velocity = in.nextDouble();
+			while (in.hasNext()) in.skipValue();
+			in.endArray();
+		} else {
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+					case "x" -> x = in.nextDouble();
+					case "y" -> y = in.nextDouble();
+					case "time" -> time = in.nextDouble();
+					case "velocity" -> velocity = in.nextDouble();
+					default -> in.skipValue();
+				}
+			}
+			in.endObject();
+		}
+		buffer.add(x, y, time, velocity);
+	}
+}
@@ -0,0 +1,72 @@
+package data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Loaded graphs by id, evicted least recently used first once their estimated memory passes a budget.
+ * The most recently used graph is always kept, even if it alone is over the budget. A graph's estimate
+ * grows when it is first drawn, so it is measured again each time it is fetched.
+ */
+final class GraphCache {
+	private record Entry(GraphData graph, long bytes) {
+	}
+
+	private final long maxBytes;
+	private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	GraphCache(long maxBytes) {
+		if (maxBytes <= 0) throw new IllegalArgumentException("Cache size must be greater than zero.");
+		this.maxBytes = maxBytes;
+	}
+
+	// The cached graph, now the most recently used, or null
+	synchronized GraphData get(long id) {
+		Entry entry = entries.get(id);
+		if (entry == null) return null;
+		long bytes = entry.graph().estimatedBytes();
+		if (bytes != entry.bytes()) {
+			entries.put(id, new Entry(entry.graph(), bytes));
+			totalBytes += bytes - entry.bytes();
+			evictOverBudget();
+		}
+		return entry.graph();
+	}
+
+	synchronized void put(long id, GraphData graph) {
+		remove(id);
+		Entry entry = new Entry(graph, graph.estimatedBytes());
+		entries.put(id, entry);
+		totalBytes += entry.bytes();
+		evictOverBudget();
+	}
+
+	synchronized void remove(long id) {
+		Entry entry = entries.remove(id);
+		if (entry != null) totalBytes -= entry.bytes();
+	}
+
+	// Drops least recently used graphs until the rest fit, always keeping the most recent one
+	private void evictOverBudget() {
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (totalBytes > maxBytes && entries.size() > 1) {
+			totalBytes -= eldest.next().bytes();
+			eldest.remove();
+		}
+	}
+
+	synchronized void clear() {
+		entries.clear();
+		totalBytes = 0;
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	synchronized long totalBytes() {
+		return totalBytes;
+	}
+}
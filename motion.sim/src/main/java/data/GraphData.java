@@ -1,23 +1,30 @@
 package data;
 
-import com.google.gson.annotations.Expose;
-import java.util.List;
+import com.google.gson.annotations.JsonAdapter;
 
+// Serialised by GraphDataAdapter, not reflection, wherever a Gson instance meets one
+@JsonAdapter(GraphDataAdapter.class)
 public final class GraphData {
-    @Expose
-    private final List<DataPoint> trajectoryData;
-    @Expose
+    // The graph, its view and, for a mapped graph, the buffer objects; the columns themselves are counted apart
+    private static final long FIXED_BYTES = 256;
+    // Kept copy of the heights plus every coarser level's samples and envelopes, per source sample
+    private static final long LOD_BYTES_PER_SAMPLE = 56;
+
+    private final TrajectoryView trajectoryData;
     private final double maxX;
-    @Expose
     private final double maxY;
-    @Expose
     private final double launchAngle;
-    @Expose
     private final double initialVelocity;
-    @Expose
     private final double gravity;
 
-    public GraphData(List<DataPoint> trajectoryData, double maxX, double maxY, double launchAngle, double initialVelocity, double gravity) {
+    // Built on first draw; never serialised
+    private transient volatile TrajectoryLod levelOfDetail;
+
+    public GraphData(TrajectoryView trajectoryData, double maxX, double maxY, double launchAngle, double initialVelocity, double gravity) {
+        this(maxX, maxY, launchAngle, initialVelocity, gravity, TrajectoryBuffer.copyOf(trajectoryData).asReadOnly());
+    }
+
+    private GraphData(double maxX, double maxY, double launchAngle, double initialVelocity, double gravity, TrajectoryView trajectoryData) {
         this.trajectoryData = trajectoryData;
         this.maxX = maxX;
         this.maxY = maxY;
@@ -32,10 +39,36 @@ public final class GraphData {
                 initialVelocity, launchAngle, gravity);
     }
 
-    public List<DataPoint> trajectoryData() {
+    // Uses the view as is, without a copy; for trajectories that are already immutable, such as mapped ones
+    static GraphData wrap(TrajectoryView trajectoryData, double maxX, double maxY, double launchAngle, double initialVelocity, double gravity) {
+        return new GraphData(maxX, maxY, launchAngle, initialVelocity, gravity, trajectoryData);
+    }
+
+    /**
+     * Rough heap the graph takes now: its columns if they are on the heap (a mapped trajectory's are
+     * not) and the level-of-detail copies once a draw has built them.
+     */
+    long estimatedBytes() {
+        int size = trajectoryData.size();
+        long bytes = FIXED_BYTES;
+        bytes += trajectoryData instanceof MappedTrajectory mapped ? mapped.heapBytes() : 4L * Double.BYTES * size;
+        if (levelOfDetail != null) bytes += LOD_BYTES_PER_SAMPLE * size;
+        return bytes;
+    }
+
+    public TrajectoryView trajectoryData() {
         return trajectoryData;
     }
 
+    public TrajectoryLod levelOfDetail() {
+        TrajectoryLod lod = levelOfDetail;
+        if (lod == null) {
+            lod = TrajectoryLod.build(trajectoryData);
+            levelOfDetail = lod;
+        }
+        return lod;
+    }
+
     public double maxX() {
         return maxX;
     }
@@ -0,0 +1,60 @@
+package data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * JSON for a {@link GraphData}, field by field rather than by reflection. Field names match what
+ * reflection used to write, with the trajectory last so the launch values come first in the output.
+ * Unknown fields are skipped; a missing trajectory reads as an empty one.
+ */
+class GraphDataAdapter extends TypeAdapter<GraphData> {
+	private final TrajectoryBufferAdapter trajectoryAdapter = new TrajectoryBufferAdapter();
+
+	@Override
+	public void write(JsonWriter out, GraphData graph) throws IOException {
+		if (graph == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		out.name("maxX").value(graph.maxX());
+		out.name("maxY").value(graph.maxY());
+		out.name("launchAngle").value(graph.launchAngle());
+		out.name("initialVelocity").value(graph.initialVelocity());
+		out.name("gravity").value(graph.gravity());
+		out.name("trajectoryData");
+		trajectoryAdapter.write(out, graph.trajectoryData());
+		out.endObject();
+	}
+
+	@Override
+	public GraphData read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		TrajectoryView trajectory = null;
+		double maxX = 0, maxY = 0, launchAngle = 0, initialVelocity = 0, gravity = 0;
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+				case "maxX" -> maxX = in.nextDouble();
+				case "maxY" -> maxY = in.nextDouble();
+				case "launchAngle" -> launchAngle = in.nextDouble();
+				case "initialVelocity" -> initialVelocity = in.nextDouble();
+				case "gravity" -> gravity = in.nextDouble();
+				case "trajectoryData" -> trajectory = trajectoryAdapter.read(in);
+				default -> in.skipValue();
+			}
+		}
+		in.endObject();
+		if (trajectory == null) trajectory = new TrajectoryBuffer(0).asReadOnly();
+		// The adapter's buffer is already read-only and unshared, so it needs no copy
+		return GraphData.wrap(trajectory, maxX, maxY, launchAngle, initialVelocity, gravity);
+	}
+}
@@ -0,0 +1,278 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary store for saved graphs: a sequence of records, each a fixed header followed by the
+ * trajectory's x, y, time and velocity columns, all little-endian.
+ * <pre>
+ *  offset  size  field
+ *       0     4  magic "MSGR"
+ *       4     2  format version
+ *       6     1  column width in bytes (8 = double, 4 = float)
+ *       7     1  flags: 1 = tombstone
+ *       8     4  sample count n
+ *      12     4  CRC32C of the record with this field zeroed (version 2; 0 in version 1)
+ *      16    40  maxX, maxY, launch angle, initial velocity, gravity (doubles)
+ *      56     8  record id; for a tombstone, the id of the graph it removes (version 2)
+ *      64     8  time saved in milliseconds since the epoch, 0 if not known (version 3)
+ *      72    16  range and maximum height of the trajectory (doubles, version 3)
+ *   64/88  4*n*w columns, then zero padding to a multiple of 8 bytes
+ * </pre>
+ * The columns start after 88 bytes of header from version 3 and after 64 before. A version 3 header
+ * holds everything a {@link GraphSummary} needs, so summaries can be rebuilt without reading columns.
+ * A tombstone is a header-only version 2 record that removes an earlier graph, so a file can be
+ * appended to as a journal (see {@link GraphJournal}) and still be read in one pass.
+ * Reading maps the file with {@link FileChannel#map} and hands out graphs whose trajectories are
+ * {@link MappedTrajectory views} of the mapped columns, so loading costs one header read per graph
+ * however long the trajectories are. Files are replaced by writing a sibling and renaming it over
+ * the original. On POSIX systems existing mappings keep seeing the old file, which stays valid until
+ * they are dropped; Windows will not replace a file that is still mapped, so there the rename fails
+ * and the old file is kept.
+ */
+public final class GraphFile {
+	public enum Precision {
+		DOUBLE(Double.BYTES), FLOAT(Float.BYTES);
+
+		final int width;
+
+		Precision(int width) {
+			this.width = width;
+		}
+
+		static Precision ofWidth(int width) {
+			return width == Float.BYTES ? FLOAT : DOUBLE;
+		}
+	}
+
+	/**
+	 * The graphs read from a file and how many bytes of it held valid records. A shorter valid length
+	 * than the file size means the rest was truncated or corrupt and has been ignored.
+	 */
+	public record Contents(List<GraphData> graphs, long validBytes) {
+	}
+
+	static final int MAGIC = 0x5247534D; // "MSGR" read as a little-endian int
+	static final short VERSION = 3;
+	static final short VERSION_UNSUMMARISED = 2; // Written before records carried their save time and summary
+	static final short VERSION_UNCHECKED = 1; // Written before records carried ids and checksums
+	static final int HEADER_BYTES = 64; // Every version's header starts with these, and a tombstone is no more
+	static final int SUMMARY_HEADER_BYTES = 88;
+	static final byte FLAG_TOMBSTONE = 1;
+	// Largest single mapping; bigger files are mapped in windows that start at a record boundary
+	private static final long MAX_WINDOW = 1L << 30;
+
+	// Called for each valid record in file order; the buffer covers exactly the record
+	interface RecordVisitor {
+		void visit(long position, ByteBuffer record);
+	}
+
+	private GraphFile() {
+	}
+
+	public static void write(List<GraphData> graphs, Path file, Precision precision) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				long id = 1;
+				for (GraphData graph : graphs) {
+					ByteBuffer record = encode(graph, precision, id++, 0);
+					while (record.hasRemaining()) channel.write(record);
+				}
+				channel.force(true);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp); // Only still there if writing or the rename failed
+		}
+	}
+
+	/**
+	 * Reads the graphs a file holds, in the order they were written, leaving out those removed by
+	 * tombstones. Records are checked against their checksums.
+	 */
+	public static Contents read(Path file) throws IOException {
+		Map<Long, GraphData> graphs = new LinkedHashMap<>();
+		long[] nextUncheckedId = {-1};
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long validBytes = scan(channel, file, 0, (position, record) -> {
+				if (isTombstone(record)) {
+					graphs.remove(id(record));
+				} else {
+					long id = record.getShort(4) == VERSION_UNCHECKED ? nextUncheckedId[0]-- : id(record);
+					graphs.put(id, decode(record));
+				}
+			});
+			return new Contents(new ArrayList<>(graphs.values()), validBytes);
+		}
+	}
+
+	/**
+	 * Visits every valid record from the start of the file and returns the length of the valid prefix.
+	 * The scan stops at the first record that is truncated, has a bad header or fails its checksum;
+	 * everything after it is treated as lost. Checksums of records lying wholly within the first
+	 * {@code trustedBytes} are not checked, for a prefix that was verified before.
+	 */
+	static long scan(FileChannel channel, Path file, long trustedBytes, RecordVisitor visitor) throws IOException {
+		long size = channel.size();
+		long position = 0;
+		MappedByteBuffer window = null;
+		long windowStart = 0;
+		while (size - position >= HEADER_BYTES) {
+			if (window == null || position + HEADER_BYTES > windowStart + window.capacity()) {
+				windowStart = position;
+				window = map(channel, position, Math.min(size - position, MAX_WINDOW));
+			}
+			ByteBuffer header = window.slice((int) (position - windowStart), HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			long length = recordLength(header);
+			if (length < 0 || position + length > size) {
+				System.err.println("Invalid or truncated graph record at byte " + position + " of " + file);
+				break;
+			}
+			if (position + length > windowStart + window.capacity()) {
+				windowStart = position;
+				window = map(channel, position, Math.max(Math.min(size - position, MAX_WINDOW), length));
+			}
+			ByteBuffer record = window.slice((int) (position - windowStart), (int) length).order(ByteOrder.LITTLE_ENDIAN);
+			if (position + length > trustedBytes && record.getShort(4) != VERSION_UNCHECKED
+					&& record.getInt(12) != checksum(record)) {
+				System.err.println("Checksum mismatch in graph record at byte " + position + " of " + file);
+				break;
+			}
+			visitor.visit(position, record);
+			position += length;
+		}
+		if (position < size && size - position < HEADER_BYTES) {
+			System.err.println("Ignoring " + (size - position) + " trailing bytes in " + file);
+		}
+		return position;
+	}
+
+	// Total bytes of the record starting with this header, or -1 if the header is not valid
+	static long recordLength(ByteBuffer header) {
+		short version = header.getShort(4);
+		if (header.getInt(0) != MAGIC || version < VERSION_UNCHECKED || version > VERSION) return -1;
+		int width = header.get(6);
+		int samples = header.getInt(8);
+		if ((width != Double.BYTES && width != Float.BYTES) || samples < 0) return -1;
+		long length = headerBytes(version) + 4L * samples * width;
+		length = (length + 7) & ~7L;
+		return length > Integer.MAX_VALUE ? -1 : length;
+	}
+
+	static int headerBytes(short version) {
+		return version >= VERSION ? SUMMARY_HEADER_BYTES : HEADER_BYTES;
+	}
+
+	static boolean isTombstone(ByteBuffer record) {
+		return (record.get(7) & FLAG_TOMBSTONE) != 0;
+	}
+
+	static long id(ByteBuffer record) {
+		return record.getLong(56);
+	}
+
+	// CRC32C of the whole record, with the checksum field itself counted as zero
+	static int checksum(ByteBuffer record) {
+		CRC32C crc = new CRC32C();
+		crc.update(record.slice(0, 12));
+		crc.update(ByteBuffer.allocate(4));
+		crc.update(record.slice(16, record.limit() - 16));
+		return (int) crc.getValue();
+	}
+
+	// A header-only record removing the graph with the given id; it has no summary, so the short header will do
+	static ByteBuffer tombstone(long id) {
+		ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		record.putInt(0, MAGIC)
+				.putShort(4, VERSION_UNSUMMARISED)
+				.put(6, (byte) Double.BYTES)
+				.put(7, FLAG_TOMBSTONE)
+				.putLong(56, id);
+		record.putInt(12, checksum(record));
+		return record;
+	}
+
+	// savedAt is in milliseconds since the epoch, or 0 if not known
+	static ByteBuffer encode(GraphData graph, Precision precision, long id, long savedAt) {
+		TrajectoryView data = graph.trajectoryData();
+		int samples = data.size();
+		long length = (SUMMARY_HEADER_BYTES + 4L * samples * precision.width + 7) & ~7L;
+		if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("Trajectory is too long to store: " + samples + " samples.");
+		ByteBuffer record = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+		record.putInt(MAGIC)
+				.putShort(VERSION)
+				.put((byte) precision.width)
+				.put((byte) 0)
+				.putInt(samples)
+				.putInt(0)
+				.putDouble(graph.maxX())
+				.putDouble(graph.maxY())
+				.putDouble(graph.launchAngle())
+				.putDouble(graph.initialVelocity())
+				.putDouble(graph.gravity())
+				.putLong(id)
+				.putLong(savedAt)
+				.putDouble(GraphSummary.range(data))
+				.putDouble(GraphSummary.maxHeight(data));
+
+		double[] column = new double[samples];
+		for (int c = 0; c < 4; c++) {
+			switch (c) {
+				case 0 -> data.copyX(0, column, 0, samples);
+				case 1 -> data.copyY(0, column, 0, samples);
+				case 2 -> data.copyTime(0, column, 0, samples);
+				default -> data.copyVelocity(0, column, 0, samples);
+			}
+			if (precision == Precision.DOUBLE) {
+				record.asDoubleBuffer().put(column);
+				record.position(record.position() + samples * Double.BYTES);
+			} else {
+				for (double value : column) record.putFloat((float) value);
+			}
+		}
+		record.clear();
+		record.putInt(12, checksum(record));
+		return record;
+	}
+
+	// A record that recordLength() accepted; the graph's trajectory reads the record's columns in place
+	static GraphData decode(ByteBuffer record) {
+		ByteBuffer header = record.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int width = header.get(6);
+		int samples = header.getInt(8);
+		int headerBytes = headerBytes(header.getShort(4));
+		MappedTrajectory trajectory = new MappedTrajectory(record.slice(headerBytes, record.capacity() - headerBytes),
+				samples, width);
+		return GraphData.wrap(trajectory, header.getDouble(16), header.getDouble(24), header.getDouble(32),
+				header.getDouble(40), header.getDouble(48));
+	}
+
+	/**
+	 * The summary a graph record's header holds, given at least its first {@link #SUMMARY_HEADER_BYTES}
+	 * bytes. Null for records from before version 3, whose columns must be read to summarise them.
+	 */
+	static GraphSummary summary(ByteBuffer header, long id, long bytes) {
+		if (header.getShort(4) < VERSION) return null;
+		return new GraphSummary(id, header.getLong(64), header.getDouble(32), header.getDouble(40), header.getDouble(48),
+				header.getDouble(72), header.getDouble(80), bytes);
+	}
+
+	private static MappedByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+}
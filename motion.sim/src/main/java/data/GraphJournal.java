@@ -0,0 +1,336 @@
+package data;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only, checksummed log of saved graphs in the {@link GraphFile} record format.
+ * <p>
+ * Saving a graph appends one record and removing one appends a tombstone, so the cost of a save
+ * does not depend on how much history there is, and a crash can at worst lose the record being
+ * written. Opening the journal scans it, keeps every record up to the first truncated or corrupt one,
+ * and cuts the file back to that point, after copying the damaged file aside. How often appends are forced to disk is set by the
+ * {@link SyncPolicy}. A clean close records how far the file was verified, so the next open only
+ * checksums what was appended after that; the mark is consumed by that open.
+ * <p>
+ * Only the position of each live record is kept in memory. {@link #get} maps a graph's record when it
+ * is asked for, so the journal's footprint does not grow with the trajectories it holds.
+ * <p>
+ * Removed graphs and their tombstones stay in the file until compaction. When they take up more
+ * than half the file, a background thread copies the live records to a new file. It then appends
+ * whatever was written meanwhile and renames the new file over the journal. On POSIX systems graphs
+ * already handed out keep reading the old, still-mapped file. Windows refuses to replace a file that
+ * is still mapped; there the rename fails, the journal carries on unchanged in the old file, and
+ * compaction is tried again once more space has gone dead.
+ */
+public class GraphJournal implements AutoCloseable {
+	public enum SyncPolicy {
+		EVERY_WRITE, // fsync after each append: nothing acknowledged is lost
+		PERIODIC, // fsync from the background thread at most SYNC_INTERVAL_MILLIS after an append
+		NEVER // leave it to the operating system
+	}
+
+	private static final long SYNC_INTERVAL_MILLIS = 1000;
+	// Compaction waits until at least this much could be reclaimed
+	private static final long MIN_COMPACT_BYTES = 1L << 20;
+
+	// Where a live graph's record starts in the file and how long it is
+	private record Stored(long position, long bytes) {
+	}
+
+	private final Path file;
+	private final SyncPolicy syncPolicy;
+	private final GraphFile.Precision precision;
+	private final ScheduledExecutorService background;
+	private final Map<Long, Stored> stored = new LinkedHashMap<>(); // Live graphs, oldest first
+
+	private FileChannel channel;
+	private long nextId = 1;
+	private long deadBytes;
+	private boolean dirty;
+	private boolean compacting;
+	private boolean compactionScheduled;
+	private long compactRetryBytes; // After a failed rename, dead bytes needed before trying again
+
+	public GraphJournal(Path file, SyncPolicy syncPolicy, GraphFile.Precision precision) throws IOException {
+		this.file = file;
+		this.syncPolicy = syncPolicy;
+		this.precision = precision;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			recover();
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		this.background = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "graph-journal");
+			thread.setDaemon(true);
+			return thread;
+		});
+		if (syncPolicy == SyncPolicy.PERIODIC) {
+			background.scheduleWithFixedDelay(this::syncIfDirty, SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// Ids of the live graphs, oldest first
+	public synchronized List<Long> ids() {
+		return new ArrayList<>(stored.keySet());
+	}
+
+	public synchronized int size() {
+		return stored.size();
+	}
+
+	public synchronized boolean contains(long id) {
+		return stored.containsKey(id);
+	}
+
+	/**
+	 * Maps the graph's record and returns it, or null if no live graph has the id. Each call maps the
+	 * record afresh; callers that read the same graph repeatedly should keep what they get.
+	 */
+	public synchronized GraphData get(long id) throws IOException {
+		Stored record = stored.get(id);
+		if (record == null) return null;
+		ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, record.position(), record.bytes());
+		return GraphFile.decode(mapped.order(ByteOrder.LITTLE_ENDIAN));
+	}
+
+	/**
+	 * The graph's summary read from its record header alone, or null if no live graph has the id or its
+	 * record is from before headers carried summaries, in which case {@link #get} it and summarise that.
+	 */
+	public synchronized GraphSummary summary(long id) throws IOException {
+		Stored record = stored.get(id);
+		if (record == null || record.bytes() < GraphFile.SUMMARY_HEADER_BYTES) return null;
+		ByteBuffer header = ByteBuffer.allocate(GraphFile.SUMMARY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		while (header.hasRemaining()) {
+			if (channel.read(header, record.position() + header.position()) < 0) throw new EOFException(file.toString());
+		}
+		return GraphFile.summary(header, id, record.bytes());
+	}
+
+	// Bytes of the graph's record on disk, or 0 if it is not live
+	public synchronized long recordBytes(long id) {
+		Stored record = stored.get(id);
+		return record == null ? 0 : record.bytes();
+	}
+
+	// Appends the graph, saved at the given time (epoch milliseconds, 0 if not known), and returns its id
+	public synchronized long append(GraphData graph, long savedAt) throws IOException {
+		long id = nextId++;
+		ByteBuffer record = GraphFile.encode(graph, precision, id, savedAt);
+		long position = channel.position();
+		write(record);
+		stored.put(id, new Stored(position, record.capacity()));
+		return id;
+	}
+
+	// Appends a tombstone for the graph; returns false if no live graph has that id
+	public synchronized boolean remove(long id) throws IOException {
+		if (!stored.containsKey(id)) return false;
+		write(GraphFile.tombstone(id));
+		deadBytes += stored.remove(id).bytes() + GraphFile.HEADER_BYTES;
+		maybeCompact();
+		return true;
+	}
+
+	// Bytes taken by removed graphs and tombstones that compaction would reclaim
+	public synchronized long getDeadBytes() {
+		return deadBytes;
+	}
+
+	public synchronized long getFileBytes() throws IOException {
+		return channel.size();
+	}
+
+	public synchronized void sync() throws IOException {
+		channel.force(false);
+		dirty = false;
+	}
+
+	/**
+	 * Rewrites the journal with only the live graphs, now, on the calling thread. Normally compaction runs
+	 * by itself in the background.
+	 */
+	public void compact() throws IOException {
+		List<Long> liveIds;
+		List<Stored> liveStored;
+		long snapshotEnd;
+		synchronized (this) {
+			compactionScheduled = false;
+			if (compacting || !channel.isOpen()) return;
+			compacting = true;
+			liveIds = new ArrayList<>(stored.keySet());
+			liveStored = new ArrayList<>(stored.values());
+			snapshotEnd = channel.size();
+		}
+		Path temp = file.resolveSibling(file.getFileName() + ".compact");
+		try {
+			long compactBytes = 0;
+			Map<Long, Long> moved = new HashMap<>(); // New position of each copied record
+			// Copies through a channel of its own: close() interrupts this thread, and an interrupted read
+			// closes the channel it was on, which must not be the one appends and close() still use
+			try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ);
+				 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						 StandardOpenOption.TRUNCATE_EXISTING)) {
+				for (int i = 0; i < liveIds.size(); i++) {
+					long id = liveIds.get(i);
+					Stored from = liveStored.get(i);
+					ByteBuffer record = source.map(FileChannel.MapMode.READ_ONLY, from.position(), from.bytes())
+							.order(ByteOrder.LITTLE_ENDIAN);
+					if (record.getShort(4) == GraphFile.VERSION_UNCHECKED) {
+						// Old records get their id and checksum written in
+						record = GraphFile.encode(GraphFile.decode(record), GraphFile.Precision.ofWidth(record.get(6)), id, 0);
+					}
+					moved.put(id, compactBytes);
+					compactBytes += record.remaining();
+					writeFully(out, record);
+				}
+				out.force(false);
+			}
+			synchronized (this) {
+				if (!channel.isOpen()) return; // Closed while copying
+				// Records appended while copying go after the live set; tombstones among them still name their graph
+				long end = channel.size();
+				try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+					out.position(out.size());
+					for (long position = snapshotEnd; position < end; ) {
+						position += channel.transferTo(position, end - position, out);
+					}
+					out.force(false);
+				}
+				channel.close();
+				try {
+					Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (IOException e) {
+					compactRetryBytes = deadBytes + MIN_COMPACT_BYTES;
+					throw e;
+				} finally {
+					// The move is atomic, so this is the compacted file or, if it failed, the untouched old one
+					channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+					channel.position(channel.size());
+				}
+				long liveBytes = 0;
+				for (Map.Entry<Long, Stored> entry : stored.entrySet()) {
+					Stored record = entry.getValue();
+					Long position = moved.get(entry.getKey());
+					// Anything not copied was appended during the copy and now follows the live set
+					long newPosition = position != null ? position : compactBytes + record.position() - snapshotEnd;
+					entry.setValue(new Stored(newPosition, record.bytes()));
+					liveBytes += record.bytes();
+				}
+				deadBytes = channel.size() - liveBytes;
+				compactRetryBytes = 0;
+				System.out.println("Compacted " + file + ": " + (snapshotEnd - compactBytes) + " bytes reclaimed");
+			}
+		} finally {
+			synchronized (this) {
+				compacting = false;
+			}
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		background.shutdownNow();
+		if (channel.isOpen()) {
+			channel.force(false);
+			long size = channel.size();
+			channel.close();
+			ByteBuffer mark = ByteBuffer.allocate(Long.BYTES).putLong(0, size);
+			Files.write(verifiedMark(), mark.array());
+		}
+	}
+
+	// Replays the file, truncating anything after the last valid record
+	private void recover() throws IOException {
+		long trustedBytes = 0;
+		Path mark = verifiedMark();
+		if (Files.exists(mark)) {
+			byte[] value = Files.readAllBytes(mark);
+			if (value.length == Long.BYTES) trustedBytes = ByteBuffer.wrap(value).getLong();
+			Files.delete(mark); // Only valid until the file next changes
+		}
+		long validBytes = GraphFile.scan(channel, file, trustedBytes, (position, record) -> {
+			long bytes = record.capacity();
+			if (GraphFile.isTombstone(record)) {
+				Stored removed = stored.remove(GraphFile.id(record));
+				deadBytes += bytes + (removed == null ? 0 : removed.bytes());
+			} else {
+				long id = record.getShort(4) == GraphFile.VERSION_UNCHECKED ? nextId : GraphFile.id(record);
+				stored.put(id, new Stored(position, bytes));
+				nextId = Math.max(nextId, id + 1);
+			}
+		});
+		long size = channel.size();
+		if (validBytes < size) {
+			Path backup = file.resolveSibling(file.getFileName() + ".bak");
+			Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+			System.err.println("Discarding " + (size - validBytes) + " bytes after the last valid record in " + file
+					+ "; the damaged file was copied to " + backup);
+			channel.truncate(validBytes);
+			channel.force(false);
+		}
+		channel.position(validBytes);
+	}
+
+	private Path verifiedMark() {
+		return file.resolveSibling(file.getFileName() + ".verified");
+	}
+
+	private void write(ByteBuffer record) throws IOException {
+		writeFully(channel, record);
+		if (syncPolicy == SyncPolicy.EVERY_WRITE) {
+			channel.force(false);
+		} else {
+			dirty = true;
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer record) throws IOException {
+		while (record.hasRemaining()) channel.write(record);
+	}
+
+	private synchronized void syncIfDirty() {
+		if (!dirty || !channel.isOpen()) return;
+		try {
+			sync();
+		} catch (IOException e) {
+			System.err.println("Error syncing " + file + ": " + e.getMessage());
+		}
+	}
+
+	private void maybeCompact() throws IOException {
+		if (compacting || compactionScheduled || deadBytes < Math.max(MIN_COMPACT_BYTES, compactRetryBytes)
+				|| deadBytes * 2 < channel.size()) return;
+		compactionScheduled = true;
+		background.execute(() -> {
+			try {
+				compact();
+			} catch (ClosedByInterruptException e) {
+				// close() stopped the copy; the journal itself is untouched
+			} catch (IOException e) {
+				System.err.println("Error compacting " + file + ": " + e.getMessage());
+			}
+		});
+	}
+}
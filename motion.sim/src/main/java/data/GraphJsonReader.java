@@ -0,0 +1,71 @@
+package data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a JSON array of graphs one at a time, so a file of any size can be processed in the memory
+ * of a single graph. Accepts what {@link GraphJsonWriter} writes and the graphs.json files saved before
+ * the binary store. Read and parse errors surface from {@link #hasNext} and {@link #next} as
+ * {@link UncheckedIOException}.
+ */
+public class GraphJsonReader implements Iterator<GraphData>, Closeable {
+	private final JsonReader json;
+	private final GraphDataAdapter adapter = new GraphDataAdapter();
+	private boolean started;
+	private boolean finished;
+
+	public GraphJsonReader(Reader reader) {
+		this.json = new JsonReader(reader);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (finished) return false;
+		try {
+			if (!started) {
+				started = true;
+				if (json.peek() == JsonToken.NULL) { // What an empty list used to be saved as
+					json.nextNull();
+					finished = true;
+					return false;
+				}
+				json.beginArray();
+			}
+			if (json.hasNext()) return true;
+			json.endArray();
+			finished = true;
+			return false;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (IllegalStateException e) {
+			throw new UncheckedIOException(new IOException("Invalid graphs JSON: " + e.getMessage(), e));
+		}
+	}
+
+	@Override
+	public GraphData next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		try {
+			GraphData graph = adapter.read(json);
+			if (graph == null) throw new IOException("Invalid graphs JSON: null graph at " + json.getPath());
+			return graph;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (IllegalStateException | NumberFormatException e) {
+			throw new UncheckedIOException(new IOException("Invalid graphs JSON: " + e.getMessage(), e));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		json.close();
+	}
+}
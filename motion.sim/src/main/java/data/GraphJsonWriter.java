@@ -0,0 +1,53 @@
+package data;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams graphs to a JSON array one at a time, in the format {@link GraphJsonReader} and
+ * {@link DataLogger#importJson} read. Nothing is held beyond the graph being written, so an export
+ * of any size runs in constant memory. Call {@link #finish} once every graph is written; closing
+ * without it, e.g. after an error, leaves the array open so the output cannot pass for a complete export.
+ */
+public class GraphJsonWriter implements Closeable {
+	private final Writer out;
+	private final JsonWriter json;
+	private final GraphDataAdapter adapter = new GraphDataAdapter();
+	private int count;
+	private boolean finished;
+
+	public GraphJsonWriter(Writer writer) throws IOException {
+		this.out = writer;
+		this.json = new JsonWriter(writer);
+		json.beginArray();
+	}
+
+	public void write(GraphData graph) throws IOException {
+		adapter.write(json, graph);
+		count++;
+	}
+
+	// Graphs written so far
+	public int getCount() {
+		return count;
+	}
+
+	// Ends the array and flushes it
+	public void finish() throws IOException {
+		json.endArray();
+		json.flush();
+		finished = true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (finished) {
+			json.close();
+		} else {
+			out.close(); // JsonWriter.close() would reject the incomplete document
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package data;
+
+/**
+ * The searchable facts about a saved graph, without its trajectory: launch parameters, the distance
+ * and height the projectile reached, when it was saved and how many bytes its record takes on disk.
+ */
+public record GraphSummary(long id, long savedAt, double launchAngle, double initialVelocity, double gravity,
+		double range, double maxHeight, long bytes) {
+
+	// Range is the horizontal distance of the last sample, max height the highest sample
+	public static GraphSummary of(long id, long savedAt, GraphData graph, long bytes) {
+		TrajectoryView data = graph.trajectoryData();
+		return new GraphSummary(id, savedAt, graph.launchAngle(), graph.initialVelocity(), graph.gravity(),
+				range(data), maxHeight(data), bytes);
+	}
+
+	static double range(TrajectoryView data) {
+		return data.isEmpty() ? 0 : data.getX(data.size() - 1) - data.getX(0);
+	}
+
+	static double maxHeight(TrajectoryView data) {
+		double maxHeight = 0;
+		for (int i = 0; i < data.size(); i++) maxHeight = Math.max(maxHeight, data.getY(i));
+		return maxHeight;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Graph: Initial Velocity = %.2f m/s, Launch Angle = %.2f°, Gravity = %.2f m/s²",
+				initialVelocity, launchAngle, gravity);
+	}
+}
@@ -0,0 +1,99 @@
+package data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A {@link TrajectoryView} straight over the columns of a stored graph record: x, y, time and velocity
+ * one after another, little-endian, as doubles or floats. Nothing is copied or parsed; reads go to the
+ * mapped file. Float columns are widened on read.
+ */
+final class MappedTrajectory implements TrajectoryView {
+	private static final int X = 0;
+	private static final int Y = 1;
+	private static final int TIME = 2;
+	private static final int VELOCITY = 3;
+
+	private final ByteBuffer columns;
+	private final int size;
+	private final int width;
+
+	// columns starts at the x column and holds four columns of size values, each width bytes wide
+	MappedTrajectory(ByteBuffer columns, int size, int width) {
+		if (width != Double.BYTES && width != Float.BYTES) throw new IllegalArgumentException("Column width must be 4 or 8 bytes.");
+		if (columns.remaining() < 4L * size * width) throw new IllegalArgumentException("Columns are shorter than " + size + " samples.");
+		this.columns = columns.slice().order(ByteOrder.LITTLE_ENDIAN);
+		this.size = size;
+		this.width = width;
+	}
+
+	// Zero for a mapped file; only a record decoded from a heap buffer keeps its columns on the heap
+	long heapBytes() {
+		return columns.isDirect() ? 0 : columns.capacity();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double getX(int index) {
+		return get(X, index);
+	}
+
+	@Override
+	public double getY(int index) {
+		return get(Y, index);
+	}
+
+	@Override
+	public double getTime(int index) {
+		return get(TIME, index);
+	}
+
+	@Override
+	public double getVelocity(int index) {
+		return get(VELOCITY, index);
+	}
+
+	@Override
+	public void copyX(int from, double[] dest, int destOffset, int length) {
+		copy(X, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyY(int from, double[] dest, int destOffset, int length) {
+		copy(Y, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyTime(int from, double[] dest, int destOffset, int length) {
+		copy(TIME, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyVelocity(int from, double[] dest, int destOffset, int length) {
+		copy(VELOCITY, from, dest, destOffset, length);
+	}
+
+	private double get(int column, int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		int offset = (column * size + index) * width;
+		return width == Double.BYTES ? columns.getDouble(offset) : columns.getFloat(offset);
+	}
+
+	private void copy(int column, int from, double[] dest, int destOffset, int length) {
+		if (from < 0 || length < 0 || from + length > size) {
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + (from + length) + ") out of bounds for size " + size);
+		}
+		int offset = (column * size + from) * width;
+		if (width == Double.BYTES) {
+			columns.slice(offset, length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dest, destOffset, length);
+		} else {
+			for (int i = 0; i < length; i++) dest[destOffset + i] = columns.getFloat(offset + i * Float.BYTES);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package data;
+
+import java.time.Duration;
+
+/**
+ * How much run history to keep. The oldest runs are evicted until the history is within every limit
+ * that is set: a number of runs, an age, and the bytes the runs' records take on disk.
+ */
+public record RetentionPolicy(int maxRuns, Duration maxAge, long maxBytes) {
+	public RetentionPolicy {
+		if (maxRuns <= 0) throw new IllegalArgumentException("Max runs must be greater than zero.");
+		if (maxAge == null || maxAge.isNegative() || maxAge.isZero()) throw new IllegalArgumentException("Max age must be positive.");
+		if (maxBytes <= 0) throw new IllegalArgumentException("Max bytes must be greater than zero.");
+	}
+
+	public static RetentionPolicy unlimited() {
+		return new RetentionPolicy(Integer.MAX_VALUE, Duration.ofSeconds(Long.MAX_VALUE), Long.MAX_VALUE);
+	}
+
+	public static RetentionPolicy keepLast(int runs) {
+		return unlimited().withMaxRuns(runs);
+	}
+
+	public RetentionPolicy withMaxRuns(int runs) {
+		return new RetentionPolicy(runs, maxAge, maxBytes);
+	}
+
+	public RetentionPolicy withMaxAge(Duration age) {
+		return new RetentionPolicy(maxRuns, age, maxBytes);
+	}
+
+	public RetentionPolicy withMaxBytes(long bytes) {
+		return new RetentionPolicy(maxRuns, maxAge, bytes);
+	}
+
+	// Whether a history of this many runs and bytes, whose oldest run was saved at oldestSavedAt, must shrink
+	public boolean exceeded(int runs, long bytes, long oldestSavedAt, long now) {
+		if (runs > maxRuns || bytes > maxBytes) return true;
+		return runs > 0 && Duration.ofMillis(now - oldestSavedAt).compareTo(maxAge) > 0;
+	}
+}
@@ -0,0 +1,487 @@
+package data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Searchable summaries of every saved run, kept beside the graph journal so that queries never touch
+ * trajectories.
+ * <p>
+ * Summaries are appended as fixed 64-byte rows to {@code <name>.idx}, and removals are appended as
+ * rows too. Each {@link Key} has a secondary index: the row numbers sorted by that key, saved as
+ * {@code <name>.<key>.srt}. On open the rows are read into primitive columns, and each sorted file is
+ * loaded as is, with only the rows added since it was written merged in. New rows are inserted into
+ * the sorted arrays as they arrive, and the files are rewritten every {@link #PERSIST_EVERY} rows
+ * and on close. Range and top-k queries binary-search these arrays, so they take milliseconds even
+ * with hundreds of thousands of runs.
+ * <p>
+ * Ids must be added in increasing order, as the journal assigns them. The index is derived data: if
+ * it is lost or falls behind the journal, {@link DataLogger} rebuilds or tops it up from the journal.
+ * Not thread-safe.
+ */
+public class RunIndex implements AutoCloseable {
+	public enum Key {
+		LAUNCH_ANGLE, INITIAL_VELOCITY, GRAVITY, RANGE, MAX_HEIGHT
+	}
+
+	private static final int MAGIC = 0x4952534D; // "MSRI"
+	private static final int SORTED_MAGIC = 0x5352534D; // "MSRS"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	private static final int ROW_BYTES = 64;
+	private static final int PERSIST_EVERY = 4096;
+	private static final Key[] KEYS = Key.values();
+
+	private final Path directory;
+	private final String name;
+	private final Path rowFile;
+	private FileChannel rows;
+
+	// Columns by row; removal rows in the file are applied, not stored
+	private int rowCount;
+	private long[] ids = new long[64];
+	private long[] savedAt = new long[64];
+	private long[] bytes = new long[64];
+	private final double[][] keys = new double[KEYS.length][64];
+	private final BitSet removed = new BitSet();
+	private final int[][] sorted = new int[KEYS.length][64];
+
+	private int liveCount;
+	private long liveBytes;
+	private int oldestLive; // No live row before this one
+	private int persistedRows; // Rows covered by the sorted files on disk
+	private long generation; // Changes whenever row numbers do, so sorted files from before are not trusted
+
+	public RunIndex(Path directory, String name) throws IOException {
+		this.directory = directory;
+		this.name = name;
+		this.rowFile = directory.resolve(name + ".idx");
+		this.rows = FileChannel.open(rowFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			load();
+			loadSorted();
+		} catch (IOException e) {
+			rows.close();
+			throw e;
+		}
+	}
+
+	// Adds a run; its id must be greater than every id added before
+	public void add(GraphSummary summary) throws IOException {
+		if (rowCount > 0 && summary.id() <= ids[rowCount - 1]) {
+			throw new IllegalArgumentException("Run ids must increase: " + summary.id() + " after " + ids[rowCount - 1]);
+		}
+		ByteBuffer row = ByteBuffer.allocate(ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		row.putLong(summary.id())
+				.putLong(summary.savedAt())
+				.putDouble(summary.launchAngle())
+				.putDouble(summary.initialVelocity())
+				.putDouble(summary.gravity())
+				.putDouble(summary.range())
+				.putDouble(summary.maxHeight())
+				.putLong(summary.bytes());
+		row.flip();
+		writeRow(row);
+		int index = addRow(summary.id(), summary.savedAt(), summary.bytes(), row);
+		for (int k = 0; k < KEYS.length; k++) insertSorted(k, index);
+		if (rowCount - persistedRows >= PERSIST_EVERY) persistSorted();
+	}
+
+	// Returns false if no live run has the id
+	public boolean remove(long id) throws IOException {
+		int index = rowOf(id);
+		if (index < 0 || removed.get(index)) return false;
+		ByteBuffer row = ByteBuffer.allocate(ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		row.putLong(0, ~id);
+		writeRow(row);
+		markRemoved(index);
+		if (removed.cardinality() > Math.max(PERSIST_EVERY, liveCount)) compact();
+		return true;
+	}
+
+	public boolean contains(long id) {
+		int index = rowOf(id);
+		return index >= 0 && !removed.get(index);
+	}
+
+	public GraphSummary get(long id) {
+		int index = rowOf(id);
+		return index < 0 || removed.get(index) ? null : summary(index);
+	}
+
+	public int size() {
+		return liveCount;
+	}
+
+	// Largest id ever added, live or removed; 0 when empty
+	public long lastId() {
+		return rowCount == 0 ? 0 : ids[rowCount - 1];
+	}
+
+	// Record bytes of the live runs
+	public long liveBytes() {
+		return liveBytes;
+	}
+
+	public GraphSummary oldest() {
+		return liveCount == 0 ? null : summary(oldestLive);
+	}
+
+	// Every live run, oldest first
+	public List<GraphSummary> all() {
+		List<GraphSummary> result = new ArrayList<>(liveCount);
+		for (int i = removed.nextClearBit(oldestLive); i < rowCount; i = removed.nextClearBit(i + 1)) result.add(summary(i));
+		return result;
+	}
+
+	// Live runs with min <= key <= max, in ascending key order
+	public List<GraphSummary> range(Key key, double min, double max) {
+		int k = key.ordinal();
+		List<GraphSummary> result = new ArrayList<>();
+		for (int p = lowerBound(k, min); p < rowCount && keys[k][sorted[k][p]] <= max; p++) {
+			if (!removed.get(sorted[k][p])) result.add(summary(sorted[k][p]));
+		}
+		return result;
+	}
+
+	// Number of live and removed rows with min <= key <= max; an upper bound on what range() returns
+	public int estimate(Key key, double min, double max) {
+		int k = key.ordinal();
+		return upperBound(k, max) - lowerBound(k, min);
+	}
+
+	// The k live runs with the largest key, largest first
+	public List<GraphSummary> top(Key key, int k) {
+		return top(key, k, null, 0, 0);
+	}
+
+	/**
+	 * The k live runs with the largest key among those whose filter key is within [filterMin, filterMax],
+	 * largest first; e.g. the longest ranges with gravity between 3.6 and 3.8. Walks down the sort key's
+	 * index when the filter is loose, or selects from the filter key's range when that is small.
+	 */
+	public List<GraphSummary> top(Key key, int k, Key filter, double filterMin, double filterMax) {
+		if (k <= 0) return new ArrayList<>();
+		int sortKey = key.ordinal();
+		if (filter != null && estimate(filter, filterMin, filterMax) < rowCount / 8) {
+			int f = filter.ordinal();
+			PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(keys[sortKey][a], keys[sortKey][b]));
+			for (int p = lowerBound(f, filterMin); p < rowCount && keys[f][sorted[f][p]] <= filterMax; p++) {
+				int row = sorted[f][p];
+				if (removed.get(row)) continue;
+				best.add(row);
+				if (best.size() > k) best.poll();
+			}
+			List<GraphSummary> result = new ArrayList<>(best.size());
+			while (!best.isEmpty()) result.add(summary(best.poll()));
+			Collections.reverse(result);
+			return result;
+		}
+		List<GraphSummary> result = new ArrayList<>(k);
+		for (int p = rowCount - 1; p >= 0 && result.size() < k; p--) {
+			int row = sorted[sortKey][p];
+			if (removed.get(row)) continue;
+			if (filter != null) {
+				double value = keys[filter.ordinal()][row];
+				if (value < filterMin || value > filterMax) continue;
+			}
+			result.add(summary(row));
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!rows.isOpen()) return;
+		if (persistedRows != rowCount) persistSorted();
+		rows.close();
+	}
+
+	// Drops every row, e.g. before rebuilding from the journal
+	public void clear() throws IOException {
+		rows.truncate(0);
+		generation++;
+		writeHeader();
+		rowCount = 0;
+		liveCount = 0;
+		liveBytes = 0;
+		oldestLive = 0;
+		removed.clear();
+		persistSorted();
+	}
+
+	private void load() throws IOException {
+		long size = rows.size();
+		if (size < HEADER_BYTES) {
+			rows.truncate(0);
+			writeHeader();
+			return;
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		rows.read(header, 0);
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			System.err.println("Unrecognised run index " + rowFile + "; starting a new one.");
+			rows.truncate(0);
+			writeHeader();
+			return;
+		}
+		generation = header.getLong(8);
+		long rowBytes = (size - HEADER_BYTES) / ROW_BYTES * ROW_BYTES;
+		if (HEADER_BYTES + rowBytes < size) rows.truncate(HEADER_BYTES + rowBytes); // Torn last row
+		if (rowBytes > 0) {
+			MappedByteBuffer mapped = rows.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, rowBytes);
+			mapped.order(ByteOrder.LITTLE_ENDIAN);
+			for (long offset = 0; offset < rowBytes; offset += ROW_BYTES) {
+				ByteBuffer row = mapped.slice((int) offset, ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				long id = row.getLong(0);
+				if (id < 0) {
+					int index = rowOf(~id);
+					if (index >= 0 && !removed.get(index)) markRemoved(index);
+				} else if (rowCount == 0 || id > ids[rowCount - 1]) {
+					addRow(id, row.getLong(8), row.getLong(56), row);
+				}
+			}
+		}
+		rows.position(rows.size());
+	}
+
+	// Loads each sorted file that matches the rows, merging in rows added after it was written
+	private void loadSorted() throws IOException {
+		int covered = rowCount;
+		for (int k = 0; k < KEYS.length; k++) {
+			int count = Math.max(0, readSorted(k)); // A missing or stale file is rebuilt from scratch
+			mergeRows(k, count);
+			covered = Math.min(covered, count);
+		}
+		persistedRows = covered;
+	}
+
+	// Sorts rows from..rowCount-1 by key k and merges them into the sorted rows before them
+	private void mergeRows(int k, int from) {
+		int added = rowCount - from;
+		if (added == 0) return;
+		int[] tail = new int[added];
+		for (int i = 0; i < added; i++) tail[i] = from + i;
+		sortByKey(tail, keys[k]);
+		int[] merged = new int[sorted[k].length];
+		int a = 0;
+		int b = 0;
+		for (int out = 0; out < rowCount; out++) {
+			if (b == added || (a < from && Double.compare(keys[k][sorted[k][a]], keys[k][tail[b]]) <= 0)) {
+				merged[out] = sorted[k][a++];
+			} else {
+				merged[out] = tail[b++];
+			}
+		}
+		sorted[k] = merged;
+	}
+
+	// Stable merge sort of row numbers by their key
+	private static void sortByKey(int[] rows, double[] key) {
+		int[] buffer = new int[rows.length];
+		for (int width = 1; width < rows.length; width *= 2) {
+			for (int low = 0; low < rows.length - width; low += 2 * width) {
+				int mid = low + width;
+				int high = Math.min(low + 2 * width, rows.length);
+				int a = low;
+				int b = mid;
+				for (int out = low; out < high; out++) {
+					if (b == high || (a < mid && Double.compare(key[rows[a]], key[rows[b]]) <= 0)) buffer[out] = rows[a++];
+					else buffer[out] = rows[b++];
+				}
+				System.arraycopy(buffer, low, rows, low, high - low);
+			}
+		}
+	}
+
+	// Returns how many rows the file covered, or -1 if it is missing or does not match
+	private int readSorted(int k) throws IOException {
+		Path file = sortedFile(k);
+		if (!Files.exists(file)) return -1;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(header, 0);
+			int count = header.getInt(4);
+			if (header.getInt(0) != SORTED_MAGIC || header.getLong(8) != generation
+					|| count < 0 || count > rowCount || channel.size() != 16 + 4L * count) return -1;
+			IntBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, 16, 4L * count).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			values.get(sorted[k], 0, count);
+			BitSet seen = new BitSet(count);
+			for (int p = 0; p < count; p++) {
+				int row = sorted[k][p];
+				if (row < 0 || row >= count || seen.get(row)) return -1;
+				seen.set(row);
+			}
+			return count;
+		}
+	}
+
+	private void persistSorted() throws IOException {
+		for (int k = 0; k < KEYS.length; k++) {
+			Path file = sortedFile(k);
+			Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+			ByteBuffer buffer = ByteBuffer.allocate(16 + 4 * rowCount).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(SORTED_MAGIC).putInt(rowCount).putLong(generation);
+			buffer.asIntBuffer().put(sorted[k], 0, rowCount);
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				while (buffer.hasRemaining()) channel.write(buffer);
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		persistedRows = rowCount;
+	}
+
+	// Rewrites the index with only live rows once removals outnumber them
+	private void compact() throws IOException {
+		int[] newRow = new int[rowCount];
+		Path temp = rowFile.resolveSibling(rowFile.getFileName() + ".tmp");
+		int live = 0;
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putLong(generation + 1).flip();
+			while (header.hasRemaining()) out.write(header);
+			ByteBuffer row = ByteBuffer.allocate(ROW_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = 0; i < rowCount; i++) {
+				if (removed.get(i)) {
+					newRow[i] = -1;
+					continue;
+				}
+				row.clear();
+				row.putLong(ids[i]).putLong(savedAt[i]);
+				for (int k = 0; k < KEYS.length; k++) row.putDouble(keys[k][i]);
+				row.putLong(bytes[i]).flip();
+				while (row.hasRemaining()) out.write(row);
+
+				ids[live] = ids[i];
+				savedAt[live] = savedAt[i];
+				bytes[live] = bytes[i];
+				for (int k = 0; k < KEYS.length; k++) keys[k][live] = keys[k][i];
+				newRow[i] = live++;
+			}
+		}
+		rows.close();
+		Files.move(temp, rowFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		rows = FileChannel.open(rowFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		rows.position(rows.size());
+
+		// Sorted order survives; only the row numbers change
+		for (int k = 0; k < KEYS.length; k++) {
+			int next = 0;
+			for (int p = 0; p < rowCount; p++) {
+				int row = newRow[sorted[k][p]];
+				if (row >= 0) sorted[k][next++] = row;
+			}
+		}
+		rowCount = live;
+		generation++;
+		removed.clear();
+		oldestLive = 0;
+		persistSorted();
+	}
+
+	private int addRow(long id, long time, long size, ByteBuffer row) {
+		if (rowCount == ids.length) grow(rowCount * 2);
+		int index = rowCount++;
+		ids[index] = id;
+		savedAt[index] = time;
+		bytes[index] = size;
+		for (int k = 0; k < KEYS.length; k++) keys[k][index] = row.getDouble(16 + 8 * k);
+		liveCount++;
+		liveBytes += size;
+		return index;
+	}
+
+	private void markRemoved(int index) {
+		removed.set(index);
+		liveCount--;
+		liveBytes -= bytes[index];
+		if (index == oldestLive) oldestLive = removed.nextClearBit(index);
+	}
+
+	private void grow(int capacity) {
+		ids = Arrays.copyOf(ids, capacity);
+		savedAt = Arrays.copyOf(savedAt, capacity);
+		bytes = Arrays.copyOf(bytes, capacity);
+		for (int k = 0; k < KEYS.length; k++) {
+			keys[k] = Arrays.copyOf(keys[k], capacity);
+			sorted[k] = Arrays.copyOf(sorted[k], capacity);
+		}
+	}
+
+	// Inserts the newest row into key k's order; every row before it is already sorted
+	private void insertSorted(int k, int row) {
+		int position = upperBound(k, keys[k][row], row);
+		System.arraycopy(sorted[k], position, sorted[k], position + 1, row - position);
+		sorted[k][position] = row;
+	}
+
+	// First position whose key is >= value
+	private int lowerBound(int k, double value) {
+		int low = 0;
+		int high = rowCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Double.compare(keys[k][sorted[k][mid]], value) < 0) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	// First position whose key is > value
+	private int upperBound(int k, double value) {
+		return upperBound(k, value, rowCount);
+	}
+
+	private int upperBound(int k, double value, int count) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (Double.compare(keys[k][sorted[k][mid]], value) <= 0) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	private int rowOf(long id) {
+		int index = Arrays.binarySearch(ids, 0, rowCount, id);
+		return index < 0 ? -1 : index;
+	}
+
+	private GraphSummary summary(int row) {
+		return new GraphSummary(ids[row], savedAt[row], keys[0][row], keys[1][row], keys[2][row], keys[3][row],
+				keys[4][row], bytes[row]);
+	}
+
+	private void writeRow(ByteBuffer row) throws IOException {
+		while (row.hasRemaining()) rows.write(row);
+	}
+
+	private void writeHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+		rows.position(0);
+		while (header.hasRemaining()) rows.write(header);
+	}
+
+	private Path sortedFile(int k) {
+		return directory.resolve(name + "." + KEYS[k].name().toLowerCase(Locale.ROOT) + ".srt");
+	}
+}
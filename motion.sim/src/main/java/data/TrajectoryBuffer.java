@@ -0,0 +1,227 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays trajectory storage: one primitive column each for x, y, time and velocity.
+ * <p>
+ * Buffers grow like an {@code ArrayList} but should be presized with the expected sample count,
+ * and can be {@link #clear() cleared} and refilled (see {@link TrajectoryBufferPool}) to avoid
+ * reallocating on every run. Not thread-safe.
+ */
+public final class TrajectoryBuffer implements TrajectoryView {
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private double[] x;
+	private double[] y;
+	private double[] time;
+	private double[] velocity;
+	private int size;
+
+	public TrajectoryBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public TrajectoryBuffer(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException("Capacity must not be negative.");
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.time = new double[capacity];
+		this.velocity = new double[capacity];
+	}
+
+	public static TrajectoryBuffer copyOf(TrajectoryView source) {
+		TrajectoryBuffer copy = new TrajectoryBuffer(source.size());
+		copy.addAll(source);
+		return copy;
+	}
+
+	public void add(double x, double y, double time, double velocity) {
+		if (size == this.x.length) grow(size + 1);
+		this.x[size] = x;
+		this.y[size] = y;
+		this.time[size] = time;
+		this.velocity[size] = velocity;
+		size++;
+	}
+
+	public void addAll(TrajectoryView source) {
+		int count = source.size();
+		ensureCapacity(size + count);
+		source.copyX(0, x, size, count);
+		source.copyY(0, y, size, count);
+		source.copyTime(0, time, size, count);
+		source.copyVelocity(0, velocity, size, count);
+		size += count;
+	}
+
+	public void ensureCapacity(int capacity) {
+		if (capacity > x.length) grow(capacity);
+	}
+
+	private void grow(int minCapacity) {
+		int capacity = Math.max(minCapacity, x.length + (x.length >> 1) + 1);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		time = Arrays.copyOf(time, capacity);
+		velocity = Arrays.copyOf(velocity, capacity);
+	}
+
+	/**
+	 * Sets the number of valid samples after the columns were written through the array accessors.
+	 */
+	public void setSize(int size) {
+		if (size < 0 || size > x.length) {
+			throw new IndexOutOfBoundsException("Size " + size + " out of bounds for capacity " + x.length);
+		}
+		this.size = size;
+	}
+
+	// Keeps the arrays so the buffer can be refilled without allocating
+	public void clear() {
+		size = 0;
+	}
+
+	public int capacity() {
+		return x.length;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public double getX(int index) {
+		checkIndex(index);
+		return x[index];
+	}
+
+	@Override
+	public double getY(int index) {
+		checkIndex(index);
+		return y[index];
+	}
+
+	@Override
+	public double getTime(int index) {
+		checkIndex(index);
+		return time[index];
+	}
+
+	@Override
+	public double getVelocity(int index) {
+		checkIndex(index);
+		return velocity[index];
+	}
+
+	@Override
+	public void copyX(int from, double[] dest, int destOffset, int length) {
+		checkRange(from, length);
+		System.arraycopy(x, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyY(int from, double[] dest, int destOffset, int length) {
+		checkRange(from, length);
+		System.arraycopy(y, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyTime(int from, double[] dest, int destOffset, int length) {
+		checkRange(from, length);
+		System.arraycopy(time, from, dest, destOffset, length);
+	}
+
+	@Override
+	public void copyVelocity(int from, double[] dest, int destOffset, int length) {
+		checkRange(from, length);
+		System.arraycopy(velocity, from, dest, destOffset, length);
+	}
+
+	/*
+	 * Direct access to the backing columns for the code that owns this buffer.
+	 * Only the first size() entries are valid, and the arrays are replaced when the buffer grows.
+	 */
+	public double[] xArray() {
+		return x;
+	}
+
+	public double[] yArray() {
+		return y;
+	}
+
+	public double[] timeArray() {
+		return time;
+	}
+
+	public double[] velocityArray() {
+		return velocity;
+	}
+
+	/**
+	 * Returns a view that reflects later changes to this buffer but cannot modify it.
+	 */
+	public TrajectoryView asReadOnly() {
+		return new ReadOnlyView(this);
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+	}
+
+	private void checkRange(int from, int length) {
+		if (from < 0 || length < 0 || from + length > size) {
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + (from + length) + ") out of bounds for size " + size);
+		}
+	}
+
+	private record ReadOnlyView(TrajectoryBuffer buffer) implements TrajectoryView {
+		@Override
+		public int size() {
+			return buffer.size();
+		}
+
+		@Override
+		public double getX(int index) {
+			return buffer.getX(index);
+		}
+
+		@Override
+		public double getY(int index) {
+			return buffer.getY(index);
+		}
+
+		@Override
+		public double getTime(int index) {
+			return buffer.getTime(index);
+		}
+
+		@Override
+		public double getVelocity(int index) {
+			return buffer.getVelocity(index);
+		}
+
+		@Override
+		public void copyX(int from, double[] dest, int destOffset, int length) {
+			buffer.copyX(from, dest, destOffset, length);
+		}
+
+		@Override
+		public void copyY(int from, double[] dest, int destOffset, int length) {
+			buffer.copyY(from, dest, destOffset, length);
+		}
+
+		@Override
+		public void copyTime(int from, double[] dest, int destOffset, int length) {
+			buffer.copyTime(from, dest, destOffset, length);
+		}
+
+		@Override
+		public void copyVelocity(int from, double[] dest, int destOffset, int length) {
+			buffer.copyVelocity(from, dest, destOffset, length);
+		}
+	}
+}
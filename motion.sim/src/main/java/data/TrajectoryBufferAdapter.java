@@ -0,0 +1,43 @@
+package data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link TrajectoryView} as an array of samples in {@link DataPointAdapter}'s compact form,
+ * {@code [[x,y,time,velocity], ...]}. Reads accept that and the keyed objects of the old
+ * {@code List<DataPoint>}, so existing graphs.json files still load, and produce a read-only view of a
+ * new {@link TrajectoryBuffer}.
+ */
+class TrajectoryBufferAdapter extends TypeAdapter<TrajectoryView> {
+
+	@Override
+	public void write(JsonWriter out, TrajectoryView trajectory) throws IOException {
+		if (trajectory == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginArray();
+		for (int i = 0; i < trajectory.size(); i++) {
+			DataPointAdapter.write(out, trajectory.getX(i), trajectory.getY(i), trajectory.getTime(i), trajectory.getVelocity(i));
+		}
+		out.endArray();
+	}
+
+	@Override
+	public TrajectoryView read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return new TrajectoryBuffer(0).asReadOnly();
+		}
+		TrajectoryBuffer buffer = new TrajectoryBuffer();
+		in.beginArray();
+		while (in.hasNext()) DataPointAdapter.readInto(in, buffer);
+		in.endArray();
+		return buffer.asReadOnly();
+	}
+}
@@ -0,0 +1,41 @@
+package data;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A small pool of cleared {@link TrajectoryBuffer}s so repeated runs reuse their column arrays.
+ */
+public final class TrajectoryBufferPool {
+	private static final int DEFAULT_MAX_POOLED = 16;
+
+	private final Deque<TrajectoryBuffer> available = new ArrayDeque<>();
+	private final int maxPooled;
+
+	public TrajectoryBufferPool() {
+		this(DEFAULT_MAX_POOLED);
+	}
+
+	public TrajectoryBufferPool(int maxPooled) {
+		if (maxPooled < 0) throw new IllegalArgumentException("Pool size must not be negative.");
+		this.maxPooled = maxPooled;
+	}
+
+	public synchronized TrajectoryBuffer acquire(int capacity) {
+		TrajectoryBuffer buffer = available.pollFirst();
+		if (buffer == null) return new TrajectoryBuffer(capacity);
+		buffer.ensureCapacity(capacity);
+		return buffer;
+	}
+
+	// The caller must not use the buffer, or any view of it, after releasing it
+	public synchronized void release(TrajectoryBuffer buffer) {
+		if (buffer == null || available.size() >= maxPooled) return;
+		buffer.clear();
+		available.addFirst(buffer);
+	}
+
+	public synchronized int pooledCount() {
+		return available.size();
+	}
+}
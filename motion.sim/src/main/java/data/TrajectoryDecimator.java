@@ -0,0 +1,89 @@
+package data;
+
+import java.util.Arrays;
+
+/**
+ * Ramer-Douglas-Peucker simplification of a trajectory polyline.
+ * <p>
+ * Every removed sample lies within {@code tolerance} (in world units, metres) of the segment
+ * that replaces it, so the simplified path never deviates from the original by more than the tolerance.
+ * The first and last samples are always kept. Uses an explicit stack, so long trajectories
+ * cannot overflow the call stack.
+ */
+public final class TrajectoryDecimator {
+
+	private TrajectoryDecimator() {
+	}
+
+	public static TrajectoryBuffer decimate(TrajectoryView source, double tolerance) {
+		return decimate(source, tolerance, new TrajectoryBuffer(Math.min(source.size(), 256)));
+	}
+
+	// Writes the kept samples into 'into', which is cleared first
+	public static TrajectoryBuffer decimate(TrajectoryView source, double tolerance, TrajectoryBuffer into) {
+		if (tolerance < 0) throw new IllegalArgumentException("Tolerance must not be negative.");
+		into.clear();
+		int size = source.size();
+		if (size <= 2) {
+			into.addAll(source);
+			return into;
+		}
+
+		double[] x = new double[size];
+		double[] y = new double[size];
+		source.copyX(0, x, 0, size);
+		source.copyY(0, y, 0, size);
+
+		boolean[] keep = new boolean[size];
+		keep[0] = true;
+		keep[size - 1] = true;
+
+		// Each pending segment is a (start, end) pair; depth is bounded by the sample count
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = size - 1;
+		double toleranceSquared = tolerance * tolerance;
+
+		while (top > 0) {
+			int end = stack[--top];
+			int start = stack[--top];
+			if (end - start < 2) continue;
+
+			int farthest = -1;
+			double farthestDistance = toleranceSquared;
+			for (int i = start + 1; i < end; i++) {
+				double distance = segmentDistanceSquared(x[i], y[i], x[start], y[start], x[end], y[end]);
+				if (distance > farthestDistance) {
+					farthestDistance = distance;
+					farthest = i;
+				}
+			}
+			if (farthest < 0) continue;
+
+			keep[farthest] = true;
+			if (top + 4 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+			stack[top++] = start;
+			stack[top++] = farthest;
+			stack[top++] = farthest;
+			stack[top++] = end;
+		}
+
+		for (int i = 0; i < size; i++) {
+			if (keep[i]) into.add(x[i], y[i], source.getTime(i), source.getVelocity(i));
+		}
+		return into;
+	}
+
+	// Distance to the segment rather than the infinite line, so points past either end are measured correctly
+	static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+		t = Math.max(0, Math.min(1, t));
+		double ex = px - (ax + t * dx);
+		double ey = py - (ay + t * dy);
+		return ex * ex + ey * ey;
+	}
+}
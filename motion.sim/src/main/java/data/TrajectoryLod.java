@@ -0,0 +1,196 @@
+package data;
+
+/**
+ * Multi-resolution copies of a trajectory for drawing at whatever size the canvas allows.
+ * <p>
+ * Level 0 is the source itself; each further level has half the samples of the one before,
+ * chosen with Largest-Triangle-Three-Buckets, down to {@link #MIN_LEVEL_SIZE}. LTTB keeps real
+ * samples, so times and velocities stay exact for tooltips. Every kept sample also carries the
+ * min/max height of the source bucket it stands for, so a renderer can show spikes that fell
+ * between the kept samples. The source is referenced, not copied, and must not change afterwards.
+ * <p>
+ * For drawing a small region of a long trajectory, {@link #chunkBounds(int)} gives the bounding
+ * box of every run of {@link #CHUNK_SIZE} segments, so runs outside the region can be skipped.
+ */
+public final class TrajectoryLod {
+	public static final int MIN_LEVEL_SIZE = 64;
+	public static final int CHUNK_SIZE = 256;
+
+	private final TrajectoryView[] levels;
+	private final double[][] envelopeMin;
+	private final double[][] envelopeMax;
+	private final double minY;
+	private final double maxY;
+	private final double[][] chunkBounds;
+
+	private TrajectoryLod(TrajectoryView[] levels, double[][] envelopeMin, double[][] envelopeMax, double minY, double maxY) {
+		this.levels = levels;
+		this.envelopeMin = envelopeMin;
+		this.envelopeMax = envelopeMax;
+		this.minY = minY;
+		this.maxY = maxY;
+		this.chunkBounds = new double[levels.length][];
+	}
+
+	public static TrajectoryLod build(TrajectoryView source) {
+		int size = source.size();
+		int count = 1;
+		for (int n = size / 2; n >= MIN_LEVEL_SIZE; n /= 2) count++;
+
+		TrajectoryView[] levels = new TrajectoryView[count];
+		double[][] envelopeMin = new double[count][];
+		double[][] envelopeMax = new double[count][];
+		levels[0] = source;
+
+		double[] x = new double[size];
+		double[] y = new double[size];
+		source.copyX(0, x, 0, size);
+		source.copyY(0, y, 0, size);
+		envelopeMin[0] = y;
+		envelopeMax[0] = y;
+
+		int target = size;
+		for (int level = 1; level < count; level++) {
+			target /= 2;
+			TrajectoryBuffer out = new TrajectoryBuffer(target);
+			envelopeMin[level] = new double[target];
+			envelopeMax[level] = new double[target];
+			downsample(source, x, y, target, out, envelopeMin[level], envelopeMax[level]);
+			levels[level] = out.asReadOnly();
+		}
+		double low = Double.POSITIVE_INFINITY;
+		double high = Double.NEGATIVE_INFINITY;
+		for (double value : y) {
+			low = Math.min(low, value);
+			high = Math.max(high, value);
+		}
+		return new TrajectoryLod(levels, envelopeMin, envelopeMax, low, high);
+	}
+
+	public int levelCount() {
+		return levels.length;
+	}
+
+	public TrajectoryView level(int level) {
+		return levels[level];
+	}
+
+	// The coarsest level that still has at least targetPoints samples (the source if none do)
+	public int levelFor(int targetPoints) {
+		for (int level = levels.length - 1; level > 0; level--) {
+			if (levels[level].size() >= targetPoints) return level;
+		}
+		return 0;
+	}
+
+	// The finest level with at most maxPoints samples (the coarsest level if none fit)
+	public int levelAtMost(int maxPoints) {
+		for (int level = 0; level < levels.length; level++) {
+			if (levels[level].size() <= maxPoints) return level;
+		}
+		return levels.length - 1;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	public double envelopeMin(int level, int index) {
+		return envelopeMin[level][index];
+	}
+
+	public double envelopeMax(int level, int index) {
+		return envelopeMax[level][index];
+	}
+
+	/**
+	 * Bounding boxes of the level's chunks as {minX, maxX, minY, maxY} quadruples. Chunk c covers samples
+	 * {@code c * CHUNK_SIZE} to {@code (c + 1) * CHUNK_SIZE} inclusive, so segments joining chunks are not lost.
+	 * Built on first use and shared afterwards; callers must not modify the array.
+	 */
+	public synchronized double[] chunkBounds(int level) {
+		double[] bounds = chunkBounds[level];
+		if (bounds != null) return bounds;
+		TrajectoryView data = levels[level];
+		int size = data.size();
+		int chunks = Math.max(1, (size - 1 + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		bounds = new double[chunks * 4];
+		for (int c = 0; c < chunks; c++) {
+			double lowX = Double.POSITIVE_INFINITY;
+			double highX = Double.NEGATIVE_INFINITY;
+			double lowY = Double.POSITIVE_INFINITY;
+			double highY = Double.NEGATIVE_INFINITY;
+			int end = Math.min((c + 1) * CHUNK_SIZE, size - 1);
+			for (int i = c * CHUNK_SIZE; i <= end; i++) {
+				double x = data.getX(i);
+				double y = data.getY(i);
+				lowX = Math.min(lowX, x);
+				highX = Math.max(highX, x);
+				lowY = Math.min(lowY, y);
+				highY = Math.max(highY, y);
+			}
+			bounds[4 * c] = lowX;
+			bounds[4 * c + 1] = highX;
+			bounds[4 * c + 2] = lowY;
+			bounds[4 * c + 3] = highY;
+		}
+		chunkBounds[level] = bounds;
+		return bounds;
+	}
+
+	// LTTB: keep the first and last samples, and from each bucket in between the one forming the largest
+	// triangle with the previously kept sample and the average of the next bucket
+	private static void downsample(TrajectoryView source, double[] x, double[] y, int target, TrajectoryBuffer out,
+			double[] minY, double[] maxY) {
+		int size = x.length;
+		double bucketSize = (double) (size - 2) / (target - 2);
+
+		out.add(x[0], y[0], source.getTime(0), source.getVelocity(0));
+		minY[0] = maxY[0] = y[0];
+		int previous = 0;
+
+		for (int bucket = 0; bucket < target - 2; bucket++) {
+			int start = (int) (bucket * bucketSize) + 1;
+			int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+			int nextStart = end;
+			int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+			double averageX = 0;
+			double averageY = 0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				averageX += x[i];
+				averageY += y[i];
+			}
+			int nextCount = nextEnd - nextStart;
+			averageX /= nextCount;
+			averageY /= nextCount;
+
+			int chosen = start;
+			double largestArea = -1;
+			double low = Double.POSITIVE_INFINITY;
+			double high = Double.NEGATIVE_INFINITY;
+			for (int i = start; i < end; i++) {
+				double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+						- (x[previous] - x[i]) * (averageY - y[previous]));
+				if (area > largestArea) {
+					largestArea = area;
+					chosen = i;
+				}
+				low = Math.min(low, y[i]);
+				high = Math.max(high, y[i]);
+			}
+
+			out.add(x[chosen], y[chosen], source.getTime(chosen), source.getVelocity(chosen));
+			minY[bucket + 1] = low;
+			maxY[bucket + 1] = high;
+			previous = chosen;
+		}
+
+		out.add(x[size - 1], y[size - 1], source.getTime(size - 1), source.getVelocity(size - 1));
+		minY[target - 1] = maxY[target - 1] = y[size - 1];
+	}
+}
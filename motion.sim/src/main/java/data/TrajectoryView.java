@@ -0,0 +1,40 @@
+package data;
+
+/**
+ * Read-only access to a columnar trajectory. Sample {@code i} is
+ * {@code (getX(i), getY(i), getTime(i), getVelocity(i))}.
+ */
+public interface TrajectoryView {
+	int size();
+
+	default boolean isEmpty() {
+		return size() == 0;
+	}
+
+	double getX(int index);
+
+	double getY(int index);
+
+	double getTime(int index);
+
+	double getVelocity(int index);
+
+	/**
+	 * Bulk-copies a column range into {@code dest}, for renderers and serializers that want contiguous arrays.
+	 */
+	void copyX(int from, double[] dest, int destOffset, int length);
+
+	void copyY(int from, double[] dest, int destOffset, int length);
+
+	void copyTime(int from, double[] dest, int destOffset, int length);
+
+	void copyVelocity(int from, double[] dest, int destOffset, int length);
+
+	default DataPoint getPoint(int index) {
+		return new DataPoint(getX(index), getY(index), getTime(index), getVelocity(index));
+	}
+
+	default String getTooltipText(int index) {
+		return DataPoint.formatTooltip(getTime(index), getVelocity(index), getX(index), getY(index));
+	}
+}
@@ -0,0 +1,18 @@
+package logic;
+
+/**
+ * The two launch angles (degrees) that reach a target at a fixed speed.
+ * Either angle is {@code NaN} when that arc does not exist; both are when the target is out of reach.
+ */
+public record BallisticSolution(double lowAngle, double highAngle) {
+    public static final BallisticSolution NONE = new BallisticSolution(Double.NaN, Double.NaN);
+
+    public boolean hasSolution() {
+        return !Double.isNaN(lowAngle) || !Double.isNaN(highAngle);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Low arc = %.2f°, High arc = %.2f°", lowAngle, highAngle);
+    }
+}
@@ -0,0 +1,310 @@
+package logic;
+
+import logic.integration.Integrator;
+import logic.integration.RungeKutta4Integrator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static logic.ForceModel.*;
+
+/**
+ * Answers the inverse question to {@link PhysicsEngine}: which launch angle or speed hits the point (x, y).
+ * <p>
+ * Without forces the closed-form solutions are used. With forces, the height at the target distance
+ * is found by integration and the root is located with a bracketed secant (Illinois) iteration.
+ * Angle brackets are found by scanning the launch angles, unless a recent nearby query
+ * left a cached solution to warm-start from. Instances are not thread-safe.
+ */
+public class BallisticSolver {
+    private static final double ANGLE_TOLERANCE = 1e-6;
+    private static final double HEIGHT_TOLERANCE = 1e-4;
+    private static final int MAX_ITERATIONS = 60;
+    private static final double SCAN_MIN_ANGLE = -89.9; // Low arcs to targets below the launch point aim downwards
+    private static final double SCAN_MAX_ANGLE = 89.9;
+    private static final double SCAN_STEP = 2.0;
+    private static final double WARM_START_STEP = 0.01;
+    private static final double WARM_START_SPREAD = 2.0;
+    private static final int WARM_START_ITERATIONS = 8;
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final int DEFAULT_SOLVER_FPS = 100;
+    private static final int MAX_SHOT_STEPS = 1_000_000;
+
+    private final double gravity;
+    private final ForceModel[] forces;
+    private final Integrator integrator;
+    private final int solverFps;
+    private final double cellSize;
+    private final Map<CacheKey, BallisticSolution> recentSolutions;
+    private long cacheHits;
+    private long cacheMisses;
+
+    private final ForceModel totalForce = this::accumulateForces;
+    private final double[] state = new double[4];
+    private final double[] previous = new double[4];
+
+    public BallisticSolver(double gravity, ForceModel... forces) {
+        this(gravity, new RungeKutta4Integrator(), DEFAULT_SOLVER_FPS, 1.0, DEFAULT_CACHE_SIZE, forces);
+    }
+
+    /**
+     * @param solverFps  sample rate used when integrating trial trajectories
+     * @param cellSize   targets closer than this (metres) share a warm-start cache entry
+     * @param cacheSize  number of recent solutions kept
+     */
+    public BallisticSolver(double gravity, Integrator integrator, int solverFps, double cellSize, int cacheSize,
+                           ForceModel... forces) {
+        if (gravity <= 0) throw new IllegalArgumentException("Gravity must be greater than zero.");
+        if (cellSize <= 0) throw new IllegalArgumentException("Cache cell size must be greater than zero.");
+        this.gravity = gravity;
+        this.forces = forces.clone();
+        this.integrator = integrator;
+        this.solverFps = solverFps;
+        this.cellSize = cellSize;
+        this.recentSolutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, BallisticSolution> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public boolean usesClosedForm() {
+        return forces.length == 0;
+    }
+
+    /**
+     * Returns the low and high arc launch angles that hit (targetX, targetY) at the given speed.
+     */
+    public BallisticSolution solveAngles(double velocity, double targetX, double targetY) {
+        if (targetX <= 0) throw new IllegalArgumentException("Target distance must be greater than zero.");
+        if (velocity <= 0) return BallisticSolution.NONE;
+        if (usesClosedForm()) return closedFormAngles(velocity, targetX, targetY);
+
+        CacheKey key = new CacheKey(Math.round(velocity / cellSize), Math.round(targetX / cellSize),
+                Math.round(targetY / cellSize));
+        BallisticSolution cached = recentSolutions.get(key);
+        BallisticSolution solution = null;
+        if (cached != null) {
+            cacheHits++;
+            solution = warmStartAngles(velocity, targetX, targetY, cached);
+        } else {
+            cacheMisses++;
+        }
+        if (solution == null) solution = scanAngles(velocity, targetX, targetY);
+
+        recentSolutions.put(key, solution);
+        return solution;
+    }
+
+    /**
+     * Returns the launch speed that hits (targetX, targetY) at the given angle, or {@code NaN} if none does.
+     */
+    public double solveVelocity(double angleDegrees, double targetX, double targetY) {
+        if (targetX <= 0) throw new IllegalArgumentException("Target distance must be greater than zero.");
+        double radians = Math.toRadians(angleDegrees);
+        double rise = targetX * Math.tan(radians) - targetY;
+        // The target must lie below the launch direction
+        if (!(rise > 0) || angleDegrees >= 90) return Double.NaN;
+
+        double vacuumVelocity = targetX / Math.cos(radians) * Math.sqrt(gravity / (2 * rise));
+        if (usesClosedForm()) return vacuumVelocity;
+
+        // Bracket from the vacuum answer: drag needs more speed, but a tailwind can need less
+        double low = vacuumVelocity;
+        double lowValue = heightError(low, angleDegrees, targetX, targetY);
+        if (Math.abs(lowValue) < HEIGHT_TOLERANCE) return low;
+        double high;
+        double highValue;
+        if (lowValue > 0) {
+            high = low;
+            highValue = lowValue;
+            low = high / 2;
+            lowValue = heightError(low, angleDegrees, targetX, targetY);
+            for (int i = 0; lowValue > 0 && i < 20; i++) {
+                high = low;
+                highValue = lowValue;
+                low /= 2;
+                lowValue = heightError(low, angleDegrees, targetX, targetY);
+            }
+            if (lowValue > 0) return Double.NaN;
+        } else {
+            high = low * 2;
+            highValue = heightError(high, angleDegrees, targetX, targetY);
+            for (int i = 0; highValue < 0 && i < 20; i++) {
+                low = high;
+                lowValue = highValue;
+                high *= 2;
+                highValue = heightError(high, angleDegrees, targetX, targetY);
+            }
+            if (highValue < 0) return Double.NaN;
+        }
+        return secant(Variable.VELOCITY, angleDegrees, targetX, targetY, low, lowValue, high, highValue, 1e-6);
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public void clearCache() {
+        recentSolutions.clear();
+    }
+
+    private BallisticSolution closedFormAngles(double velocity, double x, double y) {
+        double v2 = velocity * velocity;
+        double discriminant = v2 * v2 - gravity * (gravity * x * x + 2 * y * v2);
+        if (discriminant < 0) return BallisticSolution.NONE;
+
+        double root = Math.sqrt(discriminant);
+        double low = Math.toDegrees(Math.atan((v2 - root) / (gravity * x)));
+        double high = Math.toDegrees(Math.atan((v2 + root) / (gravity * x)));
+        return new BallisticSolution(low, high);
+    }
+
+    /*
+     * Scans launch angles for sign changes; the first is the low arc and the last the high arc.
+     * A lone crossing is returned as a low arc only, and none as NONE.
+     */
+    private BallisticSolution scanAngles(double velocity, double x, double y) {
+        double lowAngle = Double.NaN;
+        double highAngle = Double.NaN;
+
+        double previousAngle = SCAN_MIN_ANGLE;
+        double previousValue = heightError(velocity, previousAngle, x, y);
+        for (double angle = SCAN_MIN_ANGLE + SCAN_STEP; previousAngle < SCAN_MAX_ANGLE; angle += SCAN_STEP) {
+            angle = Math.min(angle, SCAN_MAX_ANGLE);
+            double value = heightError(velocity, angle, x, y);
+            if ((previousValue < 0) != (value < 0)) {
+                double root = secant(Variable.ANGLE, velocity, x, y, previousAngle, previousValue, angle, value,
+                        ANGLE_TOLERANCE);
+                if (Double.isNaN(lowAngle)) {
+                    lowAngle = root;
+                } else {
+                    highAngle = root;
+                }
+            }
+            previousAngle = angle;
+            previousValue = value;
+        }
+
+        if (Double.isNaN(lowAngle)) return BallisticSolution.NONE;
+        return new BallisticSolution(lowAngle, highAngle);
+    }
+
+    // Refines each cached arc from its old angle; returns null if either arc cannot be recovered
+    private BallisticSolution warmStartAngles(double velocity, double x, double y, BallisticSolution cached) {
+        if (!cached.hasSolution()) return null;
+        double low = refineNear(velocity, x, y, cached.lowAngle());
+        if (Double.isNaN(low)) return null;
+        if (Double.isNaN(cached.highAngle())) return new BallisticSolution(low, Double.NaN);
+        double high = refineNear(velocity, x, y, cached.highAngle());
+        if (Double.isNaN(high)) return null;
+        return new BallisticSolution(low, high);
+    }
+
+    // Unbracketed secant from the cached angle; bails out to the scan if it wanders off or stalls
+    private double refineNear(double velocity, double x, double y, double guess) {
+        double a = guess;
+        double fa = heightError(velocity, a, x, y);
+        if (Math.abs(fa) < HEIGHT_TOLERANCE) return a;
+        double b = Math.min(SCAN_MAX_ANGLE, guess + WARM_START_STEP);
+        double fb = heightError(velocity, b, x, y);
+
+        for (int i = 0; i < WARM_START_ITERATIONS; i++) {
+            if (Math.abs(fb) < HEIGHT_TOLERANCE) return b;
+            if ((fa < 0) != (fb < 0)) return secant(Variable.ANGLE, velocity, x, y, a, fa, b, fb, ANGLE_TOLERANCE);
+            if (fb == fa) return Double.NaN;
+
+            double next = b - fb * (b - a) / (fb - fa);
+            if (Math.abs(next - guess) > WARM_START_SPREAD || next < SCAN_MIN_ANGLE || next > SCAN_MAX_ANGLE) {
+                return Double.NaN;
+            }
+            a = b;
+            fa = fb;
+            b = next;
+            fb = heightError(velocity, b, x, y);
+        }
+        return Double.NaN;
+    }
+
+    private enum Variable { ANGLE, VELOCITY }
+
+    // Illinois-modified secant on a bracket [a, b] whose end values have opposite signs
+    private double secant(Variable variable, double fixed, double x, double y,
+                          double a, double fa, double b, double fb, double tolerance) {
+        double root = b;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            root = fb == fa ? 0.5 * (a + b) : b - fb * (b - a) / (fb - fa);
+            double value = variable == Variable.ANGLE
+                    ? heightError(fixed, root, x, y)
+                    : heightError(root, fixed, x, y);
+
+            if (Math.abs(value) < HEIGHT_TOLERANCE || Math.abs(b - a) < tolerance) break;
+            if ((value < 0) != (fb < 0)) {
+                a = b;
+                fa = fb;
+            } else {
+                fa *= 0.5;
+            }
+            b = root;
+            fb = value;
+        }
+        return root;
+    }
+
+    /*
+     * Height above the target when passing its distance. Shots that land short return the
+     * (negative) shortfall instead, which meets the height curve at zero so the function stays continuous.
+     * The ground is the launch height, or the target's height if that is lower, so targets below the
+     * launch point can be reached. The trial shot stops as soon as it passes the target, and reuses
+     * the solver's state arrays.
+     */
+    private double heightError(double velocity, double angleDegrees, double x, double y) {
+        double radians = Math.toRadians(angleDegrees);
+        state[X] = 0;
+        state[Y] = 0;
+        state[VX] = velocity * Math.cos(radians);
+        state[VY] = velocity * Math.sin(radians);
+        double dt = 1.0 / solverFps;
+        double time = 0;
+        double ground = Math.min(0, y);
+
+        for (int i = 0; i < MAX_SHOT_STEPS; i++) {
+            System.arraycopy(state, 0, previous, 0, 4);
+            double end = time + dt;
+            while (end - time > 1e-12) {
+                time += integrator.step(totalForce, time, state, integrator.nextStep(end - time));
+            }
+
+            if (state[X] >= x) {
+                // Passed the target: find the fraction of the step by x, then cubic Hermite for y
+                double s = (x - previous[X]) / (state[X] - previous[X]);
+                double s2 = s * s;
+                double s3 = s2 * s;
+                double height = (2 * s3 - 3 * s2 + 1) * previous[Y] + (s3 - 2 * s2 + s) * dt * previous[VY]
+                        + (-2 * s3 + 3 * s2) * state[Y] + (s3 - s2) * dt * state[VY];
+                if (state[Y] >= ground || height >= ground) return height - y;
+            }
+            if (state[Y] < ground) {
+                double fraction = (previous[Y] - ground) / (previous[Y] - state[Y]);
+                double landing = previous[X] + fraction * (state[X] - previous[X]);
+                return Math.min(0, landing - x) + ground - y;
+            }
+        }
+        return -x + ground - y;
+    }
+
+    private void accumulateForces(double t, double[] s, double[] acceleration) {
+        acceleration[1] -= gravity;
+        for (ForceModel force : forces) {
+            force.accumulate(t, s, acceleration);
+        }
+    }
+
+    private record CacheKey(long velocityCell, long xCell, long yCell) {
+    }
+}
@@ -0,0 +1,25 @@
+package logic;
+
+/**
+ * A force acting on the projectile, expressed as an acceleration.
+ * <p>
+ * The state array passed to every model is laid out as {@code [x, y, vx, vy]}.
+ * Implementations add their contribution to {@code acceleration} ({@code [ax, ay]})
+ * and must not allocate, since they are evaluated on every integrator stage.
+ */
+@FunctionalInterface
+public interface ForceModel {
+    int X = 0;
+    int Y = 1;
+    int VX = 2;
+    int VY = 3;
+
+    /**
+     * Adds this model's acceleration at time {@code t} to {@code acceleration}.
+     *
+     * @param t            the simulation time in seconds
+     * @param state        the current state {@code [x, y, vx, vy]}
+     * @param acceleration the accumulated acceleration {@code [ax, ay]}
+     */
+    void accumulate(double t, double[] state, double[] acceleration);
+}
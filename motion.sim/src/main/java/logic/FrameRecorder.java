@@ -0,0 +1,194 @@
+package logic;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-frame timing and render-cost samples in a fixed-size ring buffer.
+ * <p>
+ * One {@link #record} call per frame stores the time since the previous frame, the frames that
+ * delta implies were dropped, and whatever the caller counted for that frame (physics steps, scene
+ * nodes, points drawn), along with cumulative GC time and heap in use. Samples live in
+ * primitive columns, so recording never allocates; the oldest frame is overwritten once the buffer
+ * is full. Summaries such as {@link #percentile} and {@link #writeCsv} read the frames still held.
+ * Not thread-safe: record and read from the same thread.
+ */
+public class FrameRecorder {
+    public static final String CSV_HEADER = "frame,now_ns,frame_ns,dropped,steps,nodes,points,gc_ms,heap_bytes";
+
+    private final long expectedFrameNanos;
+    private final long[] nowNanos;
+    private final long[] frameNanos;
+    private final int[] dropped;
+    private final int[] steps;
+    private final int[] nodes;
+    private final int[] points;
+    private final long[] gcMillis;
+    private final long[] heapBytes;
+    private final long[] sorted; // Scratch for percentiles
+
+    private final GarbageCollectorMXBean[] collectors;
+    private final Runtime runtime = Runtime.getRuntime();
+
+    private long frames; // Total recorded, including those overwritten
+    private long lastNow = -1;
+    private long totalDropped;
+    private long gcAtReset;
+
+    /**
+     * @param capacity           frames kept
+     * @param expectedFrameNanos the display's frame interval; a delta of about n intervals counts n - 1 drops
+     */
+    public FrameRecorder(int capacity, long expectedFrameNanos) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be greater than zero.");
+        if (expectedFrameNanos <= 0) throw new IllegalArgumentException("Frame interval must be greater than zero.");
+        this.expectedFrameNanos = expectedFrameNanos;
+        this.nowNanos = new long[capacity];
+        this.frameNanos = new long[capacity];
+        this.dropped = new int[capacity];
+        this.steps = new int[capacity];
+        this.nodes = new int[capacity];
+        this.points = new int[capacity];
+        this.gcMillis = new long[capacity];
+        this.heapBytes = new long[capacity];
+        this.sorted = new long[capacity];
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        this.collectors = beans.toArray(new GarbageCollectorMXBean[0]);
+        this.gcAtReset = totalGcMillis();
+    }
+
+    /**
+     * Records a frame. {@code now} is the frame's timestamp (e.g. the {@code AnimationTimer} argument);
+     * the first frame after a reset has no predecessor and is stored with a zero frame time.
+     */
+    public void record(long now, int stepCount, int nodeCount, int pointCount) {
+        int slot = (int) (frames % nowNanos.length);
+        long delta = lastNow < 0 ? 0 : now - lastNow;
+        lastNow = now;
+        // Half an interval of tolerance for timer jitter
+        int missed = (int) Math.max(0, (delta + expectedFrameNanos / 2) / expectedFrameNanos - 1);
+        totalDropped += missed;
+
+        nowNanos[slot] = now;
+        frameNanos[slot] = delta;
+        dropped[slot] = missed;
+        steps[slot] = stepCount;
+        nodes[slot] = nodeCount;
+        points[slot] = pointCount;
+        gcMillis[slot] = totalGcMillis() - gcAtReset;
+        heapBytes[slot] = runtime.totalMemory() - runtime.freeMemory();
+        frames++;
+    }
+
+    // Forgets every frame, e.g. after a pause so the pause does not show up as one long frame
+    public void reset() {
+        frames = 0;
+        lastNow = -1;
+        totalDropped = 0;
+        gcAtReset = totalGcMillis();
+    }
+
+    // Frames currently held, at most the capacity
+    public int size() {
+        return (int) Math.min(frames, nowNanos.length);
+    }
+
+    public long getTotalFrames() {
+        return frames;
+    }
+
+    public long getTotalDropped() {
+        return totalDropped;
+    }
+
+    /**
+     * Frame time in nanoseconds at percentile {@code p} (0 to 100) over the held frames, by nearest rank.
+     * Returns 0 when no frame times have been recorded yet.
+     */
+    public long percentile(double p) {
+        if (p < 0 || p > 100) throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        int count = 0;
+        for (int i = 0; i < size(); i++) {
+            if (frames - size() + i == 0) continue; // The first frame has no delta
+            sorted[count++] = frameNanos[slot(i)];
+        }
+        if (count == 0) return 0;
+        Arrays.sort(sorted, 0, count);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    // Most recent frame's values
+    public int lastSteps() {
+        return frames == 0 ? 0 : steps[slot(size() - 1)];
+    }
+
+    public int lastNodes() {
+        return frames == 0 ? 0 : nodes[slot(size() - 1)];
+    }
+
+    public int lastPoints() {
+        return frames == 0 ? 0 : points[slot(size() - 1)];
+    }
+
+    public long lastHeapBytes() {
+        return frames == 0 ? 0 : heapBytes[slot(size() - 1)];
+    }
+
+    // GC time since the last reset, as the collectors report it: it includes concurrent work, not just pauses
+    public long lastGcMillis() {
+        return frames == 0 ? 0 : gcMillis[slot(size() - 1)];
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeCsv(writer);
+        }
+    }
+
+    // Oldest held frame first; frame numbers count from the last reset
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long first = frames - size();
+        StringBuilder line = new StringBuilder(96);
+        for (int i = 0; i < size(); i++) {
+            int slot = slot(i);
+            line.setLength(0);
+            line.append(first + i).append(',')
+                    .append(nowNanos[slot]).append(',')
+                    .append(frameNanos[slot]).append(',')
+                    .append(dropped[slot]).append(',')
+                    .append(steps[slot]).append(',')
+                    .append(nodes[slot]).append(',')
+                    .append(points[slot]).append(',')
+                    .append(gcMillis[slot]).append(',')
+                    .append(heapBytes[slot]).append('\n');
+            writer.append(line);
+        }
+    }
+
+    // Ring slot of the i-th held frame, oldest first
+    private int slot(int i) {
+        long first = frames - size();
+        return (int) ((first + i) % nowNanos.length);
+    }
+
+    private long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -1,18 +1,42 @@
 package logic;
 
-import data.DataPoint;
+import data.TrajectoryBuffer;
+import logic.integration.Integrator;
+import logic.integration.RungeKutta4Integrator;
+import logic.kernel.TrajectoryKernel;
+import logic.kernel.TrajectoryKernels;
 
 import java.util.*;
 
 import static java.lang.Math.toDegrees;
+import static logic.ForceModel.*;
 
 public class PhysicsEngine {
+    private static final double TIME_EPSILON = 1e-12;
+    private static final int MAX_REFINE_ITERATIONS = 60;
+    private static final double REFINE_TOLERANCE = 1e-10;
+    // Guards against launches that never come down, such as zero gravity
+    private static final int MAX_NUMERIC_SAMPLES = 10_000_000;
+    private static final double ADAPTIVE_MIN_STEP = 1e-6;
+    private static final int ADAPTIVE_MIN_SEGMENTS = 8;
+
     private final double velocity;
     private final double angleRadians;
     private final double gravity;
     private final double deltaTime;
     private double currentTime;
 
+    // Numerical path, only used once extra forces are added
+    private ForceModel[] forces = new ForceModel[0];
+    private Integrator integrator = new RungeKutta4Integrator();
+    private final ForceModel totalForce = this::accumulateForces;
+    private final double[] state = new double[4];
+    private final double[] previous = new double[4];
+    private final double[] probe = new double[4];
+    private final double[] acceleration = new double[2];
+    private DenseTrajectory denseTrajectory;
+    private TrajectoryKernel kernel = TrajectoryKernels.preferred();
+
     public PhysicsEngine(double velocity, double angleDegrees, double gravity, int fps) {
         if (fps <= 0) throw new IllegalArgumentException("FPS must be greater than zero.");
         this.velocity = velocity;
@@ -22,23 +46,99 @@ public class PhysicsEngine {
         this.currentTime = 0;
     }
 
+    public void addForce(ForceModel force) {
+        if (force == null) throw new IllegalArgumentException("Force must not be null.");
+        forces = Arrays.copyOf(forces, forces.length + 1);
+        forces[forces.length - 1] = force;
+        denseTrajectory = null;
+    }
+
+    public void setIntegrator(Integrator integrator) {
+        if (integrator == null) throw new IllegalArgumentException("Integrator must not be null.");
+        this.integrator = integrator;
+        denseTrajectory = null;
+    }
+
+    public Integrator getIntegrator() {
+        return integrator;
+    }
+
+    public void setKernel(TrajectoryKernel kernel) {
+        if (kernel == null) throw new IllegalArgumentException("Kernel must not be null.");
+        this.kernel = kernel;
+    }
+
+    // With gravity as the only force the closed-form solution is exact, so skip the integrator
+    public boolean usesClosedForm() {
+        return forces.length == 0;
+    }
+
     public double calculateX() {
+        if (!usesClosedForm()) return stateAt(currentTime, state)[X];
         return velocity * Math.cos(angleRadians) * currentTime;
     }
 
     public double calculateY() {
+        if (!usesClosedForm()) return stateAt(currentTime, state)[Y];
         return (velocity * Math.sin(angleRadians) * currentTime) - (0.5 * gravity * Math.pow(currentTime, 2));
     }
 
     public double calculateMaxHeight() {
+        if (!usesClosedForm()) return numericMaxHeight();
         return Math.pow(velocity * Math.sin(angleRadians), 2) / (2 * gravity);
     }
 
     public double calculateRange() {
+        if (!usesClosedForm()) return denseTrajectory().impactX();
         return (Math.pow(velocity, 2) * Math.sin(2 * angleRadians)) / gravity;
     }
 
-    public boolean hasProjectileHitGround() {return calculateY() <=0 ;}
+    /**
+     * Returns the exact time at which the projectile lands back at launch height.
+     */
+    public double getFlightTime() {
+        if (!usesClosedForm()) return denseTrajectory().impactTime;
+        double verticalVelocity = velocity * Math.sin(angleRadians);
+        return verticalVelocity > 0 ? 2 * verticalVelocity / gravity : 0;
+    }
+
+    /**
+     * Returns the time at which the projectile passes {@code height} on the way up
+     * ({@code descending = false}) or on the way down, or {@code NaN} if it never does.
+     */
+    public double timeAtHeight(double height, boolean descending) {
+        if (height < 0) return Double.NaN;
+        if (!usesClosedForm()) return numericCrossingTime(Y, height, descending ? -1 : 1, probe);
+
+        double verticalVelocity = velocity * Math.sin(angleRadians);
+        double discriminant = verticalVelocity * verticalVelocity - 2 * gravity * height;
+        if (discriminant < 0) return Double.NaN;
+
+        double root = Math.sqrt(discriminant);
+        double time = descending ? (verticalVelocity + root) / gravity : (verticalVelocity - root) / gravity;
+        return time < 0 ? Double.NaN : time;
+    }
+
+    /**
+     * Returns the height of the projectile as it passes horizontal distance {@code x},
+     * or {@code NaN} if it lands first.
+     */
+    public double heightAtDistance(double x) {
+        if (x < 0) return Double.NaN;
+        if (!usesClosedForm()) {
+            if (x == 0) return 0;
+            double time = numericCrossingTime(X, x, 1, probe);
+            return Double.isNaN(time) ? Double.NaN : probe[Y];
+        }
+
+        double horizontalVelocity = velocity * Math.cos(angleRadians);
+        if (horizontalVelocity <= 0) return x == 0 ? 0 : Double.NaN;
+        double time = x / horizontalVelocity;
+        if (time > getFlightTime()) return Double.NaN;
+        return velocity * Math.sin(angleRadians) * time - 0.5 * gravity * time * time;
+    }
+
+    public boolean hasProjectileHitGround() {return currentTime >= getFlightTime();}
 
     public void updateTime() {
         currentTime += deltaTime;
@@ -49,6 +149,10 @@ public class PhysicsEngine {
     }
 
     public double getCurrentVelocity() {
+        if (!usesClosedForm()) {
+            double[] s = stateAt(currentTime, state);
+            return Math.sqrt(s[VX] * s[VX] + s[VY] * s[VY]);
+        }
         double horizontalVelocity = velocity * Math.cos(angleRadians);
         double verticalVelocity = velocity * Math.sin(angleRadians) - gravity * currentTime;
         return Math.sqrt(Math.pow(horizontalVelocity, 2) + Math.pow(verticalVelocity, 2));
@@ -58,24 +162,265 @@ public class PhysicsEngine {
         return currentTime;
     }
 
-    public List<DataPoint> calculateTrajectory() {
-        List<DataPoint> dataPoints = new ArrayList<>();
-        double time = 0;
+    /**
+     * Writes the state {@code [x, y, vx, vy]} at time {@code t} into {@code out} without stepping from zero.
+     * The closed form is evaluated directly; numerical runs interpolate the cached trajectory
+     * (cubic Hermite in position) and are clamped to the flight time.
+     */
+    public double[] stateAt(double t, double[] out) {
+        if (usesClosedForm()) {
+            double vx = velocity * Math.cos(angleRadians);
+            double vy0 = velocity * Math.sin(angleRadians);
+            out[X] = vx * t;
+            out[Y] = vy0 * t - 0.5 * gravity * t * t;
+            out[VX] = vx;
+            out[VY] = vy0 - gravity * t;
+            return out;
+        }
+        denseTrajectory().interpolate(t, out);
+        return out;
+    }
+
+    /**
+     * Appends the exact landing sample, so a run captured step by step ends the same way as
+     * {@link #calculateTrajectory()} without sampling the whole flight again.
+     */
+    public void addImpactSample(TrajectoryBuffer buffer) {
+        double flightTime = getFlightTime();
+        if (usesClosedForm()) {
+            addClosedFormSample(buffer, flightTime);
+            return;
+        }
+        stateAt(flightTime, probe);
+        buffer.add(probe[X], Math.max(0, probe[Y]), flightTime, Math.sqrt(probe[VX] * probe[VX] + probe[VY] * probe[VY]));
+    }
+
+    // Samples in a full trajectory including the impact, for sizing buffers up front
+    public int getSampleCount() {
+        return countSamples();
+    }
+
+    public TrajectoryBuffer calculateTrajectory() {
+        return calculateTrajectory(new TrajectoryBuffer(countSamples()));
+    }
+
+    /**
+     * Fills the given buffer (cleared first) with samples every {@code 1 / fps} seconds,
+     * ending on the exact impact sample. Reusing a buffer avoids reallocating its arrays between runs.
+     */
+    public TrajectoryBuffer calculateTrajectory(TrajectoryBuffer buffer) {
+        buffer.clear();
+        buffer.ensureCapacity(countSamples());
+        if (!usesClosedForm()) {
+            denseTrajectory().copyTo(buffer);
+            return buffer;
+        }
+
+        double flightTime = getFlightTime();
+        int gridSamples = gridSampleCount(flightTime);
+        kernel.fillTrajectory(velocity * Math.cos(angleRadians), velocity * Math.sin(angleRadians), gravity,
+                deltaTime, 0, gridSamples, buffer.xArray(), buffer.yArray(), buffer.timeArray(),
+                buffer.velocityArray(), 0);
+        buffer.setSize(gridSamples);
 
+        double[] y = buffer.yArray();
+        if (!endsOnGrid(flightTime, gridSamples)) {
+            addClosedFormSample(buffer, flightTime);
+        } else {
+            y[gridSamples - 1] = Math.max(0, y[gridSamples - 1]);
+        }
+        return buffer;
+    }
+
+    /**
+     * Samples the flight with a step chosen from the local curvature: the chord between two samples
+     * deviates from the path by about {@code a_n * h^2 / 8}, where {@code a_n} is the acceleration normal
+     * to the velocity, so {@code h} is picked to keep that under {@code tolerance} metres.
+     * The apex and the impact are always sampled. The buffer is cleared first.
+     */
+    public TrajectoryBuffer calculateAdaptiveTrajectory(double tolerance, TrajectoryBuffer buffer) {
+        if (!(tolerance > 0)) throw new IllegalArgumentException("Tolerance must be greater than zero.");
+        buffer.clear();
+        double flightTime = getFlightTime();
+        double apexTime = usesClosedForm()
+                ? Math.max(0, velocity * Math.sin(angleRadians) / gravity)
+                : numericCrossingTime(VY, 0, -1, probe);
+        if (Double.isNaN(apexTime)) apexTime = 0;
+        double maxStep = Math.max(deltaTime, flightTime / ADAPTIVE_MIN_SEGMENTS);
+
+        double time = 0;
         while (true) {
-            double x = velocity * Math.cos(angleRadians) * time;
-            double y = (velocity * Math.sin(angleRadians) * time) - (0.5 * gravity * Math.pow(time, 2));
-            if (y < 0) break; // Stop when the projectile hits the ground
+            double[] s = stateAt(time, probe);
+            double speed = Math.sqrt(s[VX] * s[VX] + s[VY] * s[VY]);
+            buffer.add(s[X], time >= flightTime ? 0 : s[Y], time, speed);
+            if (time >= flightTime) break;
 
-            double vx = velocity * Math.cos(angleRadians);
-            double vy = velocity * Math.sin(angleRadians) - gravity * time;
-            double currentVelocity = Math.sqrt(vx * vx + vy * vy);
+            double normalAcceleration = normalAcceleration(time, s, speed);
+            // The normal acceleration changes along the step, so keep a safety margin on the estimate
+            double step = normalAcceleration > 0 ? 0.9 * Math.sqrt(8 * tolerance / normalAcceleration) : maxStep;
+            step = Math.max(ADAPTIVE_MIN_STEP, Math.min(maxStep, step));
 
-            dataPoints.add(new DataPoint(x, y, time, currentVelocity));
-            time += deltaTime;
+            double next = Math.min(time + step, flightTime);
+            if (time < apexTime && next > apexTime) next = apexTime;
+            time = next;
+        }
+        return buffer;
+    }
 
+    private double normalAcceleration(double time, double[] s, double speed) {
+        if (speed == 0) return 0;
+        double ax = 0;
+        double ay = -gravity;
+        if (!usesClosedForm()) {
+            acceleration[0] = 0;
+            acceleration[1] = 0;
+            accumulateForces(time, s, acceleration);
+            ax = acceleration[0];
+            ay = acceleration[1];
         }
-        return dataPoints;
+        return Math.abs(ax * s[VY] - ay * s[VX]) / speed;
+    }
+
+    // Samples at t = k * dt up to the impact, plus the impact itself when it falls between frames
+    private int countSamples() {
+        if (!usesClosedForm()) return denseTrajectory().count;
+        double flightTime = getFlightTime();
+        int gridSamples = gridSampleCount(flightTime);
+        return endsOnGrid(flightTime, gridSamples) ? gridSamples : gridSamples + 1;
+    }
+
+    private int gridSampleCount(double flightTime) {
+        if (!(flightTime > 0)) return 1;
+        double samples = Math.floor(flightTime / deltaTime + TIME_EPSILON) + 1;
+        if (samples > MAX_NUMERIC_SAMPLES) throw new IllegalStateException("Trajectory is too long to sample.");
+        return (int) samples;
+    }
+
+    private boolean endsOnGrid(double flightTime, int gridSamples) {
+        return flightTime - (gridSamples - 1) * deltaTime <= TIME_EPSILON;
+    }
+
+    private void addClosedFormSample(TrajectoryBuffer buffer, double time) {
+        double vx = velocity * Math.cos(angleRadians);
+        double vy = velocity * Math.sin(angleRadians) - gravity * time;
+        double y = (velocity * Math.sin(angleRadians) * time) - (0.5 * gravity * time * time);
+        // Rounding can leave the impact sample a hair below ground
+        buffer.add(vx * time, Math.max(0, y), time, Math.sqrt(vx * vx + vy * vy));
+    }
+
+    private double numericMaxHeight() {
+        if (velocity * Math.sin(angleRadians) <= 0) return 0;
+        double apexTime = numericCrossingTime(VY, 0, -1, probe);
+        return Double.isNaN(apexTime) ? 0 : probe[Y];
+    }
+
+    /*
+     * Finds where state[component] crosses target in the given direction (+1 rising, -1 falling).
+     * The cached samples bracket the crossing, then it is refined by integrating from the sample
+     * before it, so the answer matches the integrator rather than the interpolation.
+     */
+    private double numericCrossingTime(int component, double target, int direction, double[] out) {
+        DenseTrajectory dense = denseTrajectory();
+        for (int i = 1; i < dense.count; i++) {
+            double before = dense.component(component, i - 1) - target;
+            double after = dense.component(component, i) - target;
+            if (crosses(before, after, direction)) {
+                dense.stateAt(i - 1, previous);
+                double start = dense.time[i - 1];
+                return start + refineCrossing(component, target, start, dense.time[i] - start, before, after, out);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static boolean crosses(double before, double after, int direction) {
+        return direction > 0 ? before <= 0 && after > 0 : before >= 0 && after < 0;
+    }
+
+    // Illinois-modified regula falsi on the step length, starting from the state in 'previous'
+    private double refineCrossing(int component, double target, double startTime, double step,
+                                  double startValue, double endValue, double[] out) {
+        double a = 0, fa = startValue;
+        double b = step, fb = endValue;
+        double tau = b;
+
+        for (int i = 0; i < MAX_REFINE_ITERATIONS; i++) {
+            tau = fb == fa ? 0.5 * (a + b) : b - fb * (b - a) / (fb - fa);
+            System.arraycopy(previous, 0, out, 0, 4);
+            advance(out, startTime, startTime + tau);
+            double ft = out[component] - target;
+
+            if (Math.abs(ft) < REFINE_TOLERANCE || Math.abs(b - a) < TIME_EPSILON) break;
+            if ((ft < 0) != (fb < 0)) {
+                a = b;
+                fa = fb;
+            } else {
+                fa *= 0.5;
+            }
+            b = tau;
+            fb = ft;
+        }
+        return tau;
+    }
+
+    private DenseTrajectory denseTrajectory() {
+        if (denseTrajectory == null) denseTrajectory = integrateTrajectory();
+        return denseTrajectory;
+    }
+
+    // Integrates one full flight, keeping every frame sample and the refined impact state
+    private DenseTrajectory integrateTrajectory() {
+        DenseTrajectory dense = new DenseTrajectory(estimateSampleCount(), deltaTime);
+        resetState(state);
+        dense.add(0, state);
+
+        long start = System.nanoTime();
+        for (int i = 1; ; i++) {
+            if (i >= MAX_NUMERIC_SAMPLES) throw new IllegalStateException("Projectile never returned to the ground.");
+            System.arraycopy(state, 0, previous, 0, 4);
+            double previousTime = (i - 1) * deltaTime;
+            double time = i * deltaTime;
+            advance(state, previousTime, time);
+
+            if (state[Y] < 0) {
+                double impactStep = refineCrossing(Y, 0, previousTime, deltaTime, previous[Y], state[Y], state);
+                state[Y] = 0;
+                if (impactStep <= TIME_EPSILON) dense.count--; // Landed exactly on the previous sample
+                dense.add(previousTime + impactStep, state);
+                break;
+            }
+            dense.add(time, state);
+        }
+        integrator.recordElapsed(System.nanoTime() - start);
+        return dense;
+    }
+
+    // Vacuum flight time, which drag normally shortens; the arrays still grow if it is exceeded
+    private int estimateSampleCount() {
+        double flightTime = 2 * velocity * Math.sin(angleRadians) / gravity;
+        if (!(flightTime > 0) || Double.isInfinite(flightTime)) return 2;
+        return (int) Math.min(MAX_NUMERIC_SAMPLES, Math.ceil(flightTime / deltaTime) + 2);
+    }
+
+    private void advance(double[] s, double from, double to) {
+        double t = from;
+        while (to - t > TIME_EPSILON) {
+            t += integrator.step(totalForce, t, s, integrator.nextStep(to - t));
+        }
+    }
+
+    private void accumulateForces(double t, double[] s, double[] acceleration) {
+        acceleration[1] -= gravity;
+        for (ForceModel force : forces) {
+            force.accumulate(t, s, acceleration);
+        }
+    }
+
+    private void resetState(double[] s) {
+        s[X] = 0;
+        s[Y] = 0;
+        s[VX] = velocity * Math.cos(angleRadians);
+        s[VY] = velocity * Math.sin(angleRadians);
     }
 
 
@@ -91,6 +436,98 @@ public class PhysicsEngine {
         return this.gravity;
     }
 
+    // Full integrated state at every frame time, so numerical runs can be sampled and searched without re-stepping
+    private static final class DenseTrajectory {
+        private double[] time;
+        private double[] x;
+        private double[] y;
+        private double[] vx;
+        private double[] vy;
+        private int count;
+        private double impactTime;
+        private final double spacing;
+
+        DenseTrajectory(int capacity, double spacing) {
+            this.spacing = spacing;
+            time = new double[capacity];
+            x = new double[capacity];
+            y = new double[capacity];
+            vx = new double[capacity];
+            vy = new double[capacity];
+        }
+
+        void add(double t, double[] s) {
+            if (count == time.length) {
+                int capacity = count + (count >> 1) + 1;
+                time = Arrays.copyOf(time, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                vx = Arrays.copyOf(vx, capacity);
+                vy = Arrays.copyOf(vy, capacity);
+            }
+            time[count] = t;
+            x[count] = s[X];
+            y[count] = s[Y];
+            vx[count] = s[VX];
+            vy[count] = s[VY];
+            count++;
+            impactTime = t;
+        }
+
+        double impactX() {
+            return x[count - 1];
+        }
+
+        double component(int component, int index) {
+            return switch (component) {
+                case X -> x[index];
+                case Y -> y[index];
+                case VX -> vx[index];
+                default -> vy[index];
+            };
+        }
+
+        void stateAt(int index, double[] out) {
+            out[X] = x[index];
+            out[Y] = y[index];
+            out[VX] = vx[index];
+            out[VY] = vy[index];
+        }
+
+        void interpolate(double t, double[] out) {
+            if (count == 1 || t <= 0) {
+                stateAt(0, out);
+                return;
+            }
+            if (t >= impactTime) {
+                stateAt(count - 1, out);
+                return;
+            }
+
+            // Every sample but the last sits on the frame grid, so the segment is found by division
+            int i = Math.min((int) (t / spacing), count - 2);
+            if (time[i] > t) i--;
+
+            double h = time[i + 1] - time[i];
+            double s = (t - time[i]) / h;
+            double s2 = s * s;
+            double s3 = s2 * s;
+            double h00 = 2 * s3 - 3 * s2 + 1;
+            double h10 = s3 - 2 * s2 + s;
+            double h01 = -2 * s3 + 3 * s2;
+            double h11 = s3 - s2;
 
+            out[X] = h00 * x[i] + h10 * h * vx[i] + h01 * x[i + 1] + h11 * h * vx[i + 1];
+            out[Y] = h00 * y[i] + h10 * h * vy[i] + h01 * y[i + 1] + h11 * h * vy[i + 1];
+            out[VX] = vx[i] + s * (vx[i + 1] - vx[i]);
+            out[VY] = vy[i] + s * (vy[i + 1] - vy[i]);
+        }
 
-}
\ No newline at end of file
+        void copyTo(TrajectoryBuffer buffer) {
+            buffer.ensureCapacity(count);
+            for (int i = 0; i < count; i++) {
+                buffer.add(x[i], y[i], time[i], Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package logic;
+
+/**
+ * Fixed-timestep accumulator that turns real frame timestamps into a whole number of physics steps.
+ * <p>
+ * Each {@link #tick(long)} adds the (time-scaled) real time since the last frame and returns how many
+ * fixed steps fit in it; the remainder carries over and is exposed as {@link #getAlpha()} so the renderer
+ * can interpolate between the last two physics states. Physics always advances in identical steps,
+ * so the trajectory does not depend on the display refresh rate or the time scale.
+ */
+public class SimulationClock {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double stepNanos;
+    private final int maxStepsPerFrame;
+    private double timeScale = 1.0;
+    private double accumulatorNanos;
+    private long lastNow;
+    private boolean started;
+    private long droppedSteps;
+    private long lastFrameNanos;
+
+    public SimulationClock(double stepSeconds, int maxStepsPerFrame) {
+        if (stepSeconds <= 0) throw new IllegalArgumentException("Step must be greater than zero.");
+        if (maxStepsPerFrame <= 0) throw new IllegalArgumentException("Maximum steps per frame must be greater than zero.");
+        this.stepNanos = stepSeconds * NANOS_PER_SECOND;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    // Call when the animation (re)starts so time spent paused is not simulated
+    public void reset() {
+        started = false;
+        accumulatorNanos = 0;
+    }
+
+    /**
+     * Returns the number of fixed steps to run for a frame at {@code nowNanos}.
+     * Steps beyond the catch-up cap are dropped rather than run in a burst.
+     */
+    public int tick(long nowNanos) {
+        if (!started) {
+            started = true;
+            lastNow = nowNanos;
+            lastFrameNanos = 0;
+            return 0;
+        }
+        lastFrameNanos = Math.max(0, nowNanos - lastNow);
+        lastNow = nowNanos;
+        accumulatorNanos += lastFrameNanos * timeScale;
+
+        int steps = (int) Math.min(Integer.MAX_VALUE, (long) (accumulatorNanos / stepNanos));
+        accumulatorNanos -= steps * stepNanos;
+        if (steps > maxStepsPerFrame) {
+            droppedSteps += steps - maxStepsPerFrame;
+            steps = maxStepsPerFrame;
+        }
+        return steps;
+    }
+
+    // Fraction of a step left in the accumulator, in [0, 1)
+    public double getAlpha() {
+        return Math.min(1.0, accumulatorNanos / stepNanos);
+    }
+
+    public void setTimeScale(double timeScale) {
+        if (timeScale <= 0) throw new IllegalArgumentException("Time scale must be greater than zero.");
+        this.timeScale = timeScale;
+    }
+
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    public long getLastFrameNanos() {
+        return lastFrameNanos;
+    }
+}
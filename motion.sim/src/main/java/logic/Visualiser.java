@@ -1,6 +1,10 @@
 package logic;
 
 import data.DataPoint;
+import data.TrajectoryBuffer;
+import data.TrajectoryLod;
+import data.TrajectoryView;
+import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -9,46 +13,132 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.text.Font;
-import java.util.*;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import logic.render.FxPlotSurface;
+import logic.render.OverlayRenderPrep;
+import logic.render.OverlayTileRenderer;
+import logic.render.PlotLayout;
+import logic.render.PlotSurface;
+import logic.render.PolylineBatch;
+import logic.render.ScreenPointIndex;
+import logic.render.ScreenTransform;
+import logic.render.TrajectoryOverlay;
+import utils.ThemeManager;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 public class Visualiser {
-    private final Canvas canvas;
+    // Grid, axes and labels; repainted only when what they show changes
+    private final Canvas backgroundCanvas;
     private final GraphicsContext gc;
+    private final FxPlotSurface backgroundSurface;
     private final double canvasWidth;
     private final double canvasHeight;
 
-    private List<DataPoint> trajectoryData;
+    private TrajectoryView trajectoryData;
+    private TrajectoryLod trajectoryLod;
     private final Pane hoverPane;
 
     private boolean showGrid;
     private boolean showAxes;
-    private double xScalingFactor;
-    private double yScalingFactor;
+    // Bounds, transform and axis labels; replaced on every rescale
+    private PlotLayout layout;
 
-    private double maxX;
-    private double maxY;
     private boolean showToolTips;
+    private final Circle projectileMarker;
+
+    private static final double POINT_RADIUS = PlotLayout.POINT_RADIUS;
+
+    private boolean backgroundValid;
+    private String backgroundTheme;
+
+    // Points currently plotted, each colour on its own canvas so it can be cleared without touching the others
+    private final PointLayer liveLayer;
+    private final PointLayer loadedLayer;
+
+    // Trajectories drawn as polylines for comparison, under the point layers
+    private final TrajectoryOverlay overlay = new TrajectoryOverlay();
+    private final Canvas overlayCanvas;
+    private final GraphicsContext overlayGc;
+    private static final int OVERLAY_OWNER = 2; // Hover index owner of overlay entry 0
+    private int overlayBudget = 250_000;
+    private int[] overlayLevels = new int[0];
+    private int pointsDrawn; // Dots, spans and overlay vertices painted since the last take
+    private final OverlayRenderPrep overlayPrep;
+    // Full-detail overlay tiles for zoomed views; the prepared polylines above are the coarse first pass
+    private final OverlayTileRenderer overlayTiles = new OverlayTileRenderer(96);
+
+    // Last mouse position of a pan drag
+    private double dragX;
+    private double dragY;
+
+    // Screen-space index of tooltip-enabled points, rebuilt lazily after a rescale or clear
+    private final ScreenPointIndex hoverIndex;
+    private boolean hoverIndexStale;
+
+    // One tooltip and one highlight ring shared by every point; the tooltip is built on first hover
+    private Tooltip hoverTooltip;
+    private final Circle hoverHighlight;
+    private int hoveredOwner = -1;
+    private int hoveredIndex = -1;
 
 
     public Visualiser(double width, double height) {
+        this(width, height, null, Platform::runLater);
+    }
+
+    /**
+     * A visualiser that paints its plotted points onto {@code pointTarget} instead of the point layer
+     * canvases (when not null) and hands prepared overlays to {@code fxExecutor}, normally Platform.runLater.
+     * With a stand-in for both it runs without a JavaFX toolkit, e.g. to drive the frame loop in a test.
+     */
+    public Visualiser(double width, double height, PlotSurface pointTarget, Executor fxExecutor) {
         this.canvasWidth = width;
         this.canvasHeight = height;
-        this.canvas = new Canvas(canvasWidth, canvasHeight);
-        this.gc = canvas.getGraphicsContext2D();
+        this.backgroundCanvas = new Canvas(canvasWidth, canvasHeight);
+        this.gc = backgroundCanvas.getGraphicsContext2D();
+        this.backgroundSurface = new FxPlotSurface(gc);
+        this.loadedLayer = new PointLayer(1, Color.BLUE, Color.YELLOW, pointTarget);
+        this.liveLayer = new PointLayer(0, Color.RED, Color.GREEN, pointTarget);
+        this.overlayPrep = new OverlayRenderPrep(fxExecutor);
+        this.overlayCanvas = new Canvas(canvasWidth, canvasHeight);
+        this.overlayCanvas.setMouseTransparent(true);
+        this.overlayGc = overlayCanvas.getGraphicsContext2D();
+        this.overlay.addListener(() -> {
+            overlayTiles.invalidate();
+            redrawOverlay();
+        });
         this.showGrid = true;
         this.showAxes = true;
-        this.trajectoryData = new ArrayList<>();
+        this.trajectoryData = new TrajectoryBuffer(0);
         this.showToolTips = true;
 
         this.hoverPane = new Pane();
         this.hoverPane.setPrefSize(canvasWidth, canvasHeight);
         this.hoverPane.setStyle("-fx-background-color: transparent;");
 
-        this.maxX = 100;
-        this.maxY = 100;
-        this.xScalingFactor = canvasWidth / maxX;
-        this.yScalingFactor = canvasHeight / maxY;
+        this.projectileMarker = new Circle(0, 0, 6, Color.ORANGE);
+        this.projectileMarker.setMouseTransparent(true);
+
+        this.hoverIndex = new ScreenPointIndex(canvasWidth, canvasHeight, 2 * POINT_RADIUS);
+
+        this.hoverHighlight = new Circle(0, 0, POINT_RADIUS);
+        this.hoverHighlight.setMouseTransparent(true);
+        this.hoverHighlight.setVisible(false);
+        this.hoverPane.getChildren().add(hoverHighlight);
+        this.hoverPane.setOnMouseMoved(this::handleMouseMoved);
+        this.hoverPane.setOnMouseExited(e -> clearHover());
+        this.hoverPane.setOnScroll(this::handleScroll);
+        this.hoverPane.setOnMousePressed(this::handleMousePressed);
+        this.hoverPane.setOnMouseDragged(this::handleMouseDragged);
+        this.hoverPane.setOnMouseClicked(e -> {
+            if (e.getButton() == MouseButton.PRIMARY && e.getClickCount() == 2) resetView();
+        });
+
+        this.layout = PlotLayout.initial(canvasWidth, canvasHeight);
 
         redrawCanvas();
     }
@@ -56,163 +146,378 @@ public class Visualiser {
     public StackPane createVisualiserBox() {
         StackPane stackPane = new StackPane();
         stackPane.setAlignment(Pos.CENTER);
-        stackPane.getChildren().addAll(canvas, hoverPane);
+        stackPane.getChildren().addAll(backgroundCanvas, overlayCanvas, loadedLayer.canvas, liveLayer.canvas, hoverPane);
         return stackPane;
     }
 
     public void setMaxBounds(double maxX, double maxY) {
-        this.maxX = Math.max(this.maxX, maxX * 1.1);
-        this.maxY = Math.max(this.maxY, maxY * 1.1);
-        calculateScalingFactors();
+        setLayout(layout.grow(maxX, maxY));
         redrawCanvas();
     }
 
-    private void calculateScalingFactors() {
-        this.xScalingFactor = canvasWidth / maxX;
-        this.yScalingFactor = canvasHeight / maxY;
+    private void setLayout(PlotLayout layout) {
+        if (layout == this.layout) return;
+        if (this.layout != null && (layout.maxX() != this.layout.maxX() || layout.maxY() != this.layout.maxY())) {
+            overlayTiles.invalidate(); // Tiles are cut at the old scale
+        }
+        this.layout = layout;
+        backgroundValid = false;
+        hoverIndexStale = true;
     }
 
-    public void addTrajectoryData(List<DataPoint> dataPoints) {
+    public void addTrajectoryData(TrajectoryView dataPoints) {
         if (dataPoints == null || dataPoints.isEmpty()) {
             System.err.println("addTrajectoryData: Received empty or null data points.");
         } else {
             this.trajectoryData = dataPoints;
+            this.trajectoryLod = TrajectoryLod.build(dataPoints);
             drawTooltipTrajectory();
         }
     }
 
 
     public void drawTooltipTrajectory() {
-        hoverPane.getChildren().clear(); // Clear previous hover points
-        for (DataPoint point : trajectoryData) {
-            double[] coords = transformCoordinates(point);
-            drawPoint(point, coords, showToolTips);
-        }
+        liveLayer.clear(); // The finished trajectory replaces the streamed points
+        if (trajectoryLod != null) plotLevelOfDetail(liveLayer, trajectoryLod, showToolTips);
     }
 
     public double[] transformCoordinates(DataPoint dataPoint) {
-        // Adjust for logical-to-visual mapping
-        double adjustedX = dataPoint.getX() * xScalingFactor;
-        double adjustedY = canvasHeight - (dataPoint.getY() * yScalingFactor);
-
-        // Add dynamic padding based on axes/margins
-        double xPadding = 29;
-        double yPadding = 0;
-
-        // Adjust for dynamic offsets
-        adjustedX += xPadding;
-        adjustedY -= yPadding;
+        return new double[]{transformX(dataPoint.getX()), transformY(dataPoint.getY())};
+    }
 
-        // Round to avoid floating-point inconsistencies
-        adjustedX = Math.round(adjustedX * 100.0) / 100.0;
-        adjustedY = Math.round(adjustedY * 100.0) / 100.0;
+    public double transformX(double x) {
+        // Logical-to-visual mapping plus padding for the axes, rounded to avoid floating-point inconsistencies
+        return layout.transform().x(x);
+    }
 
-        return new double[]{adjustedX, adjustedY};
+    public double transformY(double y) {
+        return layout.transform().y(y);
     }
 
+    // Clears the plotted points; the background layer is kept
     public void clearCanvas() {
-        gc.clearRect(0, 0, canvasWidth, canvasHeight);
-        hoverPane.getChildren().clear();
+        liveLayer.clear();
+        loadedLayer.clear();
+        clearHover();
     }
 
     public void resetScaling() {
-        this.maxX = 100;
-        this.maxY = 100;
-        this.xScalingFactor = canvasWidth / maxX;
-        this.yScalingFactor = canvasHeight / maxY;
+        setLayout(PlotLayout.initial(canvasWidth, canvasHeight));
         redrawCanvas();
     }
 
+    /**
+     * Zooms by whole zoom levels (positive zooms in), keeping the point under the screen position still.
+     */
+    public void zoom(int steps, double screenX, double screenY) {
+        applyView(layout.zoomed(steps, screenX, screenY));
+    }
+
+    // Moves the view with the content following a drag of dx, dy pixels
+    public void pan(double dx, double dy) {
+        applyView(layout.panned(dx, dy));
+    }
+
+    public void resetView() {
+        applyView(layout.fullView());
+    }
+
+    public boolean isZoomed() {
+        return layout.isZoomed();
+    }
+
+    /**
+     * Shows a new view of the same data. Plotted trajectories are plotted again at the level of detail the
+     * new zoom needs and streamed points are repainted at their new positions. The overlay is redrawn at a
+     * coarse level straight away and then sharpened tile by tile.
+     */
+    private void applyView(PlotLayout view) {
+        if (view == layout) return;
+        setLayout(view);
+        clearHover();
+        redrawBackground();
+        loadedLayer.repaint();
+        liveLayer.repaint();
+        redrawOverlay();
+    }
+
+    private void handleScroll(ScrollEvent e) {
+        if (e.getDeltaY() == 0) return;
+        zoom(e.getDeltaY() > 0 ? 1 : -1, e.getX(), e.getY());
+        e.consume();
+    }
+
+    private void handleMousePressed(MouseEvent e) {
+        dragX = e.getX();
+        dragY = e.getY();
+    }
+
+    private void handleMouseDragged(MouseEvent e) {
+        if (!e.isPrimaryButtonDown()) return;
+        pan(e.getX() - dragX, e.getY() - dragY);
+        dragX = e.getX();
+        dragY = e.getY();
+    }
+
     public void redrawCanvas() {
         clearCanvas();
-        if (showGrid) drawGrid();
-        if (showAxes) drawAxes();
+        redrawBackground();
+        redrawOverlay();
         drawTooltipTrajectory();
     }
 
+    // Repaints grid and axes only if the scale, a toggle or the theme changed since the last paint
+    private void redrawBackground() {
+        String theme = ThemeManager.getCurrentTheme();
+        if (backgroundValid && theme.equals(backgroundTheme)) return;
+        gc.clearRect(0, 0, canvasWidth, canvasHeight);
+        layout.drawBackground(backgroundSurface, showGrid, showAxes);
+        backgroundValid = true;
+        backgroundTheme = theme;
+    }
+
+    public void invalidateBackground() {
+        backgroundValid = false;
+        redrawBackground();
+    }
+
     public void toggleGrid() {
         showGrid = !showGrid;
-        redrawCanvas();
+        invalidateBackground();
     }
 
     public void toggleAxes() {
         showAxes = !showAxes;
-        redrawCanvas();
+        invalidateBackground();
     }
 
     public void toggleToolTips() {
         showToolTips = !showToolTips;
-        redrawCanvas();
+        if (!showToolTips) clearHover();
         System.out.println("Tooltips " + (showToolTips ? "enabled" : "disabled"));
     }
 
-    private void drawGrid() {
-        gc.setStroke(Color.LIGHTGRAY);
-        gc.setLineWidth(0.2);
+    public void drawPoint(DataPoint dataPoint, double[] coords, boolean withTooltip) {
+        liveLayer.add(dataPoint.getX(), dataPoint.getY(), dataPoint.getTime(), dataPoint.getVelocity(), withTooltip);
+        liveLayer.fillDot(coords[0], coords[1]);
+    }
 
-        double spacing = canvasWidth / 20;
+    /**
+     * Sizes the live layer for a run of the given length so streaming it never grows a buffer. A stale
+     * hover index is rebuilt here, at launch, so the streamed points go straight into it.
+     */
+    public void reserveLivePoints(int count) {
+        liveLayer.ensureCapacity(liveLayer.points.size() + count);
+        if (hoverIndexStale) rebuildHoverIndex();
+        hoverIndex.ensureCapacity(hoverIndex.size() + count);
+    }
 
-        for (double i = 0; i <= canvasWidth; i += spacing) {
-            gc.strokeLine(i, 0, i, canvasHeight);
-            gc.strokeLine(0, i, canvasWidth, i);
-        }
+    // Streams one live sample without building a DataPoint or a coordinate array
+    public void drawPoint(double x, double y, double time, double velocity, boolean withTooltip) {
+        liveLayer.add(x, y, time, velocity, withTooltip);
+        liveLayer.fillDot(transformX(x), transformY(y));
     }
 
-    private void drawAxes() {
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(1.0);
-        gc.strokeLine(0, canvasHeight, canvasWidth, canvasHeight);
-        gc.strokeLine(0, 0, 0, canvasHeight);
-        drawAxisLabels();
+    public void drawPoint(TrajectoryView data, int index, boolean withTooltip) {
+        plot(liveLayer, data, index, withTooltip);
     }
 
-    private void drawAxisLabels() {
-        gc.setFont(new Font(10));
-        gc.setFill(Color.WHITE);
+    public void drawLoaded(TrajectoryView data, int index, boolean withTooltip) {
+        plot(loadedLayer, data, index, withTooltip);
+    }
 
-        int numLabels = 20;
-        double xStep = maxX / numLabels;
-        double yStep = maxY / numLabels;
-        double xSpacing = canvasWidth / numLabels;
-        double ySpacing = canvasHeight / numLabels;
+    public void drawLoadedTrajectory(TrajectoryLod lod, boolean withTooltip) {
+        plotLevelOfDetail(loadedLayer, lod, withTooltip);
+    }
 
-        for (int i = 0; i <= numLabels; i++) {
-            double xValue = i * xStep;
-            double yValue = i * yStep;
+    /**
+     * Plots the level with about two samples per pixel of the trajectory's path at the current zoom, with
+     * the min/max envelope of skipped samples as vertical spans. Only chunks that reach the visible x range
+     * are walked, and only points and spans on the canvas are painted, so the work stays bounded by the
+     * view however far it is zoomed in. The layer keeps the LOD to plot it again when the view changes.
+     */
+    private void plotLevelOfDetail(PointLayer layer, TrajectoryLod lod, boolean withTooltip) {
+        layer.lod = lod;
+        layer.lodTooltips = withTooltip;
+        if (lod.level(0).isEmpty()) return;
+        ScreenTransform transform = layout.transform();
+        int level = OverlayTileRenderer.detailLevel(lod, transform);
+        TrajectoryView data = lod.level(level);
+        double[] bounds = lod.chunkBounds(level);
+        int chunks = bounds.length / 4;
+        double minX = transform.worldX(-POINT_RADIUS);
+        double maxX = transform.worldX(canvasWidth + POINT_RADIUS);
+
+        for (int c = 0; c < chunks; c++) {
+            if (bounds[4 * c + 1] < minX || bounds[4 * c] > maxX) continue;
+            int start = c * TrajectoryLod.CHUNK_SIZE;
+            int end = c == chunks - 1 ? data.size() : start + TrajectoryLod.CHUNK_SIZE;
+            for (int i = start; i < end; i++) {
+                double x = transformX(data.getX(i));
+                double y = transformY(data.getY(i));
+                if (level > 0 && x >= -1 && x <= canvasWidth + 1) {
+                    double low = Math.min(transformY(lod.envelopeMin(level, i)), canvasHeight + 1);
+                    double high = Math.max(transformY(lod.envelopeMax(level, i)), -1);
+                    if (low - high > 1) layer.strokeSpan(x, high, low);
+                }
+                if (onCanvas(x, y)) plot(layer, data, i, withTooltip);
+            }
+        }
+    }
 
-            gc.fillText(String.format("%.1f", xValue), i * xSpacing, canvasHeight - 5);
-            gc.fillText(String.format("%.1f", yValue), 5, canvasHeight - (i * ySpacing));
+    /**
+     * Requests a redraw of every visible overlay trajectory. Level selection, transformation and culling
+     * run on the render-prep thread; the FX thread only strokes the prepared polylines when they arrive.
+     * The vertex budget is shared evenly between visible trajectories, so with many overlaid each one
+     * drops to a coarser level instead of the redraw slowing down. When zoomed in, full-detail tiles
+     * are also requested and painted over the coarse pass as they finish.
+     */
+    public void redrawOverlay() {
+        int count = overlay.size();
+        OverlayRenderPrep.Entry[] entries = new OverlayRenderPrep.Entry[overlay.visibleCount()];
+        int next = 0;
+        for (int id = 0; id < count; id++) {
+            if (overlay.isVisible(id)) {
+                entries[next++] = new OverlayRenderPrep.Entry(id, overlay.getTrajectory(id), overlay.getStyle(id));
+            }
         }
+        overlayPrep.request(layout.transform(), entries, overlayBudget, this::blitOverlay);
+        if (layout.isZoomed()) overlayTiles.request(layout.transform(), layout.zoomLevel(), entries, this::blitTile);
+        hoverIndexStale = true;
     }
 
-    public void drawPoint(DataPoint dataPoint, double[] coords, boolean withTooltip) {
-        Circle dot = new Circle(coords[0], coords[1], 5);
-        dot.setFill(Color.RED);
-
-        // Add tooltip if enabled
-        if (withTooltip) {
-            Tooltip tooltip = new Tooltip(dataPoint.getTooltipText());
-            Tooltip.install(dot, tooltip);
-
-            final boolean[] tooltipVisible = {false};
-
-            // Show tooltip on hover
-            dot.setOnMouseEntered(e -> {
-                dot.setStroke(Color.GREEN); // Highlight the dot
-                if (!tooltipVisible[0]) {
-                    tooltip.setShowDelay(javafx.util.Duration.seconds(0));
-                    tooltip.show(dot, e.getScreenX() + 10, e.getScreenY() + 10);
-                    tooltipVisible[0] = true;
-                }
-            });
+    private void blitTile(OverlayTileRenderer.TileKey key) {
+        if (!layout.isZoomed() || key.zoomLevel() != layout.zoomLevel()) return;
+        overlayTiles.draw(overlayGc, key, layout.transform());
+    }
 
-            dot.setOnMouseExited(e -> {
-                dot.setStroke(Color.RED); // Reset stroke color
-                tooltip.hide();
-                tooltipVisible[0] = false;
-            });
+    private void blitOverlay(PolylineBatch batch) {
+        overlayGc.clearRect(0, 0, canvasWidth, canvasHeight);
+        if (overlayLevels.length < overlay.size()) overlayLevels = new int[Math.max(overlay.size(), overlayLevels.length * 2)];
+        Arrays.fill(overlayLevels, -1);
+        for (int run = 0; run < batch.runCount(); run++) {
+            TrajectoryOverlay.Style style = batch.style(run);
+            overlayGc.setStroke(style.stroke());
+            overlayGc.setLineWidth(style.lineWidth());
+            overlayGc.strokePolyline(batch.xs(run), batch.ys(run), batch.size(run));
+            pointsDrawn += batch.size(run);
+            if (batch.id(run) < overlay.size()) overlayLevels[batch.id(run)] = batch.level(run);
         }
-        hoverPane.getChildren().add(dot);
+        if (layout.isZoomed()) overlayTiles.drawCached(overlayGc, layout.transform(), layout.zoomLevel());
+        hoverIndexStale = true;
+    }
+
+    public TrajectoryOverlay getOverlay() {
+        return overlay;
+    }
+
+    // Total polyline vertices a full overlay redraw may stroke
+    public void setOverlayBudget(int vertices) {
+        if (vertices <= 0) throw new IllegalArgumentException("Overlay budget must be greater than zero.");
+        overlayBudget = vertices;
+        redrawOverlay();
+    }
+
+    private void plot(PointLayer layer, TrajectoryView data, int index, boolean withTooltip) {
+        double x = data.getX(index);
+        double y = data.getY(index);
+        layer.add(x, y, data.getTime(index), data.getVelocity(index), withTooltip);
+        layer.fillDot(transformX(x), transformY(y));
+    }
+
+    private void handleMouseMoved(MouseEvent e) {
+        if (!showToolTips) return;
+        if (hoverIndexStale) rebuildHoverIndex();
+        if (!hoverIndex.nearest(e.getX(), e.getY(), POINT_RADIUS)) {
+            clearHover();
+            return;
+        }
+        int owner = hoverIndex.foundOwner();
+        int index = hoverIndex.foundIndex();
+        if (owner == hoveredOwner && index == hoveredIndex) return;
+
+        TrajectoryView data;
+        Color fill;
+        Color highlight;
+        if (owner == liveLayer.id || owner == loadedLayer.id) {
+            PointLayer layer = owner == liveLayer.id ? liveLayer : loadedLayer;
+            data = layer.points;
+            fill = layer.fill;
+            highlight = layer.highlight;
+        } else {
+            int id = owner - OVERLAY_OWNER;
+            if (id >= overlay.size() || overlayLevels[id] < 0) {
+                clearHover(); // Overlay changed since the index was built
+                return;
+            }
+            data = overlay.getTrajectory(id).level(overlayLevels[id]);
+            fill = overlay.getStyle(id).stroke();
+            highlight = Color.WHITE;
+        }
+
+        hoveredOwner = owner;
+        hoveredIndex = index;
+        hoverHighlight.setCenterX(transformX(data.getX(index)));
+        hoverHighlight.setCenterY(transformY(data.getY(index)));
+        hoverHighlight.setFill(fill);
+        hoverHighlight.setStroke(highlight);
+        hoverHighlight.setVisible(true);
+        if (hoverTooltip == null) {
+            hoverTooltip = new Tooltip();
+            hoverTooltip.setShowDelay(javafx.util.Duration.seconds(0));
+        }
+        hoverTooltip.setText(data.getTooltipText(index));
+        hoverTooltip.show(hoverPane, e.getScreenX() + 10, e.getScreenY() + 10);
+    }
+
+    private void rebuildHoverIndex() {
+        hoverIndex.clear();
+        for (int id = 0; id < Math.min(overlay.size(), overlayLevels.length); id++) {
+            if (overlayLevels[id] < 0) continue;
+            TrajectoryView data = overlay.getTrajectory(id).level(overlayLevels[id]);
+            for (int i = 0; i < data.size(); i++) {
+                double x = transformX(data.getX(i));
+                double y = transformY(data.getY(i));
+                if (onCanvas(x, y)) hoverIndex.insert(x, y, OVERLAY_OWNER + id, i);
+            }
+        }
+        liveLayer.index();
+        loadedLayer.index();
+        hoverIndexStale = false;
+    }
+
+    // Off-canvas points are left out of the hover index when zoomed, so they don't pile up in its border cells
+    private boolean onCanvas(double x, double y) {
+        return x >= -POINT_RADIUS && x <= canvasWidth + POINT_RADIUS && y >= -POINT_RADIUS && y <= canvasHeight + POINT_RADIUS;
+    }
+
+    private void clearHover() {
+        hoveredOwner = -1;
+        hoveredIndex = -1;
+        hoverHighlight.setVisible(false);
+        if (hoverTooltip != null) hoverTooltip.hide();
+    }
+
+    // Moves the single projectile marker, re-adding it if the hover layer was cleared
+    public void moveProjectile(double x, double y) {
+        projectileMarker.setCenterX(transformX(x));
+        projectileMarker.setCenterY(transformY(y));
+        if (projectileMarker.getParent() == null) hoverPane.getChildren().add(projectileMarker);
+    }
+
+    public void hideProjectile() {
+        hoverPane.getChildren().remove(projectileMarker);
+    }
+
+    // Points actually painted since the previous call: dots, envelope spans and overlay vertices stroked
+    public int takePointsDrawn() {
+        int drawn = pointsDrawn;
+        pointsDrawn = 0;
+        return drawn;
+    }
+
+    public int getHoverNodeCount() {
+        return hoverPane.getChildren().size();
     }
 
     public boolean getToolTip() {
@@ -220,54 +525,135 @@ public class Visualiser {
     }
 
     public double getMaxX() {
-        return maxX;
+        return layout.maxX();
     }
 
     public double getMaxY() {
-        return maxY;
+        return layout.maxY();
     }
 
 
-    public List<DataPoint> getTrajectoryData() {
+    public TrajectoryView getTrajectoryData() {
         if (trajectoryData == null || trajectoryData.isEmpty()) {
             System.err.println("No trajectory data in Visualiser to retrieve!");
         }
         return trajectoryData;
     }
 
-    public void drawLoaded(DataPoint dataPoint, double[] coords, boolean withTooltip) {
-        Circle dot = new Circle(coords[0], coords[1], 5);
-        dot.setFill(Color.BLUE);
+    public void clearTrajectoryData() {
+        trajectoryData = new TrajectoryBuffer(0);
+        trajectoryLod = null;
+    }
+
+    /**
+     * Plotted points of one colour, in logical coordinates, with a per-point tooltip flag.
+     * New points are only ever drawn on top, and the layer tracks the pixel bounds it has painted
+     * so a clear only wipes that dirty region. Dots and spans go through a {@link PlotSurface}, normally
+     * over the layer's own canvas.
+     */
+    private final class PointLayer {
+        private final int id;
+        private final Canvas canvas;
+        private final GraphicsContext gc;
+        private final PlotSurface surface;
+        private final TrajectoryBuffer points = new TrajectoryBuffer();
+        private boolean[] tooltips = new boolean[16];
+        private final Color fill;
+        private final Color highlight;
+        // The trajectory the points were picked from, if they were, and whether it was plotted with tooltips
+        private TrajectoryLod lod;
+        private boolean lodTooltips;
+
+        private double dirtyMinX = Double.POSITIVE_INFINITY;
+        private double dirtyMinY = Double.POSITIVE_INFINITY;
+        private double dirtyMaxX = Double.NEGATIVE_INFINITY;
+        private double dirtyMaxY = Double.NEGATIVE_INFINITY;
+
+        private PointLayer(int id, Color fill, Color highlight, PlotSurface target) {
+            this.id = id;
+            this.canvas = new Canvas(canvasWidth, canvasHeight);
+            this.canvas.setMouseTransparent(true);
+            this.gc = canvas.getGraphicsContext2D();
+            this.surface = target != null ? target : new FxPlotSurface(gc);
+            this.fill = fill;
+            this.highlight = highlight;
+        }
 
-        if (withTooltip) {
-            Tooltip tooltip = new Tooltip(dataPoint.getTooltipText());
-            Tooltip.install(dot, tooltip);
+        private void fillDot(double x, double y) {
+            surface.dot(x, y, POINT_RADIUS, fill);
+            pointsDrawn++;
+            dirtyMinX = Math.min(dirtyMinX, x - POINT_RADIUS);
+            dirtyMinY = Math.min(dirtyMinY, y - POINT_RADIUS);
+            dirtyMaxX = Math.max(dirtyMaxX, x + POINT_RADIUS);
+            dirtyMaxY = Math.max(dirtyMaxY, y + POINT_RADIUS);
+        }
 
-            final boolean[] tooltipVisible = {false};
+        private void ensureCapacity(int capacity) {
+            points.ensureCapacity(capacity);
+            if (tooltips.length < capacity) tooltips = Arrays.copyOf(tooltips, capacity);
+        }
 
-            // Show tooltip on hover
-            dot.setOnMouseEntered(e -> {
-                dot.setStroke(Color.YELLOW); // Highlight the dot
-                if (!tooltipVisible[0]) {
-                    tooltip.setShowDelay(javafx.util.Duration.seconds(0));
-                    tooltip.show(dot, e.getScreenX() + 10, e.getScreenY() + 10);
-                    tooltipVisible[0] = true;
-                }
-            });
+        private void add(double x, double y, double time, double velocity, boolean withTooltip) {
+            int index = points.size();
+            if (index == tooltips.length) tooltips = Arrays.copyOf(tooltips, index * 2);
+            tooltips[index] = withTooltip;
+            points.add(x, y, time, velocity);
+            if (withTooltip && !hoverIndexStale) hoverIndex.insert(transformX(x), transformY(y), id, index);
+        }
 
-            dot.setOnMouseExited(e -> {
-                dot.setStroke(Color.BLUE); // Reset stroke color
-                tooltip.hide();
-                tooltipVisible[0] = false;
-            });
+        /**
+         * Redraws the layer under the current transform. Points picked from a trajectory's levels of detail
+         * are picked again for the new zoom; streamed points are moved, skipping those outside the canvas.
+         */
+        private void repaint() {
+            if (lod != null) {
+                TrajectoryLod plotted = lod;
+                boolean withTooltip = lodTooltips;
+                clear();
+                plotLevelOfDetail(this, plotted, withTooltip);
+                return;
+            }
+            clearDirty();
+            for (int i = 0; i < points.size(); i++) {
+                double x = transformX(points.getX(i));
+                double y = transformY(points.getY(i));
+                if (onCanvas(x, y)) fillDot(x, y);
+            }
         }
-        hoverPane.getChildren().add(dot);
-    }
 
-    public void clearTrajectoryData() {
-        trajectoryData.clear();
-    }
+        // Vertical min/max envelope of samples a coarse level skipped
+        private void strokeSpan(double x, double top, double bottom) {
+            surface.line(x, top, x, bottom, fill, 1);
+            pointsDrawn++;
+            dirtyMinX = Math.min(dirtyMinX, x - 1);
+            dirtyMinY = Math.min(dirtyMinY, top - 1);
+            dirtyMaxX = Math.max(dirtyMaxX, x + 1);
+            dirtyMaxY = Math.max(dirtyMaxY, bottom + 1);
+        }
 
+        private void clear() {
+            if (points.size() > 0) hoverIndexStale = true;
+            points.clear();
+            lod = null;
+            clearDirty();
+        }
 
+        private void clearDirty() {
+            if (dirtyMaxX >= dirtyMinX) {
+                // One pixel of margin for antialiased edges
+                gc.clearRect(dirtyMinX - 1, dirtyMinY - 1, dirtyMaxX - dirtyMinX + 2, dirtyMaxY - dirtyMinY + 2);
+                dirtyMinX = dirtyMinY = Double.POSITIVE_INFINITY;
+                dirtyMaxX = dirtyMaxY = Double.NEGATIVE_INFINITY;
+            }
+        }
 
+        private void index() {
+            for (int i = 0; i < points.size(); i++) {
+                if (!tooltips[i]) continue;
+                double x = transformX(points.getX(i));
+                double y = transformY(points.getY(i));
+                if (onCanvas(x, y)) hoverIndex.insert(x, y, id, i);
+            }
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package logic.forces;
+
+import logic.ForceModel;
+
+/**
+ * Quadratic drag, {@code a = -(rho * Cd * A / 2m) * |v_rel| * v_rel}, where {@code v_rel}
+ * is the velocity relative to the wind, {@code rho} comes from the {@link Atmosphere}
+ * at the current height and {@code Cd} from the {@link DragCoefficient} at the current Mach number.
+ */
+public class AerodynamicDrag implements ForceModel {
+    private final double areaOverMass;
+    private final DragCoefficient dragCoefficient;
+    private final Atmosphere atmosphere;
+    private final Wind wind;
+    private final double inverseSpeedOfSound;
+
+    public AerodynamicDrag(double mass, double referenceArea, DragCoefficient dragCoefficient,
+                           Atmosphere atmosphere, Wind wind) {
+        if (mass <= 0) throw new IllegalArgumentException("Mass must be greater than zero.");
+        if (referenceArea <= 0) throw new IllegalArgumentException("Reference area must be greater than zero.");
+        if (dragCoefficient == null) throw new IllegalArgumentException("Drag coefficient must not be null.");
+        if (atmosphere == null) throw new IllegalArgumentException("Atmosphere must not be null.");
+        if (wind == null) throw new IllegalArgumentException("Wind must not be null; use Wind.CALM for still air.");
+        this.areaOverMass = referenceArea / mass;
+        this.dragCoefficient = dragCoefficient;
+        this.atmosphere = atmosphere;
+        this.wind = wind;
+        this.inverseSpeedOfSound = 1.0 / atmosphere.getSpeedOfSound();
+    }
+
+    // A solid sphere of the given mass and diameter in Earth's atmosphere
+    public static AerodynamicDrag sphere(double mass, double diameter, Wind wind) {
+        double area = Math.PI * diameter * diameter / 4;
+        return new AerodynamicDrag(mass, area, DragCoefficient.sphere(), Atmosphere.earth(), wind);
+    }
+
+    @Override
+    public void accumulate(double t, double[] state, double[] acceleration) {
+        double relativeVx = state[VX] - wind.speedAt(t);
+        double relativeVy = state[VY];
+        double speed = Math.sqrt(relativeVx * relativeVx + relativeVy * relativeVy);
+        if (speed == 0) return;
+
+        double density = atmosphere.densityAt(state[Y]);
+        double cd = dragCoefficient.at(speed * inverseSpeedOfSound);
+        double k = 0.5 * density * cd * areaOverMass * speed;
+
+        acceleration[0] -= k * relativeVx;
+        acceleration[1] -= k * relativeVy;
+    }
+
+    public Atmosphere getAtmosphere() {
+        return atmosphere;
+    }
+
+    public Wind getWind() {
+        return wind;
+    }
+}
@@ -0,0 +1,69 @@
+package logic.forces;
+
+/**
+ * Isothermal exponential atmosphere, {@code rho(h) = rho0 * exp(-h / H)}.
+ * <p>
+ * {@link #tabulated} precomputes the curve into a {@link LookupTable} so the drag force
+ * does not call {@code Math.exp} on every integrator stage.
+ */
+public final class Atmosphere {
+    public static final double EARTH_SEA_LEVEL_DENSITY = 1.225;
+    public static final double EARTH_SCALE_HEIGHT = 8500;
+    public static final double EARTH_SPEED_OF_SOUND = 343;
+
+    private static final double DEFAULT_TABLE_CEILING = 50_000;
+    private static final int DEFAULT_TABLE_SIZE = 4096;
+
+    private final double seaLevelDensity;
+    private final double scaleHeight;
+    private final double speedOfSound;
+    private final LookupTable densityTable;
+
+    private Atmosphere(double seaLevelDensity, double scaleHeight, double speedOfSound, LookupTable densityTable) {
+        if (seaLevelDensity < 0) throw new IllegalArgumentException("Density must not be negative.");
+        if (scaleHeight <= 0) throw new IllegalArgumentException("Scale height must be greater than zero.");
+        if (speedOfSound <= 0) throw new IllegalArgumentException("Speed of sound must be greater than zero.");
+        this.seaLevelDensity = seaLevelDensity;
+        this.scaleHeight = scaleHeight;
+        this.speedOfSound = speedOfSound;
+        this.densityTable = densityTable;
+    }
+
+    public static Atmosphere earth() {
+        return tabulated(EARTH_SEA_LEVEL_DENSITY, EARTH_SCALE_HEIGHT, EARTH_SPEED_OF_SOUND,
+                DEFAULT_TABLE_CEILING, DEFAULT_TABLE_SIZE);
+    }
+
+    // Evaluates exp() on every call, kept for accuracy comparisons against the table
+    public static Atmosphere direct(double seaLevelDensity, double scaleHeight, double speedOfSound) {
+        return new Atmosphere(seaLevelDensity, scaleHeight, speedOfSound, null);
+    }
+
+    public static Atmosphere tabulated(double seaLevelDensity, double scaleHeight, double speedOfSound,
+                                       double ceiling, int tableSize) {
+        LookupTable table = LookupTable.sample(h -> seaLevelDensity * Math.exp(-h / scaleHeight), 0, ceiling, tableSize);
+        return new Atmosphere(seaLevelDensity, scaleHeight, speedOfSound, table);
+    }
+
+    public double densityAt(double altitude) {
+        if (altitude < 0) altitude = 0;
+        if (densityTable != null && altitude <= densityTable.getMax()) return densityTable.valueAt(altitude);
+        return seaLevelDensity * Math.exp(-altitude / scaleHeight);
+    }
+
+    public double getSpeedOfSound() {
+        return speedOfSound;
+    }
+
+    public double getSeaLevelDensity() {
+        return seaLevelDensity;
+    }
+
+    public double getScaleHeight() {
+        return scaleHeight;
+    }
+
+    public boolean isTabulated() {
+        return densityTable != null;
+    }
+}
@@ -0,0 +1,53 @@
+package logic.forces;
+
+/**
+ * Drag coefficient as a function of Mach number.
+ * Curves are resampled onto a uniform {@link LookupTable} when they are built.
+ */
+public final class DragCoefficient {
+    private static final int DEFAULT_TABLE_SIZE = 1024;
+
+    // Approximate smooth-sphere curve, including the transonic rise
+    private static final double[] SPHERE_MACH = {0.0, 0.6, 0.8, 1.0, 1.2, 1.5, 2.0, 3.0, 5.0};
+    private static final double[] SPHERE_CD = {0.47, 0.50, 0.60, 0.95, 1.02, 1.00, 0.95, 0.92, 0.90};
+
+    private final double constant;
+    private final LookupTable table;
+    private final double[] mach;
+    private final double[] cd;
+
+    private DragCoefficient(double constant, LookupTable table, double[] mach, double[] cd) {
+        this.constant = constant;
+        this.table = table;
+        this.mach = mach;
+        this.cd = cd;
+    }
+
+    public static DragCoefficient constant(double cd) {
+        if (cd < 0) throw new IllegalArgumentException("Drag coefficient must not be negative.");
+        return new DragCoefficient(cd, null, null, null);
+    }
+
+    public static DragCoefficient sphere() {
+        return curve(SPHERE_MACH, SPHERE_CD);
+    }
+
+    public static DragCoefficient curve(double[] mach, double[] cd) {
+        double[] machCopy = mach.clone();
+        double[] cdCopy = cd.clone();
+        return new DragCoefficient(0, LookupTable.fromPoints(machCopy, cdCopy, DEFAULT_TABLE_SIZE), machCopy, cdCopy);
+    }
+
+    public double at(double machNumber) {
+        return table == null ? constant : table.valueAt(machNumber);
+    }
+
+    // Walks the original curve points instead of the table, used to check the table against
+    public double directAt(double machNumber) {
+        return table == null ? constant : LookupTable.interpolate(mach, cd, machNumber);
+    }
+
+    public boolean isConstant() {
+        return table == null;
+    }
+}
@@ -0,0 +1,84 @@
+package logic.forces;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A function sampled on a uniform grid and linearly interpolated.
+ * <p>
+ * Lookups are a multiply, a floor and one interpolation, with no search and no allocation,
+ * which makes them cheaper than {@code Math.exp} or a piecewise curve walk in the integrator loop.
+ * Inputs outside the sampled range are clamped to the end values.
+ */
+public final class LookupTable {
+    private final double[] values;
+    private final double min;
+    private final double max;
+    private final double inverseSpacing;
+
+    private LookupTable(double[] values, double min, double max) {
+        this.values = values;
+        this.min = min;
+        this.max = max;
+        this.inverseSpacing = (values.length - 1) / (max - min);
+    }
+
+    public static LookupTable sample(DoubleUnaryOperator function, double min, double max, int size) {
+        if (size < 2) throw new IllegalArgumentException("A lookup table needs at least two samples.");
+        if (!(max > min)) throw new IllegalArgumentException("Table range must be increasing.");
+
+        double[] values = new double[size];
+        double spacing = (max - min) / (size - 1);
+        for (int i = 0; i < size; i++) {
+            values[i] = function.applyAsDouble(min + i * spacing);
+        }
+        return new LookupTable(values, min, max);
+    }
+
+    /**
+     * Resamples a piecewise-linear curve through {@code (xs[i], ys[i])} onto a uniform grid.
+     * {@code xs} must be strictly increasing.
+     */
+    public static LookupTable fromPoints(double[] xs, double[] ys, int size) {
+        if (xs.length != ys.length || xs.length < 2) {
+            throw new IllegalArgumentException("Curve needs at least two matching x and y values.");
+        }
+        for (int i = 1; i < xs.length; i++) {
+            if (!(xs[i] > xs[i - 1])) throw new IllegalArgumentException("Curve x values must be strictly increasing.");
+        }
+        return sample(x -> interpolate(xs, ys, x), xs[0], xs[xs.length - 1], size);
+    }
+
+    static double interpolate(double[] xs, double[] ys, double x) {
+        if (x <= xs[0]) return ys[0];
+        int last = xs.length - 1;
+        if (x >= xs[last]) return ys[last];
+
+        int i = 1;
+        while (xs[i] < x) i++;
+        double fraction = (x - xs[i - 1]) / (xs[i] - xs[i - 1]);
+        return ys[i - 1] + fraction * (ys[i] - ys[i - 1]);
+    }
+
+    public double valueAt(double x) {
+        if (x <= min) return values[0];
+        if (x >= max) return values[values.length - 1];
+
+        double position = (x - min) * inverseSpacing;
+        int index = (int) position;
+        if (index >= values.length - 1) return values[values.length - 1];
+        double fraction = position - index;
+        return values[index] + fraction * (values[index + 1] - values[index]);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,41 @@
+package logic.forces;
+
+/**
+ * Horizontal wind velocity, optionally with a periodic gust on top of the mean speed.
+ * Positive speeds blow in the direction of travel.
+ */
+public final class Wind {
+    public static final Wind CALM = new Wind(0, 0, 1);
+
+    private final double meanSpeed;
+    private final double gustAmplitude;
+    private final double angularFrequency;
+
+    private Wind(double meanSpeed, double gustAmplitude, double gustPeriod) {
+        if (gustPeriod <= 0) throw new IllegalArgumentException("Gust period must be greater than zero.");
+        this.meanSpeed = meanSpeed;
+        this.gustAmplitude = gustAmplitude;
+        this.angularFrequency = 2 * Math.PI / gustPeriod;
+    }
+
+    public static Wind constant(double speed) {
+        return new Wind(speed, 0, 1);
+    }
+
+    public static Wind gusting(double meanSpeed, double gustAmplitude, double gustPeriod) {
+        return new Wind(meanSpeed, gustAmplitude, gustPeriod);
+    }
+
+    public double speedAt(double time) {
+        if (gustAmplitude == 0) return meanSpeed;
+        return meanSpeed + gustAmplitude * Math.sin(angularFrequency * time);
+    }
+
+    public double getMeanSpeed() {
+        return meanSpeed;
+    }
+
+    public boolean isCalm() {
+        return meanSpeed == 0 && gustAmplitude == 0;
+    }
+}
@@ -0,0 +1,57 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+abstract class AbstractIntegrator implements Integrator {
+    protected long stepCount;
+    protected long elapsedNanos;
+    protected long timedSteps;
+    protected long stepsAtLastRecord;
+    protected double errorEstimate;
+
+    /**
+     * Clears {@code acceleration} and evaluates the forces into it.
+     */
+    protected static void evaluate(ForceModel forces, double t, double[] state, double[] acceleration) {
+        acceleration[0] = 0;
+        acceleration[1] = 0;
+        forces.accumulate(t, state, acceleration);
+    }
+
+    @Override
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    @Override
+    public double getStepsPerSecond() {
+        if (elapsedNanos == 0) return 0;
+        return timedSteps * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    @Override
+    public void recordElapsed(long nanos) {
+        elapsedNanos += nanos;
+        timedSteps += stepCount - stepsAtLastRecord;
+        stepsAtLastRecord = stepCount;
+    }
+
+    @Override
+    public void resetStatistics() {
+        stepCount = 0;
+        elapsedNanos = 0;
+        timedSteps = 0;
+        stepsAtLastRecord = 0;
+        errorEstimate = 0;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,132 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+import static logic.ForceModel.*;
+
+/**
+ * Dormand-Prince 5(4) with embedded error control.
+ * Steps that exceed the tolerance are rejected and retried with a smaller step inside
+ * {@link #step}, so the returned step may be shorter than the one requested.
+ */
+public class AdaptiveRK45Integrator extends AbstractIntegrator {
+    private static final double SAFETY = 0.9;
+    private static final double MIN_FACTOR = 0.2;
+    private static final double MAX_FACTOR = 5.0;
+
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561, A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176, A65 = -5103.0 / 18656;
+    private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192, B5 = -2187.0 / 6784, B6 = 11.0 / 84;
+    private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200, E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private final double minStep;
+    private double suggestedStep;
+    private long rejectedSteps;
+
+    private final double[] k1 = new double[4];
+    private final double[] k2 = new double[4];
+    private final double[] k3 = new double[4];
+    private final double[] k4 = new double[4];
+    private final double[] k5 = new double[4];
+    private final double[] k6 = new double[4];
+    private final double[] k7 = new double[4];
+    private final double[] stage = new double[4];
+    private final double[] result = new double[4];
+    private final double[] acceleration = new double[2];
+
+    public AdaptiveRK45Integrator() {
+        this(1e-6, 1e-6);
+    }
+
+    public AdaptiveRK45Integrator(double absoluteTolerance, double relativeTolerance) {
+        this(absoluteTolerance, relativeTolerance, 1e-9);
+    }
+
+    public AdaptiveRK45Integrator(double absoluteTolerance, double relativeTolerance, double minStep) {
+        if (absoluteTolerance <= 0 || relativeTolerance < 0) {
+            throw new IllegalArgumentException("Tolerances must be positive.");
+        }
+        this.absoluteTolerance = absoluteTolerance;
+        this.relativeTolerance = relativeTolerance;
+        this.minStep = minStep;
+        this.suggestedStep = Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public double nextStep(double remaining) {
+        return Math.min(suggestedStep, remaining);
+    }
+
+    @Override
+    public double step(ForceModel forces, double t, double[] state, double dt) {
+        double h = dt;
+        derivative(forces, t, state, k1);
+
+        while (true) {
+            for (int i = 0; i < 4; i++) stage[i] = state[i] + h * A21 * k1[i];
+            derivative(forces, t + h / 5, stage, k2);
+            for (int i = 0; i < 4; i++) stage[i] = state[i] + h * (A31 * k1[i] + A32 * k2[i]);
+            derivative(forces, t + 3 * h / 10, stage, k3);
+            for (int i = 0; i < 4; i++) stage[i] = state[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+            derivative(forces, t + 4 * h / 5, stage, k4);
+            for (int i = 0; i < 4; i++) stage[i] = state[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+            derivative(forces, t + 8 * h / 9, stage, k5);
+            for (int i = 0; i < 4; i++) stage[i] = state[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+            derivative(forces, t + h, stage, k6);
+            for (int i = 0; i < 4; i++) result[i] = state[i] + h * (B1 * k1[i] + B3 * k3[i] + B4 * k4[i] + B5 * k5[i] + B6 * k6[i]);
+            derivative(forces, t + h, result, k7);
+
+            double sumSquares = 0;
+            double maxError = 0;
+            for (int i = 0; i < 4; i++) {
+                double error = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i] + E7 * k7[i]);
+                double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(state[i]), Math.abs(result[i]));
+                double ratio = error / scale;
+                sumSquares += ratio * ratio;
+                maxError = Math.max(maxError, Math.abs(error));
+            }
+            double norm = Math.sqrt(sumSquares / 4);
+
+            if (norm <= 1.0 || h <= minStep) {
+                System.arraycopy(result, 0, state, 0, 4);
+                errorEstimate = maxError;
+                double factor = norm == 0 ? MAX_FACTOR : SAFETY * Math.pow(norm, -0.2);
+                suggestedStep = h * Math.min(MAX_FACTOR, Math.max(MIN_FACTOR, factor));
+                stepCount++;
+                return h;
+            }
+
+            rejectedSteps++;
+            h = Math.max(minStep, h * Math.max(MIN_FACTOR, SAFETY * Math.pow(norm, -0.25)));
+        }
+    }
+
+    private void derivative(ForceModel forces, double t, double[] state, double[] out) {
+        evaluate(forces, t, state, acceleration);
+        out[X] = state[VX];
+        out[Y] = state[VY];
+        out[VX] = acceleration[0];
+        out[VY] = acceleration[1];
+    }
+
+    public long getRejectedSteps() {
+        return rejectedSteps;
+    }
+
+    @Override
+    public void resetStatistics() {
+        super.resetStatistics();
+        rejectedSteps = 0;
+        suggestedStep = Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String getName() {
+        return "Adaptive RK45";
+    }
+}
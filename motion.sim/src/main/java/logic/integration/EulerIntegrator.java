@@ -0,0 +1,42 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+import static logic.ForceModel.*;
+
+/**
+ * Explicit (forward) Euler. First order, one force evaluation per step.
+ */
+public class EulerIntegrator extends FixedStepIntegrator {
+    private final double[] acceleration = new double[2];
+
+    public EulerIntegrator() {
+        this(0);
+    }
+
+    public EulerIntegrator(double maxStep) {
+        super(maxStep);
+    }
+
+    @Override
+    public double step(ForceModel forces, double t, double[] state, double dt) {
+        evaluate(forces, t, state, acceleration);
+        double ax = acceleration[0];
+        double ay = acceleration[1];
+
+        state[X] += state[VX] * dt;
+        state[Y] += state[VY] * dt;
+        state[VX] += ax * dt;
+        state[VY] += ay * dt;
+
+        // The dropped Taylor term in position is 0.5 * a * dt^2
+        errorEstimate = 0.5 * Math.sqrt(ax * ax + ay * ay) * dt * dt;
+        stepCount++;
+        return dt;
+    }
+
+    @Override
+    public String getName() {
+        return "Euler";
+    }
+}
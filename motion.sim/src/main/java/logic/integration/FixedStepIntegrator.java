@@ -0,0 +1,23 @@
+package logic.integration;
+
+/**
+ * Base for integrators that always take the step they are asked for.
+ * A positive {@code maxStep} splits longer requests into sub-steps.
+ */
+abstract class FixedStepIntegrator extends AbstractIntegrator {
+    private final double maxStep;
+
+    protected FixedStepIntegrator(double maxStep) {
+        if (maxStep < 0) throw new IllegalArgumentException("Maximum step must not be negative.");
+        this.maxStep = maxStep;
+    }
+
+    @Override
+    public double nextStep(double remaining) {
+        return maxStep > 0 ? Math.min(maxStep, remaining) : remaining;
+    }
+
+    public double getMaxStep() {
+        return maxStep;
+    }
+}
@@ -0,0 +1,49 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+/**
+ * Advances a projectile state {@code [x, y, vx, vy]} through time.
+ * <p>
+ * Integrators keep their stage buffers as fields so that stepping never allocates.
+ * This also means an instance must not be shared between threads.
+ */
+public interface Integrator {
+
+    /**
+     * Advances {@code state} in place, starting at time {@code t}.
+     *
+     * @param forces the total acceleration acting on the projectile
+     * @param t      the time at the start of the step
+     * @param state  the state to advance
+     * @param dt     the requested step size
+     * @return the step size actually taken, which adaptive integrators may shrink
+     */
+    double step(ForceModel forces, double t, double[] state, double dt);
+
+    /**
+     * Returns the size of the next step to attempt when {@code remaining} seconds are left to cover.
+     */
+    double nextStep(double remaining);
+
+    /**
+     * Returns the estimated local error of the last step, in state units (metres or m/s).
+     */
+    double getErrorEstimate();
+
+    /**
+     * Returns the throughput measured over the runs recorded with {@link #recordElapsed(long)}.
+     */
+    double getStepsPerSecond();
+
+    long getStepCount();
+
+    /**
+     * Adds wall-clock time spent stepping, used to compute {@link #getStepsPerSecond()}.
+     */
+    void recordElapsed(long nanos);
+
+    void resetStatistics();
+
+    String getName();
+}
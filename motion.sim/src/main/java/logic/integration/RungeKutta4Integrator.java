@@ -0,0 +1,82 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+import static logic.ForceModel.*;
+
+/**
+ * Classic fourth-order Runge-Kutta, four force evaluations per step.
+ * The error estimate compares the result with the midpoint (second order) solution
+ * built from the same stages, so it is a conservative bound rather than the true error.
+ */
+public class RungeKutta4Integrator extends FixedStepIntegrator {
+    private final double[] a1 = new double[2];
+    private final double[] a2 = new double[2];
+    private final double[] a3 = new double[2];
+    private final double[] a4 = new double[2];
+    private final double[] stage = new double[4];
+
+    public RungeKutta4Integrator() {
+        this(0);
+    }
+
+    public RungeKutta4Integrator(double maxStep) {
+        super(maxStep);
+    }
+
+    @Override
+    public double step(ForceModel forces, double t, double[] state, double dt) {
+        double x = state[X], y = state[Y], vx = state[VX], vy = state[VY];
+        double h2 = 0.5 * dt;
+
+        evaluate(forces, t, state, a1);
+
+        double vx2 = vx + h2 * a1[0];
+        double vy2 = vy + h2 * a1[1];
+        stage[X] = x + h2 * vx;
+        stage[Y] = y + h2 * vy;
+        stage[VX] = vx2;
+        stage[VY] = vy2;
+        evaluate(forces, t + h2, stage, a2);
+
+        double vx3 = vx + h2 * a2[0];
+        double vy3 = vy + h2 * a2[1];
+        stage[X] = x + h2 * vx2;
+        stage[Y] = y + h2 * vy2;
+        stage[VX] = vx3;
+        stage[VY] = vy3;
+        evaluate(forces, t + h2, stage, a3);
+
+        double vx4 = vx + dt * a3[0];
+        double vy4 = vy + dt * a3[1];
+        stage[X] = x + dt * vx3;
+        stage[Y] = y + dt * vy3;
+        stage[VX] = vx4;
+        stage[VY] = vy4;
+        evaluate(forces, t + dt, stage, a4);
+
+        double sixth = dt / 6.0;
+        double newX = x + sixth * (vx + 2 * vx2 + 2 * vx3 + vx4);
+        double newY = y + sixth * (vy + 2 * vy2 + 2 * vy3 + vy4);
+        double newVx = vx + sixth * (a1[0] + 2 * a2[0] + 2 * a3[0] + a4[0]);
+        double newVy = vy + sixth * (a1[1] + 2 * a2[1] + 2 * a3[1] + a4[1]);
+
+        double ex = Math.abs(newX - (x + dt * vx2));
+        double ey = Math.abs(newY - (y + dt * vy2));
+        double evx = Math.abs(newVx - (vx + dt * a2[0]));
+        double evy = Math.abs(newVy - (vy + dt * a2[1]));
+        errorEstimate = Math.max(Math.max(ex, ey), Math.max(evx, evy));
+
+        state[X] = newX;
+        state[Y] = newY;
+        state[VX] = newVx;
+        state[VY] = newVy;
+        stepCount++;
+        return dt;
+    }
+
+    @Override
+    public String getName() {
+        return "Runge-Kutta 4";
+    }
+}
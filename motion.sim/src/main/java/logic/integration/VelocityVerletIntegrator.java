@@ -0,0 +1,56 @@
+package logic.integration;
+
+import logic.ForceModel;
+
+import static logic.ForceModel.*;
+
+/**
+ * Velocity Verlet. Second order and symplectic, two force evaluations per step.
+ * Velocity-dependent forces (drag) are evaluated with the half-step velocity.
+ */
+public class VelocityVerletIntegrator extends FixedStepIntegrator {
+    private final double[] acceleration = new double[2];
+    private final double[] nextAcceleration = new double[2];
+    private final double[] half = new double[4];
+
+    public VelocityVerletIntegrator() {
+        this(0);
+    }
+
+    public VelocityVerletIntegrator(double maxStep) {
+        super(maxStep);
+    }
+
+    @Override
+    public double step(ForceModel forces, double t, double[] state, double dt) {
+        evaluate(forces, t, state, acceleration);
+        double ax = acceleration[0];
+        double ay = acceleration[1];
+
+        double halfVx = state[VX] + 0.5 * ax * dt;
+        double halfVy = state[VY] + 0.5 * ay * dt;
+
+        half[X] = state[X] + halfVx * dt;
+        half[Y] = state[Y] + halfVy * dt;
+        half[VX] = halfVx;
+        half[VY] = halfVy;
+        evaluate(forces, t + dt, half, nextAcceleration);
+
+        state[X] = half[X];
+        state[Y] = half[Y];
+        state[VX] = halfVx + 0.5 * nextAcceleration[0] * dt;
+        state[VY] = halfVy + 0.5 * nextAcceleration[1] * dt;
+
+        // Leading error term is jerk * dt^3 / 6, with jerk estimated from the change in acceleration
+        double dax = nextAcceleration[0] - ax;
+        double day = nextAcceleration[1] - ay;
+        errorEstimate = Math.sqrt(dax * dax + day * day) * dt * dt / 6.0;
+        stepCount++;
+        return dt;
+    }
+
+    @Override
+    public String getName() {
+        return "Velocity Verlet";
+    }
+}
@@ -0,0 +1,68 @@
+package logic.kernel;
+
+/**
+ * Plain loops, used when the Vector API is not available and for the tail of vector loops.
+ */
+public class ScalarTrajectoryKernel implements TrajectoryKernel {
+
+    @Override
+    public void fillTrajectory(double vx, double vy0, double gravity, double dt, int first, int count,
+                               double[] x, double[] y, double[] time, double[] speed, int offset) {
+        double halfGravity = 0.5 * gravity;
+        double vx2 = vx * vx;
+        for (int i = 0; i < count; i++) {
+            double t = (first + i) * dt;
+            double vy = vy0 - gravity * t;
+            x[offset + i] = vx * t;
+            y[offset + i] = vy0 * t - halfGravity * t * t;
+            time[offset + i] = t;
+            speed[offset + i] = Math.sqrt(vx2 + vy * vy);
+        }
+    }
+
+    @Override
+    public void fillTrajectory(float vx, float vy0, float gravity, float dt, int first, int count,
+                               float[] x, float[] y, float[] time, float[] speed, int offset) {
+        float halfGravity = 0.5f * gravity;
+        float vx2 = vx * vx;
+        for (int i = 0; i < count; i++) {
+            float t = (first + i) * dt;
+            float vy = vy0 - gravity * t;
+            x[offset + i] = vx * t;
+            y[offset + i] = vy0 * t - halfGravity * t * t;
+            time[offset + i] = t;
+            speed[offset + i] = (float) Math.sqrt(vx2 + vy * vy);
+        }
+    }
+
+    @Override
+    public void sweepRow(double[] velocities, int from, int count, double sinAngle, double sinDoubleAngle,
+                         double gravity, double[] range, double[] maxHeight, double[] flightTime, int offset) {
+        double inverseGravity = 1.0 / gravity;
+        for (int i = 0; i < count; i++) {
+            double velocity = velocities[from + i];
+            double verticalVelocity = velocity * sinAngle;
+            range[offset + i] = velocity * velocity * sinDoubleAngle * inverseGravity;
+            maxHeight[offset + i] = 0.5 * verticalVelocity * verticalVelocity * inverseGravity;
+            flightTime[offset + i] = Math.max(0, 2 * verticalVelocity * inverseGravity);
+        }
+    }
+
+    @Override
+    public void sweepRow(float[] velocities, int from, int count, float sinAngle, float sinDoubleAngle,
+                         float gravity, float[] range, float[] maxHeight, float[] flightTime, int offset) {
+        float inverseGravity = 1.0f / gravity;
+        for (int i = 0; i < count; i++) {
+            float velocity = velocities[from + i];
+            float verticalVelocity = velocity * sinAngle;
+            range[offset + i] = velocity * velocity * sinDoubleAngle * inverseGravity;
+            maxHeight[offset + i] = 0.5f * verticalVelocity * verticalVelocity * inverseGravity;
+            flightTime[offset + i] = Math.max(0, 2 * verticalVelocity * inverseGravity);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Scalar";
+    }
+}
@@ -0,0 +1,27 @@
+package logic.kernel;
+
+/**
+ * Bulk evaluation of the closed-form vacuum solution.
+ * <p>
+ * {@code fillTrajectory} writes samples {@code t = (first + i) * dt} for {@code i < count} into
+ * columns starting at {@code offset}. {@code sweepRow} computes range, maximum height and
+ * flight time for the launch speeds {@code velocities[from]} to {@code velocities[from + count - 1]},
+ * sharing one angle and gravity, writing the i-th of them at {@code offset + i}.
+ * Use {@link TrajectoryKernels#preferred()} to get the fastest implementation available.
+ */
+public interface TrajectoryKernel {
+
+    void fillTrajectory(double vx, double vy0, double gravity, double dt, int first, int count,
+                        double[] x, double[] y, double[] time, double[] speed, int offset);
+
+    void fillTrajectory(float vx, float vy0, float gravity, float dt, int first, int count,
+                        float[] x, float[] y, float[] time, float[] speed, int offset);
+
+    void sweepRow(double[] velocities, int from, int count, double sinAngle, double sinDoubleAngle,
+                  double gravity, double[] range, double[] maxHeight, double[] flightTime, int offset);
+
+    void sweepRow(float[] velocities, int from, int count, float sinAngle, float sinDoubleAngle,
+                  float gravity, float[] range, float[] maxHeight, float[] flightTime, int offset);
+
+    String getName();
+}
@@ -0,0 +1,35 @@
+package logic.kernel;
+
+/**
+ * Picks the trajectory kernel once per JVM. The Vector API kernel is used when
+ * {@code jdk.incubator.vector} is in the boot layer (run with {@code --add-modules jdk.incubator.vector});
+ * otherwise, or with {@code -Dmotionsim.kernel=scalar}, the scalar kernel is used.
+ */
+public final class TrajectoryKernels {
+    private static final TrajectoryKernel PREFERRED = select();
+
+    private TrajectoryKernels() {
+    }
+
+    public static TrajectoryKernel preferred() {
+        return PREFERRED;
+    }
+
+    public static TrajectoryKernel scalar() {
+        return new ScalarTrajectoryKernel();
+    }
+
+    private static TrajectoryKernel select() {
+        if ("scalar".equalsIgnoreCase(System.getProperty("motionsim.kernel"))) return scalar();
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return scalar();
+
+        try {
+            // Loaded reflectively so this class still links when the module is missing
+            return (TrajectoryKernel) Class.forName("logic.kernel.VectorTrajectoryKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Vector API unavailable, using scalar trajectory kernel: " + e);
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package logic.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation on {@code jdk.incubator.vector}, using the platform's preferred vector width.
+ * Only load this through {@link TrajectoryKernels}, which falls back to the scalar kernel
+ * when the incubator module is not in the boot layer.
+ */
+final class VectorTrajectoryKernel implements TrajectoryKernel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+
+    private final ScalarTrajectoryKernel tail = new ScalarTrajectoryKernel();
+    private final DoubleVector doubleLanes;
+    private final FloatVector floatLanes;
+
+    VectorTrajectoryKernel() {
+        double[] doubleIndices = new double[DOUBLES.length()];
+        for (int i = 0; i < doubleIndices.length; i++) doubleIndices[i] = i;
+        float[] floatIndices = new float[FLOATS.length()];
+        for (int i = 0; i < floatIndices.length; i++) floatIndices[i] = i;
+        doubleLanes = DoubleVector.fromArray(DOUBLES, doubleIndices, 0);
+        floatLanes = FloatVector.fromArray(FLOATS, floatIndices, 0);
+    }
+
+    @Override
+    public void fillTrajectory(double vx, double vy0, double gravity, double dt, int first, int count,
+                               double[] x, double[] y, double[] time, double[] speed, int offset) {
+        double halfGravity = 0.5 * gravity;
+        double vx2 = vx * vx;
+        int bound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            // Same expression as the scalar kernel, so t is bit-identical per sample
+            DoubleVector t = doubleLanes.add(first + i).mul(dt);
+            DoubleVector vy = t.mul(-gravity).add(vy0);
+            t.mul(vx).intoArray(x, offset + i);
+            t.mul(vy0).sub(t.mul(halfGravity).mul(t)).intoArray(y, offset + i);
+            t.intoArray(time, offset + i);
+            vy.mul(vy).add(vx2).lanewise(VectorOperators.SQRT).intoArray(speed, offset + i);
+        }
+        tail.fillTrajectory(vx, vy0, gravity, dt, first + i, count - i, x, y, time, speed, offset + i);
+    }
+
+    @Override
+    public void fillTrajectory(float vx, float vy0, float gravity, float dt, int first, int count,
+                               float[] x, float[] y, float[] time, float[] speed, int offset) {
+        float halfGravity = 0.5f * gravity;
+        float vx2 = vx * vx;
+        int bound = FLOATS.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector t = floatLanes.add(first + i).mul(dt);
+            FloatVector vy = t.mul(-gravity).add(vy0);
+            t.mul(vx).intoArray(x, offset + i);
+            t.mul(vy0).sub(t.mul(halfGravity).mul(t)).intoArray(y, offset + i);
+            t.intoArray(time, offset + i);
+            vy.mul(vy).add(vx2).lanewise(VectorOperators.SQRT).intoArray(speed, offset + i);
+        }
+        tail.fillTrajectory(vx, vy0, gravity, dt, first + i, count - i, x, y, time, speed, offset + i);
+    }
+
+    @Override
+    public void sweepRow(double[] velocities, int from, int count, double sinAngle, double sinDoubleAngle,
+                         double gravity, double[] range, double[] maxHeight, double[] flightTime, int offset) {
+        double inverseGravity = 1.0 / gravity;
+        int bound = DOUBLES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += DOUBLES.length()) {
+            DoubleVector velocity = DoubleVector.fromArray(DOUBLES, velocities, from + i);
+            DoubleVector vertical = velocity.mul(sinAngle);
+            velocity.mul(velocity).mul(sinDoubleAngle).mul(inverseGravity).intoArray(range, offset + i);
+            vertical.mul(0.5).mul(vertical).mul(inverseGravity).intoArray(maxHeight, offset + i);
+            vertical.mul(2).mul(inverseGravity).max(0).intoArray(flightTime, offset + i);
+        }
+        for (; i < count; i++) {
+            double velocity = velocities[from + i];
+            double verticalVelocity = velocity * sinAngle;
+            range[offset + i] = velocity * velocity * sinDoubleAngle * inverseGravity;
+            maxHeight[offset + i] = 0.5 * verticalVelocity * verticalVelocity * inverseGravity;
+            flightTime[offset + i] = Math.max(0, 2 * verticalVelocity * inverseGravity);
+        }
+    }
+
+    @Override
+    public void sweepRow(float[] velocities, int from, int count, float sinAngle, float sinDoubleAngle,
+                         float gravity, float[] range, float[] maxHeight, float[] flightTime, int offset) {
+        float inverseGravity = 1.0f / gravity;
+        int bound = FLOATS.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += FLOATS.length()) {
+            FloatVector velocity = FloatVector.fromArray(FLOATS, velocities, from + i);
+            FloatVector vertical = velocity.mul(sinAngle);
+            velocity.mul(velocity).mul(sinDoubleAngle).mul(inverseGravity).intoArray(range, offset + i);
+            vertical.mul(0.5f).mul(vertical).mul(inverseGravity).intoArray(maxHeight, offset + i);
+            vertical.mul(2).mul(inverseGravity).max(0).intoArray(flightTime, offset + i);
+        }
+        for (; i < count; i++) {
+            float velocity = velocities[from + i];
+            float verticalVelocity = velocity * sinAngle;
+            range[offset + i] = velocity * velocity * sinDoubleAngle * inverseGravity;
+            maxHeight[offset + i] = 0.5f * verticalVelocity * verticalVelocity * inverseGravity;
+            flightTime[offset + i] = Math.max(0, 2 * verticalVelocity * inverseGravity);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Vector (" + DOUBLES.length() + " x double, " + FLOATS.length() + " x float)";
+    }
+}
@@ -0,0 +1,130 @@
+package logic.montecarlo;
+
+import java.util.Arrays;
+
+/**
+ * Streaming statistics over impact samples of (range, flight time, max height).
+ * <p>
+ * Means and the covariance matrix are kept with Welford's update and combined with
+ * Chan's parallel formula, and percentiles come from fixed-bin histograms, so memory does not
+ * depend on the number of samples. Since this simulator is two-dimensional the impact point is
+ * the range alone, and the CEP is the median distance from the aim point along the ground.
+ */
+public final class ImpactStatistics {
+    public static final int RANGE = 0;
+    public static final int FLIGHT_TIME = 1;
+    public static final int MAX_HEIGHT = 2;
+    private static final int DIMENSIONS = 3;
+
+    private final double aimPoint;
+    private long count;
+    private final double[] mean = new double[DIMENSIONS];
+    private final double[][] coMoment = new double[DIMENSIONS][DIMENSIONS];
+    private final double[] min = new double[DIMENSIONS];
+    private final double[] max = new double[DIMENSIONS];
+    private final StreamingHistogram rangeHistogram;
+    private final StreamingHistogram missHistogram;
+    private final double[] delta = new double[DIMENSIONS];
+    private final double[] value = new double[DIMENSIONS];
+
+    ImpactStatistics(double aimPoint, StreamingHistogram rangeHistogram, StreamingHistogram missHistogram) {
+        this.aimPoint = aimPoint;
+        this.rangeHistogram = rangeHistogram;
+        this.missHistogram = missHistogram;
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    ImpactStatistics emptyCopy() {
+        return new ImpactStatistics(aimPoint, rangeHistogram.emptyCopy(), missHistogram.emptyCopy());
+    }
+
+    void add(double range, double flightTime, double maxHeight) {
+        count++;
+        value[RANGE] = range;
+        value[FLIGHT_TIME] = flightTime;
+        value[MAX_HEIGHT] = maxHeight;
+        delta[RANGE] = range - mean[RANGE];
+        delta[FLIGHT_TIME] = flightTime - mean[FLIGHT_TIME];
+        delta[MAX_HEIGHT] = maxHeight - mean[MAX_HEIGHT];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            mean[i] += delta[i] / count;
+        }
+        // Co-moment update uses the old delta on one side and the new one on the other
+        for (int i = 0; i < DIMENSIONS; i++) {
+            for (int j = 0; j < DIMENSIONS; j++) {
+                coMoment[i][j] += delta[i] * (value[j] - mean[j]);
+            }
+            min[i] = Math.min(min[i], value[i]);
+            max[i] = Math.max(max[i], value[i]);
+        }
+        rangeHistogram.add(range);
+        missHistogram.add(Math.abs(range - aimPoint));
+    }
+
+    void merge(ImpactStatistics other) {
+        if (other.count == 0) return;
+        long combined = count + other.count;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            delta[i] = other.mean[i] - mean[i];
+        }
+        double weight = (double) count * other.count / combined;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            for (int j = 0; j < DIMENSIONS; j++) {
+                coMoment[i][j] += other.coMoment[i][j] + delta[i] * delta[j] * weight;
+            }
+            mean[i] += delta[i] * other.count / combined;
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+        }
+        count = combined;
+        rangeHistogram.merge(other.rangeHistogram);
+        missHistogram.merge(other.missHistogram);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean(int dimension) {
+        return mean[dimension];
+    }
+
+    // Sample covariance (n - 1 denominator)
+    public double getCovariance(int first, int second) {
+        return count < 2 ? Double.NaN : coMoment[first][second] / (count - 1);
+    }
+
+    public double getStandardDeviation(int dimension) {
+        return Math.sqrt(getCovariance(dimension, dimension));
+    }
+
+    public double getMin(int dimension) {
+        return min[dimension];
+    }
+
+    public double getMax(int dimension) {
+        return max[dimension];
+    }
+
+    /**
+     * Returns the range below which {@code percent} percent of impacts fall.
+     */
+    public double getRangePercentile(double percent) {
+        return rangeHistogram.percentile(percent / 100.0);
+    }
+
+    public double getCircularErrorProbable() {
+        return missHistogram.percentile(0.5);
+    }
+
+    public double getAimPoint() {
+        return aimPoint;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Samples = %d, Mean Range = %.2f m (σ %.2f m), CEP = %.2f m, Mean Flight Time = %.2f s",
+                count, getMean(RANGE), getStandardDeviation(RANGE), getCircularErrorProbable(), getMean(FLIGHT_TIME));
+    }
+}
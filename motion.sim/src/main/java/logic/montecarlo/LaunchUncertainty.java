@@ -0,0 +1,103 @@
+package logic.montecarlo;
+
+import logic.forces.AerodynamicDrag;
+import logic.forces.Atmosphere;
+import logic.forces.DragCoefficient;
+import logic.forces.Wind;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Nominal launch parameters with a standard deviation for each, sampled as independent normals.
+ * Wind only affects the flight when a drag model is configured with {@link #withDrag}.
+ */
+public final class LaunchUncertainty {
+    private final double velocity;
+    private final double velocitySigma;
+    private final double angle;
+    private final double angleSigma;
+    private final double gravity;
+    private final double gravitySigma;
+    private final double wind;
+    private final double windSigma;
+
+    private double mass;
+    private double referenceArea;
+    private DragCoefficient dragCoefficient;
+    private Atmosphere atmosphere;
+
+    public LaunchUncertainty(double velocity, double velocitySigma, double angleDegrees, double angleSigma,
+                             double gravity, double gravitySigma, double wind, double windSigma) {
+        if (gravity <= 0) throw new IllegalArgumentException("Gravity must be greater than zero.");
+        if (velocitySigma < 0 || angleSigma < 0 || gravitySigma < 0 || windSigma < 0) {
+            throw new IllegalArgumentException("Standard deviations must not be negative.");
+        }
+        this.velocity = velocity;
+        this.velocitySigma = velocitySigma;
+        this.angle = angleDegrees;
+        this.angleSigma = angleSigma;
+        this.gravity = gravity;
+        this.gravitySigma = gravitySigma;
+        this.wind = wind;
+        this.windSigma = windSigma;
+    }
+
+    // Adds quadratic drag; the drag coefficient and atmosphere are shared by every sample
+    public LaunchUncertainty withDrag(double mass, double diameter, DragCoefficient dragCoefficient,
+                                      Atmosphere atmosphere) {
+        if (mass <= 0) throw new IllegalArgumentException("Mass must be greater than zero.");
+        if (diameter <= 0) throw new IllegalArgumentException("Diameter must be greater than zero.");
+        if (dragCoefficient == null) throw new IllegalArgumentException("Drag coefficient must not be null.");
+        if (atmosphere == null) throw new IllegalArgumentException("Atmosphere must not be null.");
+        this.mass = mass;
+        this.referenceArea = Math.PI * diameter * diameter / 4;
+        this.dragCoefficient = dragCoefficient;
+        this.atmosphere = atmosphere;
+        return this;
+    }
+
+    public boolean hasDrag() {
+        return dragCoefficient != null;
+    }
+
+    AerodynamicDrag dragFor(double windSpeed) {
+        return new AerodynamicDrag(mass, referenceArea, dragCoefficient, atmosphere, Wind.constant(windSpeed));
+    }
+
+    double sampleVelocity(RandomGenerator random) {
+        return Math.max(0, velocity + velocitySigma * random.nextGaussian());
+    }
+
+    double sampleAngle(RandomGenerator random) {
+        return angle + angleSigma * random.nextGaussian();
+    }
+
+    // Resamples non-physical draws rather than clamping them, so the tail stays smooth
+    double sampleGravity(RandomGenerator random) {
+        double sample;
+        do {
+            sample = gravity + gravitySigma * random.nextGaussian();
+        } while (sample <= 0);
+        return sample;
+    }
+
+    double sampleWind(RandomGenerator random) {
+        return wind + windSigma * random.nextGaussian();
+    }
+
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getAngle() {
+        return angle;
+    }
+
+    public double getGravity() {
+        return gravity;
+    }
+
+    public double getWind() {
+        return wind;
+    }
+}
@@ -0,0 +1,151 @@
+package logic.montecarlo;
+
+import logic.PhysicsEngine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Propagates launch uncertainty to impact dispersion by flying perturbed trajectories in parallel.
+ * <p>
+ * Samples are grouped into fixed-size blocks, which are halved recursively into ForkJoin tasks.
+ * Each task splits its {@link SplittableRandom} for its left half before forking, so every block's
+ * stream comes from the same split tree however the work is scheduled. As halves finish, the right
+ * partial is merged into the left, in that fixed tree order, so a given seed produces identical
+ * results on any number of threads. At most one {@link ImpactStatistics} per level of the tree is
+ * alive on a thread, so memory does not grow with the sample count, and trajectories are never kept.
+ */
+public class MonteCarloEngine {
+    private static final int BLOCK_SIZE = 65_536;
+    private static final int PILOT_SAMPLES = 4_096;
+    private static final int HISTOGRAM_BINS = 4_096;
+    private static final int DEFAULT_FPS = 100;
+
+    private final ForkJoinPool pool;
+    private final int fps;
+
+    public MonteCarloEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_FPS);
+    }
+
+    /**
+     * @param fps sample rate of the integrated trajectories when drag is enabled
+     */
+    public MonteCarloEngine(ForkJoinPool pool, int fps) {
+        if (fps <= 0) throw new IllegalArgumentException("FPS must be greater than zero.");
+        this.pool = pool;
+        this.fps = fps;
+    }
+
+    public ImpactStatistics run(LaunchUncertainty uncertainty, long samples, long seed) {
+        if (samples <= 0) throw new IllegalArgumentException("Sample count must be greater than zero.");
+
+        ImpactStatistics template = createTemplate(uncertainty, seed);
+        int blocks = (int) ((samples + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (blocks < 0) throw new IllegalArgumentException("Too many samples: " + samples);
+
+        // A stream separate from the pilot's
+        SplittableRandom root = new SplittableRandom(seed);
+        return pool.invoke(new BlockTask(uncertainty, template, root, samples, 0, blocks));
+    }
+
+    /*
+     * Flies a small pilot sample to place the histogram bounds, with a margin of half the
+     * pilot spread on either side. The aim point is the unperturbed range.
+     */
+    private ImpactStatistics createTemplate(LaunchUncertainty uncertainty, long seed) {
+        SplittableRandom pilotRandom = new SplittableRandom(~seed);
+        double low = Double.POSITIVE_INFINITY;
+        double high = Double.NEGATIVE_INFINITY;
+        double[] impact = new double[3];
+        for (int i = 0; i < PILOT_SAMPLES; i++) {
+            flySample(uncertainty, pilotRandom, impact);
+            low = Math.min(low, impact[ImpactStatistics.RANGE]);
+            high = Math.max(high, impact[ImpactStatistics.RANGE]);
+        }
+        double margin = Math.max(0.5 * (high - low), 1e-3);
+
+        double aimPoint = fly(uncertainty.getVelocity(), uncertainty.getAngle(), uncertainty.getGravity(),
+                uncertainty.getWind(), uncertainty, impact)[ImpactStatistics.RANGE];
+        double maxMiss = Math.max(Math.abs(high - aimPoint), Math.abs(aimPoint - low)) + margin;
+
+        return new ImpactStatistics(aimPoint,
+                new StreamingHistogram(low - margin, high + margin, HISTOGRAM_BINS),
+                new StreamingHistogram(0, maxMiss, HISTOGRAM_BINS));
+    }
+
+    private void flySample(LaunchUncertainty uncertainty, SplittableRandom random, double[] impact) {
+        double velocity = uncertainty.sampleVelocity(random);
+        double angle = uncertainty.sampleAngle(random);
+        double gravity = uncertainty.sampleGravity(random);
+        double wind = uncertainty.sampleWind(random);
+        fly(velocity, angle, gravity, wind, uncertainty, impact);
+    }
+
+    private double[] fly(double velocity, double angle, double gravity, double wind,
+                         LaunchUncertainty uncertainty, double[] impact) {
+        if (!uncertainty.hasDrag()) {
+            // Vacuum closed form, inlined to keep the per-sample cost to a few multiplies
+            double radians = Math.toRadians(angle);
+            double verticalVelocity = velocity * Math.sin(radians);
+            impact[ImpactStatistics.RANGE] = velocity * velocity * Math.sin(2 * radians) / gravity;
+            impact[ImpactStatistics.FLIGHT_TIME] = verticalVelocity > 0 ? 2 * verticalVelocity / gravity : 0;
+            impact[ImpactStatistics.MAX_HEIGHT] = verticalVelocity * verticalVelocity / (2 * gravity);
+            return impact;
+        }
+
+        PhysicsEngine engine = new PhysicsEngine(velocity, angle, gravity, fps);
+        engine.addForce(uncertainty.dragFor(wind));
+        impact[ImpactStatistics.RANGE] = engine.calculateRange();
+        impact[ImpactStatistics.FLIGHT_TIME] = engine.getFlightTime();
+        impact[ImpactStatistics.MAX_HEIGHT] = engine.calculateMaxHeight();
+        return impact;
+    }
+
+    @SuppressWarnings("serial") // Never serialised
+    private final class BlockTask extends RecursiveTask<ImpactStatistics> {
+        private final LaunchUncertainty uncertainty;
+        private final ImpactStatistics template;
+        private final SplittableRandom random;
+        private final long samples;
+        private final int fromBlock;
+        private final int toBlock;
+
+        BlockTask(LaunchUncertainty uncertainty, ImpactStatistics template, SplittableRandom random,
+                  long samples, int fromBlock, int toBlock) {
+            this.uncertainty = uncertainty;
+            this.template = template;
+            this.random = random;
+            this.samples = samples;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected ImpactStatistics compute() {
+            if (toBlock - fromBlock > 1) {
+                int middle = (fromBlock + toBlock) >>> 1;
+                // Split before forking, so the tree of streams does not depend on scheduling
+                BlockTask left = new BlockTask(uncertainty, template, random.split(), samples, fromBlock, middle);
+                BlockTask right = new BlockTask(uncertainty, template, random, samples, middle, toBlock);
+                left.fork();
+                ImpactStatistics rightStatistics = right.compute();
+                ImpactStatistics statistics = left.join();
+                statistics.merge(rightStatistics);
+                return statistics;
+            }
+
+            ImpactStatistics statistics = template.emptyCopy();
+            double[] impact = new double[3];
+            long first = (long) fromBlock * BLOCK_SIZE;
+            long count = Math.min(BLOCK_SIZE, samples - first);
+            for (long i = 0; i < count; i++) {
+                flySample(uncertainty, random, impact);
+                statistics.add(impact[ImpactStatistics.RANGE], impact[ImpactStatistics.FLIGHT_TIME],
+                        impact[ImpactStatistics.MAX_HEIGHT]);
+            }
+            return statistics;
+        }
+    }
+}
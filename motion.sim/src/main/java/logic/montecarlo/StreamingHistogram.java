@@ -0,0 +1,57 @@
+package logic.montecarlo;
+
+/**
+ * Fixed-bin histogram used for percentiles in constant memory.
+ * Values outside [min, max) are counted in the end bins, so percentiles in the tails
+ * are clamped to the bounds; quantile resolution is one bin width.
+ */
+final class StreamingHistogram {
+    private final double min;
+    private final double max;
+    private final double inverseBinWidth;
+    private final long[] counts;
+    private long total;
+
+    StreamingHistogram(double min, double max, int bins) {
+        if (!(max > min)) max = min + 1;
+        this.min = min;
+        this.max = max;
+        this.counts = new long[bins];
+        this.inverseBinWidth = bins / (max - min);
+    }
+
+    StreamingHistogram emptyCopy() {
+        return new StreamingHistogram(min, max, counts.length);
+    }
+
+    void add(double value) {
+        int bin = (int) ((value - min) * inverseBinWidth);
+        if (bin < 0 || value != value) bin = 0;
+        if (bin >= counts.length) bin = counts.length - 1;
+        counts[bin]++;
+        total++;
+    }
+
+    void merge(StreamingHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    // Linear interpolation inside the bin that holds the requested rank
+    double percentile(double fraction) {
+        if (total == 0) return Double.NaN;
+        double rank = fraction * total;
+        long cumulative = 0;
+        double binWidth = (max - min) / counts.length;
+        for (int i = 0; i < counts.length; i++) {
+            if (cumulative + counts[i] >= rank && counts[i] > 0) {
+                double within = (rank - cumulative) / counts[i];
+                return min + (i + within) * binWidth;
+            }
+            cumulative += counts[i];
+        }
+        return max;
+    }
+}
@@ -0,0 +1,38 @@
+package logic.render;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * {@link PlotSurface} over a JavaFX canvas.
+ */
+public final class FxPlotSurface implements PlotSurface {
+    private static final Font LABEL_FONT = new Font(PlotLayout.LABEL_FONT_SIZE);
+
+    private final GraphicsContext gc;
+
+    public FxPlotSurface(GraphicsContext gc) {
+        this.gc = gc;
+        gc.setFont(LABEL_FONT);
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2, Color color, double width) {
+        gc.setStroke(color);
+        gc.setLineWidth(width);
+        gc.strokeLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void text(String text, double x, double y, Color color) {
+        gc.setFill(color);
+        gc.fillText(text, x, y);
+    }
+
+    @Override
+    public void dot(double centerX, double centerY, double radius, Color color) {
+        gc.setFill(color);
+        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
+    }
+}
@@ -0,0 +1,176 @@
+package logic.render;
+
+import data.TrajectoryLod;
+import data.TrajectoryView;
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Prepares overlay polylines on a background thread so the FX thread only has to stroke them.
+ * <p>
+ * For each visible trajectory the worker picks a level of detail, transforms it to screen space,
+ * drops vertices that cannot change the picture (sub-pixel steps, and runs outside the canvas),
+ * and writes the result into a {@link PolylineBatch}. There are three batches: one the worker fills,
+ * one the FX thread shows, and a ready one in between. Each side swaps its batch with the ready one,
+ * so neither ever waits for the other. Requests are coalesced: if several arrive while the worker is
+ * busy, only the newest is prepared.
+ * <p>
+ * All instances share one worker thread, so short-lived views such as previews cost no threads.
+ */
+public final class OverlayRenderPrep {
+
+    public record Entry(int id, TrajectoryLod trajectory, TrajectoryOverlay.Style style) {
+    }
+
+    private record Request(long generation, ScreenTransform transform, Entry[] entries, int budget,
+                           Consumer<PolylineBatch> blit) {
+    }
+
+    // Vertices closer than this to the last kept one (in px) are skipped
+    private static final double MIN_STEP = 0.5;
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "overlay-render-prep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor fxExecutor;
+    private final AtomicReference<Request> pending = new AtomicReference<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicReference<PolylineBatch> ready = new AtomicReference<>(new PolylineBatch());
+    private PolylineBatch back = new PolylineBatch(); // Only touched by the worker
+    private PolylineBatch front = new PolylineBatch(); // Only touched on the FX thread
+    private long blitted; // Only touched on the FX thread
+
+    public OverlayRenderPrep() {
+        this(Platform::runLater);
+    }
+
+    // fxExecutor runs the hand-over; normally Platform.runLater
+    public OverlayRenderPrep(Executor fxExecutor) {
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * Queues a frame. {@code blit} is later called on the FX thread with the prepared batch, unless a newer
+     * batch has already been shown. The batch is only valid for the duration of the call.
+     */
+    public void request(ScreenTransform transform, Entry[] entries, int budget, Consumer<PolylineBatch> blit) {
+        Request request = new Request(requested.incrementAndGet(), transform, entries.clone(), budget, blit);
+        if (pending.getAndSet(request) == null) WORKER.execute(this::drain);
+    }
+
+    private void drain() {
+        Request request = pending.getAndSet(null);
+        if (request == null) return;
+        prepare(request, back);
+        back = ready.getAndSet(back);
+        fxExecutor.execute(() -> {
+            front = ready.getAndSet(front);
+            // The ready batch may be a newer frame, which is just as good to show, or one already shown
+            if (front.generation() <= blitted) return;
+            blitted = front.generation();
+            request.blit().accept(front);
+        });
+    }
+
+    private static void prepare(Request request, PolylineBatch batch) {
+        batch.reset(request.generation());
+        Entry[] entries = request.entries();
+        if (entries.length == 0) return;
+        ScreenTransform transform = request.transform();
+        int perTrajectory = Math.max(2, request.budget() / entries.length);
+
+        for (Entry entry : entries) {
+            TrajectoryLod lod = entry.trajectory();
+            TrajectoryView full = lod.level(0);
+            if (full.isEmpty() || !onScreen(lod, transform)) continue;
+
+            int level = Math.max(levelForScreen(lod, transform), lod.levelAtMost(perTrajectory));
+            TrajectoryView data = lod.level(level);
+            int run = batch.beginRun(entry.id(), level, entry.style(), data.size());
+            batch.endRun(run, clipAndDecimate(data, transform, batch.xsFor(run), batch.ysFor(run)));
+        }
+    }
+
+    /**
+     * The coarsest level with about two samples per pixel of the trajectory's on-screen path.
+     * The path length is capped by the canvas size, so the answer never depends on the sample count.
+     */
+    public static int levelForScreen(TrajectoryLod lod, ScreenTransform transform) {
+        TrajectoryView full = lod.level(0);
+        double spanX = Math.abs(transform.x(full.getX(full.size() - 1)) - transform.x(full.getX(0)));
+        double spanY = Math.abs(transform.y(lod.getMinY()) - transform.y(lod.getMaxY()));
+        double pathPixels = Math.min(spanX + 2 * spanY, transform.width() + 2 * transform.height());
+        return lod.levelFor((int) Math.ceil(2 * pathPixels));
+    }
+
+    // Quick reject on the trajectory's vertical extent and endpoints
+    private static boolean onScreen(TrajectoryLod lod, ScreenTransform transform) {
+        TrajectoryView full = lod.level(0);
+        double x0 = transform.x(full.getX(0));
+        double x1 = transform.x(full.getX(full.size() - 1));
+        double top = transform.y(lod.getMaxY());
+        double bottom = transform.y(lod.getMinY());
+        return Math.max(x0, x1) >= 0 && Math.min(x0, x1) <= transform.width()
+                && bottom >= 0 && top <= transform.height();
+    }
+
+    /**
+     * Writes the screen-space vertices worth stroking and returns how many there are. A vertex is dropped when
+     * it and the kept vertices on both sides lie beyond the same canvas edge (the joined segment stays
+     * invisible), or when it is within {@link #MIN_STEP} of the previous kept vertex. The endpoints always survive.
+     */
+    private static int clipAndDecimate(TrajectoryView data, ScreenTransform transform, double[] xs, double[] ys) {
+        int size = data.size();
+        double width = transform.width();
+        double height = transform.height();
+
+        double x = transform.x(data.getX(0));
+        double y = transform.y(data.getY(0));
+        xs[0] = x;
+        ys[0] = y;
+        int count = 1;
+        int keptCode = outCode(x, y, width, height);
+        if (size == 1) return count;
+
+        double nextX = transform.x(data.getX(1));
+        double nextY = transform.y(data.getY(1));
+        for (int i = 1; i < size - 1; i++) {
+            x = nextX;
+            y = nextY;
+            nextX = transform.x(data.getX(i + 1));
+            nextY = transform.y(data.getY(i + 1));
+
+            int code = outCode(x, y, width, height);
+            if ((keptCode & code & outCode(nextX, nextY, width, height)) != 0) continue;
+            double dx = x - xs[count - 1];
+            double dy = y - ys[count - 1];
+            if (code == 0 && keptCode == 0 && dx * dx + dy * dy < MIN_STEP * MIN_STEP) continue;
+
+            xs[count] = x;
+            ys[count] = y;
+            count++;
+            keptCode = code;
+        }
+        xs[count] = nextX;
+        ys[count] = nextY;
+        return count + 1;
+    }
+
+    private static int outCode(double x, double y, double width, double height) {
+        int code = 0;
+        if (x < 0) code |= 1;
+        else if (x > width) code |= 2;
+        if (y < 0) code |= 4;
+        else if (y > height) code |= 8;
+        return code;
+    }
+}
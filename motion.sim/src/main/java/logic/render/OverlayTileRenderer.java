@@ -0,0 +1,237 @@
+package logic.render;
+
+import data.TrajectoryLod;
+import data.TrajectoryView;
+import javafx.application.Platform;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Full-detail overlay rendering for a zoomed view, in square tiles rasterised on a background thread.
+ * <p>
+ * Tiles are anchored to the world, not the screen: tile (column, row) at a zoom level covers a fixed
+ * {@link #TILE_SIZE} pixel square of the plot at that level's scale. Panning therefore only needs the
+ * tiles that scroll into view, and returning to a zoom level reuses what was rendered there before.
+ * Each tile draws the finest level of detail the zoom calls for, skipping chunks of the trajectory
+ * that lie outside it, so a million-point trajectory costs about the same per tile as a short one.
+ * Finished tiles are kept in a least-recently-used cache; {@link #invalidate()} drops them when the
+ * overlay or the plot bounds change. Requests and the cache belong to the FX thread. All instances
+ * share one worker thread, so short-lived views such as previews cost no threads.
+ */
+public final class OverlayTileRenderer {
+    public static final int TILE_SIZE = 256;
+
+    public record TileKey(int zoomLevel, int column, int row) {
+    }
+
+    private record Job(long version, long generation, TileKey key, ScreenTransform transform,
+                       OverlayRenderPrep.Entry[] entries, Consumer<TileKey> onReady) {
+    }
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "overlay-tiles");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor fxExecutor;
+    private final Map<TileKey, WritableImage> cache;
+    private final Map<TileKey, Boolean> queued = new LinkedHashMap<>();
+    private long version; // Bumped when cached tiles no longer match the overlay
+    private volatile long generation; // Bumped per request; older jobs not yet started are dropped
+
+    // Reused by the worker; jobs of all instances run one at a time on it
+    private final BufferedImage tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+    private final Graphics2D graphics = tile.createGraphics();
+    private final Path2D.Double path = new Path2D.Double();
+
+    public OverlayTileRenderer(int maxTiles) {
+        this(maxTiles, Platform::runLater);
+    }
+
+    // fxExecutor runs the hand-over; normally Platform.runLater
+    public OverlayTileRenderer(int maxTiles, Executor fxExecutor) {
+        if (maxTiles <= 0) throw new IllegalArgumentException("Tile cache size must be greater than zero.");
+        this.fxExecutor = fxExecutor;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TileKey, WritableImage> eldest) {
+                return size() > maxTiles;
+            }
+        };
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+    }
+
+    /**
+     * Queues every tile of the view that is neither cached nor already queued, nearest the centre first,
+     * and returns how many were queued. {@code onReady} is called on the FX thread as each one is cached.
+     * Tiles of earlier requests that have not started yet are abandoned.
+     */
+    public int request(ScreenTransform transform, int zoomLevel, OverlayRenderPrep.Entry[] entries,
+                       Consumer<TileKey> onReady) {
+        long current = ++generation;
+        queued.clear();
+        if (entries.length == 0) return 0;
+        OverlayRenderPrep.Entry[] snapshot = entries.clone();
+
+        int firstColumn = column(transform, 0);
+        int lastColumn = column(transform, transform.width());
+        int firstRow = row(transform, transform.height());
+        int lastRow = row(transform, 0);
+        double centreColumn = (firstColumn + lastColumn) / 2.0;
+        double centreRow = (firstRow + lastRow) / 2.0;
+
+        // Rings outwards from the centre, so the middle of the view sharpens first
+        int maxRing = (int) Math.ceil(Math.max(lastColumn - centreColumn, lastRow - centreRow));
+        int count = 0;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    double distance = Math.max(Math.abs(column - centreColumn), Math.abs(row - centreRow));
+                    if ((int) Math.ceil(distance) != ring) continue;
+                    TileKey key = new TileKey(zoomLevel, column, row);
+                    if (cache.containsKey(key) || queued.put(key, Boolean.TRUE) != null) continue;
+                    Job job = new Job(version, current, key, transform, snapshot, onReady);
+                    WORKER.execute(() -> render(job));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Paints the cached tiles of the view over whatever is there, leaving gaps where tiles are missing
+    public void drawCached(GraphicsContext gc, ScreenTransform transform, int zoomLevel) {
+        for (int column = column(transform, 0); column <= column(transform, transform.width()); column++) {
+            for (int row = row(transform, transform.height()); row <= row(transform, 0); row++) {
+                draw(gc, new TileKey(zoomLevel, column, row), transform);
+            }
+        }
+    }
+
+    // Paints one cached tile where it belongs in the view; does nothing if it is not cached
+    public void draw(GraphicsContext gc, TileKey key, ScreenTransform transform) {
+        WritableImage image = cache.get(key);
+        if (image == null) return;
+        double left = transform.x(key.column() * TILE_SIZE / transform.xScale());
+        double top = transform.y((key.row() + 1) * TILE_SIZE / transform.yScale());
+        double right = transform.x((key.column() + 1) * TILE_SIZE / transform.xScale());
+        double bottom = transform.y(key.row() * TILE_SIZE / transform.yScale());
+        // Replace, not blend: the area may hold a coarser drawing of the same lines
+        gc.clearRect(left, top, right - left, bottom - top);
+        gc.drawImage(image, left, top, right - left, bottom - top);
+    }
+
+    public void invalidate() {
+        version++;
+        generation++;
+        cache.clear();
+        queued.clear();
+    }
+
+    public int cachedCount() {
+        return cache.size();
+    }
+
+    private static int column(ScreenTransform transform, double screenX) {
+        return (int) Math.floor(transform.worldX(screenX) * transform.xScale() / TILE_SIZE);
+    }
+
+    private static int row(ScreenTransform transform, double screenY) {
+        return (int) Math.floor(transform.worldY(screenY) * transform.yScale() / TILE_SIZE);
+    }
+
+    private void render(Job job) {
+        if (job.generation() != generation) return;
+        rasterise(job);
+        int[] pixels = ((DataBufferInt) tile.getRaster().getDataBuffer()).getData().clone();
+        fxExecutor.execute(() -> {
+            if (job.version() != version) return;
+            WritableImage image = new WritableImage(TILE_SIZE, TILE_SIZE);
+            image.getPixelWriter().setPixels(0, 0, TILE_SIZE, TILE_SIZE, PixelFormat.getIntArgbPreInstance(),
+                    pixels, 0, TILE_SIZE);
+            cache.put(job.key(), image);
+            queued.remove(job.key());
+            job.onReady().accept(job.key());
+        });
+    }
+
+    private void rasterise(Job job) {
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+        graphics.setComposite(AlphaComposite.SrcOver);
+
+        ScreenTransform transform = job.transform();
+        double xScale = transform.xScale();
+        double yScale = transform.yScale();
+        // Tile pixel (0, 0) is the top-left corner of the tile
+        double offsetX = job.key().column() * TILE_SIZE;
+        double offsetY = (job.key().row() + 1) * TILE_SIZE;
+
+        for (OverlayRenderPrep.Entry entry : job.entries()) {
+            TrajectoryLod lod = entry.trajectory();
+            if (lod.level(0).isEmpty()) continue;
+            TrajectoryOverlay.Style style = entry.style();
+            // Lines may poke into the tile from up to half a line width outside it
+            double margin = style.lineWidth() / 2 + 1;
+            double minX = (offsetX - margin) / xScale;
+            double maxX = (offsetX + TILE_SIZE + margin) / xScale;
+            double minY = (offsetY - TILE_SIZE - margin) / yScale;
+            double maxY = (offsetY + margin) / yScale;
+
+            int level = detailLevel(lod, transform);
+            TrajectoryView data = lod.level(level);
+            double[] bounds = lod.chunkBounds(level);
+            path.reset();
+            int lastDrawn = -1;
+            for (int c = 0; c < bounds.length / 4; c++) {
+                if (bounds[4 * c + 1] < minX || bounds[4 * c] > maxX
+                        || bounds[4 * c + 3] < minY || bounds[4 * c + 2] > maxY) continue;
+                int start = c * TrajectoryLod.CHUNK_SIZE;
+                int end = Math.min(start + TrajectoryLod.CHUNK_SIZE, data.size() - 1);
+                int i = start;
+                if (lastDrawn != start) {
+                    path.moveTo(data.getX(i) * xScale - offsetX, offsetY - data.getY(i) * yScale);
+                }
+                for (i = start + 1; i <= end; i++) {
+                    path.lineTo(data.getX(i) * xScale - offsetX, offsetY - data.getY(i) * yScale);
+                }
+                if (start == end) path.lineTo(data.getX(start) * xScale - offsetX, offsetY - data.getY(start) * yScale);
+                lastDrawn = end;
+            }
+            if (lastDrawn < 0) continue;
+            graphics.setColor(RasterPlotSurface.awt(style.stroke()));
+            graphics.setStroke(new BasicStroke((float) style.lineWidth(), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            graphics.draw(path);
+        }
+    }
+
+    /**
+     * The coarsest level with about two samples per pixel of the trajectory's whole path at this zoom.
+     * Unlike {@link OverlayRenderPrep#levelForScreen} the path is not capped by the canvas, since a tile
+     * only draws the part of it that falls inside.
+     */
+    public static int detailLevel(TrajectoryLod lod, ScreenTransform transform) {
+        TrajectoryView full = lod.level(0);
+        double spanX = Math.abs(full.getX(full.size() - 1) - full.getX(0)) * transform.xScale();
+        double spanY = (lod.getMaxY() - lod.getMinY()) * transform.yScale();
+        double pathPixels = Math.min(spanX + 2 * spanY, Integer.MAX_VALUE / 4.0);
+        return lod.levelFor((int) Math.ceil(2 * pathPixels));
+    }
+}
@@ -0,0 +1,155 @@
+package logic.render;
+
+import data.GraphData;
+import data.TrajectoryLod;
+import data.TrajectoryView;
+import javafx.scene.paint.Color;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Renders saved graphs to PNG or SVG files without a JavaFX stage.
+ * <p>
+ * Uses the same {@link PlotLayout} as the on-screen view: bounds grown from the graph's saved maximum,
+ * the same grid, axes and labels, and the loaded-graph dots at the level of detail that suits the
+ * image size. Plots are rendered in parallel; each worker thread keeps its own image, SVG buffer and
+ * PNG encoder, and every file is written as soon as its plot is done. PNGs go through {@link PngEncoder}
+ * rather than ImageIO, whose per-row conversion was most of the export time.
+ */
+public final class PlotExporter {
+
+    public enum Format {
+        PNG("png"), SVG("svg");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final Format format;
+    private final ForkJoinPool pool;
+    private Color background = Color.web("#2c3e50");
+    private Color pointColor = Color.BLUE;
+    private boolean showGrid = true;
+    private boolean showAxes = true;
+
+    private final ThreadLocal<RasterPlotSurface> rasters;
+    private final ThreadLocal<SvgPlotSurface> svgs = ThreadLocal.withInitial(SvgPlotSurface::new);
+    private final ThreadLocal<PngEncoder> pngEncoders = ThreadLocal.withInitial(PngEncoder::new);
+
+    public PlotExporter(int width, int height, Format format) {
+        this(width, height, format, ForkJoinPool.commonPool());
+    }
+
+    public PlotExporter(int width, int height, Format format, ForkJoinPool pool) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Plot size must be greater than zero.");
+        if (format == null || pool == null) throw new IllegalArgumentException("Format and pool are required.");
+        this.width = width;
+        this.height = height;
+        this.format = format;
+        this.pool = pool;
+        this.rasters = ThreadLocal.withInitial(() -> new RasterPlotSurface(width, height));
+    }
+
+    public void setBackground(Color background) {
+        this.background = background;
+    }
+
+    public void setPointColor(Color pointColor) {
+        this.pointColor = pointColor;
+    }
+
+    public void setShowGrid(boolean showGrid) {
+        this.showGrid = showGrid;
+    }
+
+    public void setShowAxes(boolean showAxes) {
+        this.showAxes = showAxes;
+    }
+
+    /**
+     * Renders every plot to {@code directory/prefix<index>.png|svg}, in parallel.
+     * A plot that fails to write is reported and skipped.
+     *
+     * @return the number of files written
+     */
+    public int exportAll(List<GraphData> plots, Path directory, String prefix) throws IOException {
+        Files.createDirectories(directory);
+        int digits = Math.max(1, String.valueOf(plots.size() - 1).length());
+        AtomicInteger written = new AtomicInteger();
+        try {
+            pool.submit(() -> IntStream.range(0, plots.size()).parallel().forEach(i -> {
+                String name = prefix + String.format("%0" + digits + "d", i) + "." + format.getExtension();
+                Path file = directory.resolve(name);
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                    write(plots.get(i), out);
+                    written.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Failed to export plot " + file + ": " + e.getMessage());
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Plot export failed: " + e.getCause());
+        }
+        return written.get();
+    }
+
+    // Renders one plot in this exporter's format; the stream is not closed
+    public void write(GraphData plot, OutputStream out) throws IOException {
+        PlotLayout layout = PlotLayout.initial(width, height).grow(plot.maxX(), plot.maxY());
+        if (format == Format.SVG) {
+            SvgPlotSurface svg = svgs.get();
+            svg.begin(width, height, background);
+            draw(layout, plot.levelOfDetail(), svg);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            svg.end(writer);
+            writer.flush();
+        } else {
+            RasterPlotSurface raster = rasters.get();
+            raster.clear(background);
+            draw(layout, plot.levelOfDetail(), raster);
+            pngEncoders.get().write(raster.image(), out);
+        }
+    }
+
+    private void draw(PlotLayout layout, TrajectoryLod lod, PlotSurface surface) {
+        layout.drawBackground(surface, showGrid, showAxes);
+        if (lod.level(0).isEmpty()) return;
+
+        ScreenTransform transform = layout.transform();
+        int level = OverlayRenderPrep.levelForScreen(lod, transform);
+        TrajectoryView data = lod.level(level);
+        for (int i = 0; i < data.size(); i++) {
+            double x = transform.x(data.getX(i));
+            surface.dot(x, transform.y(data.getY(i)), PlotLayout.POINT_RADIUS, pointColor);
+            if (level > 0) {
+                double low = transform.y(lod.envelopeMin(level, i));
+                double high = transform.y(lod.envelopeMax(level, i));
+                if (low - high > 1) surface.line(x, high, x, low, pointColor, 1.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package logic.render;
+
+import javafx.scene.paint.Color;
+
+/**
+ * The plot's bounds and background rules: how far the axes reach, the world-to-screen transform,
+ * and where the grid, axes and their 21 labels go. Shared by the on-screen {@code Visualiser} and
+ * the headless {@link PlotExporter}, so exported plots look exactly like the application.
+ * <p>
+ * The view can be zoomed in discrete steps of {@link #ZOOM_STEP} and panned within the bounds.
+ * Discrete zoom levels let rendered tiles be reused whenever the view returns to a level.
+ * Immutable; growing the bounds returns a new, fully zoomed-out layout.
+ */
+public final class PlotLayout {
+    public static final double DEFAULT_MAX = 100;
+    public static final double MARGIN = 1.1; // Headroom added around the data
+    public static final double X_PADDING = 29; // Room for the y axis labels
+    public static final int NUM_LABELS = 20;
+    public static final double LABEL_FONT_SIZE = 10;
+    public static final double POINT_RADIUS = 5;
+    public static final double ZOOM_STEP = Math.pow(2, 0.25);
+    public static final int MAX_ZOOM_LEVEL = 48; // 2^12 times magnification
+
+    private final double width;
+    private final double height;
+    private final double maxX;
+    private final double maxY;
+    private final int zoomLevel;
+    private final double originX;
+    private final double originY;
+    private final ScreenTransform transform;
+    private final String[] xLabels = new String[NUM_LABELS + 1];
+    private final String[] yLabels = new String[NUM_LABELS + 1];
+
+    private PlotLayout(double width, double height, double maxX, double maxY) {
+        this(width, height, maxX, maxY, 0, 0, 0);
+    }
+
+    private PlotLayout(double width, double height, double maxX, double maxY, int zoomLevel, double originX, double originY) {
+        this.width = width;
+        this.height = height;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.zoomLevel = zoomLevel;
+        double zoom = zoomFactor(zoomLevel);
+        // Keep the view inside the bounds
+        this.originX = Math.max(0, Math.min(originX, maxX - maxX / zoom));
+        this.originY = Math.max(0, Math.min(originY, maxY - maxY / zoom));
+        this.transform = new ScreenTransform(width / maxX * zoom, height / maxY * zoom, X_PADDING, width, height,
+                this.originX, this.originY);
+
+        double xStep = maxX / zoom / NUM_LABELS;
+        double yStep = maxY / zoom / NUM_LABELS;
+        for (int i = 0; i <= NUM_LABELS; i++) {
+            xLabels[i] = String.format("%.1f", this.originX + i * xStep);
+            yLabels[i] = String.format("%.1f", this.originY + i * yStep);
+        }
+    }
+
+    public static double zoomFactor(int zoomLevel) {
+        return Math.pow(ZOOM_STEP, zoomLevel);
+    }
+
+    // The default 100 x 100 view
+    public static PlotLayout initial(double width, double height) {
+        if (!(width > 0) || !(height > 0)) throw new IllegalArgumentException("Plot size must be greater than zero.");
+        return new PlotLayout(width, height, DEFAULT_MAX, DEFAULT_MAX);
+    }
+
+    // Widens the bounds (never shrinks them) so data reaching maxX, maxY fits with the margin
+    public PlotLayout grow(double dataMaxX, double dataMaxY) {
+        double newMaxX = Math.max(maxX, dataMaxX * MARGIN);
+        double newMaxY = Math.max(maxY, dataMaxY * MARGIN);
+        if (newMaxX == maxX && newMaxY == maxY) return this;
+        return new PlotLayout(width, height, newMaxX, newMaxY);
+    }
+
+    /**
+     * Zooms by {@code steps} levels (positive zooms in) keeping the world point under the screen position fixed.
+     */
+    public PlotLayout zoomed(int steps, double screenX, double screenY) {
+        int level = Math.max(0, Math.min(MAX_ZOOM_LEVEL, zoomLevel + steps));
+        if (level == zoomLevel) return this;
+        double anchorX = transform.worldX(screenX);
+        double anchorY = transform.worldY(screenY);
+        double zoom = zoomFactor(level);
+        double xScale = width / maxX * zoom;
+        double yScale = height / maxY * zoom;
+        return new PlotLayout(width, height, maxX, maxY, level,
+                anchorX - (screenX - X_PADDING) / xScale, anchorY - (height - screenY) / yScale);
+    }
+
+    // Moves the view so the content follows a drag of dx, dy pixels
+    public PlotLayout panned(double dx, double dy) {
+        if (zoomLevel == 0) return this;
+        return new PlotLayout(width, height, maxX, maxY, zoomLevel,
+                originX - dx / transform.xScale(), originY + dy / transform.yScale());
+    }
+
+    public PlotLayout fullView() {
+        return zoomLevel == 0 ? this : new PlotLayout(width, height, maxX, maxY);
+    }
+
+    public boolean isZoomed() {
+        return zoomLevel > 0;
+    }
+
+    public int zoomLevel() {
+        return zoomLevel;
+    }
+
+    public void drawBackground(PlotSurface surface, boolean showGrid, boolean showAxes) {
+        if (showGrid) drawGrid(surface);
+        if (showAxes) drawAxes(surface);
+    }
+
+    private void drawGrid(PlotSurface surface) {
+        double spacing = width / 20;
+        for (double i = 0; i <= width; i += spacing) {
+            surface.line(i, 0, i, height, Color.LIGHTGRAY, 0.2);
+            surface.line(0, i, width, i, Color.LIGHTGRAY, 0.2);
+        }
+    }
+
+    private void drawAxes(PlotSurface surface) {
+        surface.line(0, height, width, height, Color.BLACK, 1.0);
+        surface.line(0, 0, 0, height, Color.BLACK, 1.0);
+
+        double xSpacing = width / NUM_LABELS;
+        double ySpacing = height / NUM_LABELS;
+        for (int i = 0; i <= NUM_LABELS; i++) {
+            surface.text(xLabels[i], i * xSpacing, height - 5, Color.WHITE);
+            surface.text(yLabels[i], 5, height - (i * ySpacing), Color.WHITE);
+        }
+    }
+
+    public ScreenTransform transform() {
+        return transform;
+    }
+
+    public double width() {
+        return width;
+    }
+
+    public double height() {
+        return height;
+    }
+
+    public double maxX() {
+        return maxX;
+    }
+
+    public double maxY() {
+        return maxY;
+    }
+}
@@ -0,0 +1,17 @@
+package logic.render;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Minimal drawing target for plot backgrounds and trajectories, so the same layout code can paint
+ * a JavaFX canvas, an off-screen raster or an SVG document. Coordinates are screen pixels.
+ */
+public interface PlotSurface {
+
+    void line(double x1, double y1, double x2, double y2, Color color, double width);
+
+    // Label text at PlotLayout.LABEL_FONT_SIZE with its baseline at y
+    void text(String text, double x, double y, Color color);
+
+    void dot(double centerX, double centerY, double radius, Color color);
+}
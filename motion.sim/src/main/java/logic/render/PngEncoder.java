@@ -0,0 +1,87 @@
+package logic.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal PNG writer for opaque {@code TYPE_INT_RGB} images: unfiltered 8-bit RGB scanlines through a
+ * fast deflate level. Plots are mostly flat colour, so this compresses about as well as ImageIO's
+ * encoder at a fraction of the cost. One instance per thread; buffers are reused between images.
+ */
+final class PngEncoder {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunk = new byte[1 << 16];
+    private final byte[] header = new byte[13];
+    private final byte[] word = new byte[4];
+    private byte[] scanline = new byte[0];
+
+    void write(BufferedImage image, OutputStream out) throws IOException {
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) throw new IllegalArgumentException("Expected an RGB image.");
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+        out.write(SIGNATURE);
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; // Bit depth
+        header[9] = 2; // Colour type: RGB
+        header[10] = 0;
+        header[11] = 0;
+        header[12] = 0;
+        writeChunk(out, IHDR, header, 13);
+
+        int rowBytes = 1 + 3 * width;
+        if (scanline.length < rowBytes) scanline = new byte[rowBytes];
+        deflater.reset();
+        for (int y = 0; y < height; y++) {
+            scanline[0] = 0; // Filter: none
+            int offset = y * width;
+            for (int x = 0, i = 1; x < width; x++) {
+                int rgb = pixels[offset + x];
+                scanline[i++] = (byte) (rgb >> 16);
+                scanline[i++] = (byte) (rgb >> 8);
+                scanline[i++] = (byte) rgb;
+            }
+            deflater.setInput(scanline, 0, rowBytes);
+            while (!deflater.needsInput()) drain(out);
+        }
+        deflater.finish();
+        while (!deflater.finished()) drain(out);
+        writeChunk(out, IEND, chunk, 0);
+    }
+
+    private void drain(OutputStream out) throws IOException {
+        int length = deflater.deflate(chunk, 0, chunk.length);
+        if (length > 0) writeChunk(out, IDAT, chunk, length);
+    }
+
+    private void writeChunk(OutputStream out, byte[] type, byte[] data, int length) throws IOException {
+        putInt(word, 0, length);
+        out.write(word);
+        out.write(type);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        putInt(word, 0, (int) crc.getValue());
+        out.write(word);
+    }
+
+    private static void putInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
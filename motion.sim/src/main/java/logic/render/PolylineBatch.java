@@ -0,0 +1,102 @@
+package logic.render;
+
+import java.util.Arrays;
+
+/**
+ * Screen-space polylines ready to stroke, one run per overlay trajectory.
+ * Run arrays are kept between frames and only grow, so preparing a frame does not allocate once warmed up.
+ */
+public final class PolylineBatch {
+    private double[][] xs = new double[8][];
+    private double[][] ys = new double[8][];
+    private int[] sizes = new int[8];
+    private int[] ids = new int[8];
+    private int[] levels = new int[8];
+    private TrajectoryOverlay.Style[] styles = new TrajectoryOverlay.Style[8];
+    private int runCount;
+    private int vertexCount;
+    private long generation;
+
+    void reset(long generation) {
+        this.generation = generation;
+        Arrays.fill(styles, 0, runCount, null);
+        runCount = 0;
+        vertexCount = 0;
+    }
+
+    // Starts a run and returns its slot; the caller writes vertices with xsFor/ysFor and then calls endRun
+    int beginRun(int id, int level, TrajectoryOverlay.Style style, int maxVertices) {
+        if (runCount == ids.length) {
+            int capacity = runCount * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            styles = Arrays.copyOf(styles, capacity);
+        }
+        int run = runCount;
+        if (xs[run] == null || xs[run].length < maxVertices) {
+            int capacity = Math.max(maxVertices, 64);
+            xs[run] = new double[capacity];
+            ys[run] = new double[capacity];
+        }
+        ids[run] = id;
+        levels[run] = level;
+        styles[run] = style;
+        sizes[run] = 0;
+        return run;
+    }
+
+    double[] xsFor(int run) {
+        return xs[run];
+    }
+
+    double[] ysFor(int run) {
+        return ys[run];
+    }
+
+    void endRun(int run, int size) {
+        sizes[run] = size;
+        vertexCount += size;
+        runCount++;
+    }
+
+    public int runCount() {
+        return runCount;
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    public int id(int run) {
+        return ids[run];
+    }
+
+    // Level of detail the run was taken from
+    public int level(int run) {
+        return levels[run];
+    }
+
+    public TrajectoryOverlay.Style style(int run) {
+        return styles[run];
+    }
+
+    public int size(int run) {
+        return sizes[run];
+    }
+
+    // Screen x coordinates of the run; only the first size(run) entries are valid
+    public double[] xs(int run) {
+        return xs[run];
+    }
+
+    public double[] ys(int run) {
+        return ys[run];
+    }
+}
@@ -0,0 +1,90 @@
+package logic.render;
+
+import javafx.scene.paint.Color;
+
+import java.awt.BasicStroke;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * {@link PlotSurface} over an off-screen AWT image, for export without a JavaFX stage.
+ * The image and shape objects are reused from plot to plot. Dots are stamped from a pre-rendered
+ * antialiased sprite at whole-pixel positions, which is several times faster than filling an ellipse each.
+ */
+final class RasterPlotSurface implements PlotSurface {
+    private static final Font LABEL_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, (int) PlotLayout.LABEL_FONT_SIZE);
+
+    private final BufferedImage image;
+    private final Graphics2D graphics;
+    private final Line2D.Double line = new Line2D.Double();
+    private final Ellipse2D.Double ellipse = new Ellipse2D.Double();
+
+    // Last dot sprite; plots use one dot style, so a single entry is enough
+    private BufferedImage dotSprite;
+    private Color dotColor;
+    private double dotRadius;
+
+    RasterPlotSurface(int width, int height) {
+        this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        this.graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        graphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        graphics.setFont(LABEL_FONT);
+    }
+
+    void clear(Color background) {
+        graphics.setColor(awt(background));
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+    }
+
+    BufferedImage image() {
+        return image;
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2, Color color, double width) {
+        graphics.setColor(awt(color));
+        graphics.setStroke(new BasicStroke((float) width));
+        line.setLine(x1, y1, x2, y2);
+        graphics.draw(line);
+    }
+
+    @Override
+    public void text(String text, double x, double y, Color color) {
+        graphics.setColor(awt(color));
+        graphics.drawString(text, (float) x, (float) y);
+    }
+
+    @Override
+    public void dot(double centerX, double centerY, double radius, Color color) {
+        if (dotSprite == null || !color.equals(dotColor) || radius != dotRadius) {
+            dotSprite = renderDot(radius, color);
+            dotColor = color;
+            dotRadius = radius;
+        }
+        int half = dotSprite.getWidth() / 2;
+        graphics.drawImage(dotSprite, (int) Math.round(centerX) - half, (int) Math.round(centerY) - half, null);
+    }
+
+    private BufferedImage renderDot(double radius, Color color) {
+        int size = 2 * (int) Math.ceil(radius) + 3;
+        BufferedImage sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sprite.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(awt(color));
+        double center = size / 2; // Sprite pixel (half, half) starts at the dot centre
+        ellipse.setFrame(center - radius, center - radius, 2 * radius, 2 * radius);
+        g.fill(ellipse);
+        g.dispose();
+        return sprite;
+    }
+
+    static java.awt.Color awt(Color color) {
+        return new java.awt.Color((float) color.getRed(), (float) color.getGreen(), (float) color.getBlue(),
+                (float) color.getOpacity());
+    }
+}
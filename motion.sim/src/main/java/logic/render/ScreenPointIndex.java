@@ -0,0 +1,160 @@
+package logic.render;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over screen coordinates for nearest-point hover queries.
+ * <p>
+ * Each entry is a screen position tagged with an owner (which trajectory) and an index into that
+ * owner's samples. Cells are singly linked lists held in primitive arrays, so inserts are O(1) and a
+ * query only visits the cells overlapping the search radius. Points off the canvas are clamped into
+ * the border cells; distances are always measured on the real coordinates.
+ * <p>
+ * Dense runs put thousands of samples on the same pixel. An insert that lands on the same quarter
+ * pixel as the previous entry in its cell for the same owner replaces that entry's index instead of
+ * adding a new one, so the index grows with the drawn path length rather than the sample count.
+ */
+public final class ScreenPointIndex {
+    private static final double SNAP = 4; // Quarter-pixel grid for merging coincident samples
+
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHead;
+
+    private float[] xs;
+    private float[] ys;
+    private int[] owners;
+    private int[] indices;
+    private int[] next;
+    private int size;
+
+    // Set by the last successful query
+    private int foundOwner = -1;
+    private int foundIndex = -1;
+
+    public ScreenPointIndex(double width, double height, double cellSize) {
+        if (!(width > 0) || !(height > 0)) throw new IllegalArgumentException("Index area must be greater than zero.");
+        if (!(cellSize > 0)) throw new IllegalArgumentException("Cell size must be greater than zero.");
+        this.cellSize = cellSize;
+        this.columns = (int) Math.ceil(width / cellSize);
+        this.rows = (int) Math.ceil(height / cellSize);
+        this.cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+
+        int capacity = 256;
+        this.xs = new float[capacity];
+        this.ys = new float[capacity];
+        this.owners = new int[capacity];
+        this.indices = new int[capacity];
+        this.next = new int[capacity];
+    }
+
+    public void insert(double screenX, double screenY, int owner, int index) {
+        int cell = cellOf(screenX, screenY);
+        int head = cellHead[cell];
+        if (head >= 0 && owners[head] == owner
+                && Math.round(xs[head] * SNAP) == Math.round((float) screenX * SNAP)
+                && Math.round(ys[head] * SNAP) == Math.round((float) screenY * SNAP)) {
+            indices[head] = index;
+            return;
+        }
+
+        if (size == xs.length) grow();
+        xs[size] = (float) screenX;
+        ys[size] = (float) screenY;
+        owners[size] = owner;
+        indices[size] = index;
+        next[size] = head;
+        cellHead[cell] = size;
+        size++;
+    }
+
+    /**
+     * Finds the entry closest to the position within {@code radius}. On success the match is available
+     * from {@link #foundOwner()} and {@link #foundIndex()}; ties go to the most recently inserted entry.
+     *
+     * @return true if an entry lies within the radius
+     */
+    public boolean nearest(double screenX, double screenY, double radius) {
+        foundOwner = -1;
+        foundIndex = -1;
+        if (size == 0) return false;
+
+        int minColumn = column(screenX - radius);
+        int maxColumn = column(screenX + radius);
+        int minRow = row(screenY - radius);
+        int maxRow = row(screenY + radius);
+        double bestDistance = radius * radius;
+        int best = -1;
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                for (int e = cellHead[r * columns + c]; e >= 0; e = next[e]) {
+                    double dx = xs[e] - screenX;
+                    double dy = ys[e] - screenY;
+                    double distance = dx * dx + dy * dy;
+                    if (distance < bestDistance || (distance == bestDistance && e > best)) {
+                        best = e;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        if (best < 0) return false;
+        foundOwner = owners[best];
+        foundIndex = indices[best];
+        return true;
+    }
+
+    public int foundOwner() {
+        return foundOwner;
+    }
+
+    public int foundIndex() {
+        return foundIndex;
+    }
+
+    // Pre-sizes the entry arrays so inserts during a run do not grow them
+    public void ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            indices = Arrays.copyOf(indices, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cellOf(double screenX, double screenY) {
+        return row(screenY) * columns + column(screenX);
+    }
+
+    private int column(double screenX) {
+        int c = (int) Math.floor(screenX / cellSize);
+        return Math.max(0, Math.min(columns - 1, c));
+    }
+
+    private int row(double screenY) {
+        int r = (int) Math.floor(screenY / cellSize);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        indices = Arrays.copyOf(indices, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+}
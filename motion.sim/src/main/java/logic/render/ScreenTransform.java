@@ -0,0 +1,26 @@
+package logic.render;
+
+/**
+ * Immutable world-to-screen mapping, so render preparation on another thread sees one consistent scale.
+ * {@code originX, originY} is the world point at the bottom-left of the view (zero unless zoomed and panned).
+ * Screen y grows downwards from the bottom edge; results are rounded to 1/100 px like the rest of the view.
+ */
+public record ScreenTransform(double xScale, double yScale, double xPadding, double width, double height,
+                              double originX, double originY) {
+
+    public double x(double worldX) {
+        return Math.round(((worldX - originX) * xScale + xPadding) * 100.0) / 100.0;
+    }
+
+    public double y(double worldY) {
+        return Math.round((height - (worldY - originY) * yScale) * 100.0) / 100.0;
+    }
+
+    public double worldX(double screenX) {
+        return (screenX - xPadding) / xScale + originX;
+    }
+
+    public double worldY(double screenY) {
+        return (height - screenY) / yScale + originY;
+    }
+}
@@ -0,0 +1,96 @@
+package logic.render;
+
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link PlotSurface} that builds an SVG document in a reusable buffer.
+ * Numbers are written with two decimals by hand; String.format per coordinate dominated export time.
+ */
+final class SvgPlotSurface implements PlotSurface {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder svg = new StringBuilder(1 << 16);
+
+    void begin(int width, int height, Color background) {
+        svg.setLength(0);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width)
+                .append("\" height=\"").append(height).append("\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+                .append("\" font-family=\"sans-serif\" font-size=\"").append((int) PlotLayout.LABEL_FONT_SIZE).append("\">\n");
+        svg.append("<rect width=\"100%\" height=\"100%\" fill=\"");
+        appendHex(background);
+        svg.append("\"/>\n");
+    }
+
+    void end(Writer out) throws IOException {
+        svg.append("</svg>\n");
+        out.append(svg);
+    }
+
+    @Override
+    public void line(double x1, double y1, double x2, double y2, Color color, double width) {
+        svg.append("<line x1=\"");
+        appendFixed(x1);
+        svg.append("\" y1=\"");
+        appendFixed(y1);
+        svg.append("\" x2=\"");
+        appendFixed(x2);
+        svg.append("\" y2=\"");
+        appendFixed(y2);
+        svg.append("\" stroke=\"");
+        appendHex(color);
+        svg.append("\" stroke-width=\"");
+        appendFixed(width);
+        svg.append("\"/>\n");
+    }
+
+    @Override
+    public void text(String text, double x, double y, Color color) {
+        svg.append("<text x=\"");
+        appendFixed(x);
+        svg.append("\" y=\"");
+        appendFixed(y);
+        svg.append("\" fill=\"");
+        appendHex(color);
+        svg.append("\">").append(text).append("</text>\n");
+    }
+
+    @Override
+    public void dot(double centerX, double centerY, double radius, Color color) {
+        svg.append("<circle cx=\"");
+        appendFixed(centerX);
+        svg.append("\" cy=\"");
+        appendFixed(centerY);
+        svg.append("\" r=\"");
+        appendFixed(radius);
+        svg.append("\" fill=\"");
+        appendHex(color);
+        svg.append("\"/>\n");
+    }
+
+    private void appendFixed(double value) {
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            svg.append('-');
+            hundredths = -hundredths;
+        }
+        long fraction = hundredths % 100;
+        svg.append(hundredths / 100).append('.');
+        if (fraction < 10) svg.append('0');
+        svg.append(fraction);
+    }
+
+    private void appendHex(Color color) {
+        svg.append('#');
+        appendHexByte(color.getRed());
+        appendHexByte(color.getGreen());
+        appendHexByte(color.getBlue());
+    }
+
+    private void appendHexByte(double channel) {
+        int value = (int) Math.round(channel * 255);
+        svg.append(HEX[value >> 4]).append(HEX[value & 15]);
+    }
+}
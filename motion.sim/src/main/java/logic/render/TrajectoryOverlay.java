@@ -0,0 +1,112 @@
+package logic.render;
+
+import data.TrajectoryLod;
+import javafx.scene.paint.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of trajectories drawn together for comparison, each with its own style and visibility.
+ * Entries are identified by the id returned from {@link #add}; ids are dense and stay valid until {@link #clear()}.
+ * Listeners run on every change so the view can redraw.
+ */
+public final class TrajectoryOverlay {
+
+    public record Style(Color stroke, double lineWidth) {
+        public Style {
+            if (stroke == null) throw new IllegalArgumentException("Stroke colour is required.");
+            if (!(lineWidth > 0)) throw new IllegalArgumentException("Line width must be greater than zero.");
+        }
+
+        // Well-separated hues for consecutive entries (golden-angle steps around the colour wheel)
+        public static Style palette(int index) {
+            return new Style(Color.hsb((index * 137.508) % 360, 0.75, 0.9), 1.5);
+        }
+    }
+
+    private final List<TrajectoryLod> trajectories = new ArrayList<>();
+    private final List<Style> styles = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+    private boolean[] visible = new boolean[16];
+    private final List<Runnable> listeners = new ArrayList<>();
+
+    public int add(TrajectoryLod trajectory, String label) {
+        return add(trajectory, Style.palette(trajectories.size()), label);
+    }
+
+    public int add(TrajectoryLod trajectory, Style style, String label) {
+        if (trajectory == null || style == null) throw new IllegalArgumentException("Trajectory and style are required.");
+        int id = trajectories.size();
+        if (id == visible.length) visible = Arrays.copyOf(visible, id * 2);
+        trajectories.add(trajectory);
+        styles.add(style);
+        labels.add(label);
+        visible[id] = true;
+        fireChanged();
+        return id;
+    }
+
+    public int size() {
+        return trajectories.size();
+    }
+
+    public TrajectoryLod getTrajectory(int id) {
+        return trajectories.get(id);
+    }
+
+    public Style getStyle(int id) {
+        return styles.get(id);
+    }
+
+    public void setStyle(int id, Style style) {
+        if (style == null) throw new IllegalArgumentException("Style is required.");
+        styles.set(id, style);
+        fireChanged();
+    }
+
+    public String getLabel(int id) {
+        return labels.get(id);
+    }
+
+    public boolean isVisible(int id) {
+        checkId(id);
+        return visible[id];
+    }
+
+    public void setVisible(int id, boolean show) {
+        checkId(id);
+        if (visible[id] == show) return;
+        visible[id] = show;
+        fireChanged();
+    }
+
+    public int visibleCount() {
+        int count = 0;
+        for (int i = 0; i < trajectories.size(); i++) {
+            if (visible[i]) count++;
+        }
+        return count;
+    }
+
+    public void clear() {
+        if (trajectories.isEmpty()) return;
+        trajectories.clear();
+        styles.clear();
+        labels.clear();
+        fireChanged();
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= trajectories.size()) throw new IndexOutOfBoundsException("No overlay trajectory " + id);
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : listeners) listener.run();
+    }
+}
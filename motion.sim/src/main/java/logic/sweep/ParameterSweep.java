@@ -0,0 +1,126 @@
+package logic.sweep;
+
+import logic.kernel.TrajectoryKernel;
+import logic.kernel.TrajectoryKernels;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes range, maximum height and flight time for every cell of a {@link SweepGrid}
+ * with the closed-form vacuum solution, split across a {@link ForkJoinPool}.
+ * <p>
+ * Work is divided into ranges of about {@code cellsPerTask} cells, whatever the grid's shape, so a
+ * grid of many velocities and a single angle and gravity splits as well as a square one. Within a
+ * range, each stretch of a row of constant angle and gravity has its trig looked up once and its
+ * velocities handed to a {@link TrajectoryKernel} in one call.
+ * A sweep can be cancelled from any thread with {@link #cancel()}. Cancellation sticks until
+ * {@link #reset()}, so a cancel that lands before {@link #run} gets going still stops it: reset first,
+ * then hand the sweep to the thread that runs it.
+ */
+public class ParameterSweep {
+    private static final int DEFAULT_CELLS_PER_TASK = 16_384;
+
+    private final ForkJoinPool pool;
+    private final int cellsPerTask;
+    private final TrajectoryKernel kernel;
+    private volatile boolean cancelled;
+
+    public ParameterSweep() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CELLS_PER_TASK, TrajectoryKernels.preferred());
+    }
+
+    public ParameterSweep(ForkJoinPool pool, int cellsPerTask, TrajectoryKernel kernel) {
+        if (cellsPerTask <= 0) throw new IllegalArgumentException("Cells per task must be greater than zero.");
+        this.pool = pool;
+        this.cellsPerTask = cellsPerTask;
+        this.kernel = kernel;
+    }
+
+    public SweepResult run(SweepGrid grid) {
+        return run(grid, null, new SweepResult(grid));
+    }
+
+    public SweepResult run(SweepGrid grid, SweepProgressListener listener) {
+        return run(grid, listener, new SweepResult(grid));
+    }
+
+    /**
+     * Fills {@code result} and blocks until the sweep finishes or is cancelled.
+     */
+    public SweepResult run(SweepGrid grid, SweepProgressListener listener, SweepResult result) {
+        if (result.getGrid() != grid) throw new IllegalArgumentException("Result was created for a different grid.");
+        result.setComplete(false);
+
+        pool.invoke(new CellTask(grid, result, listener, new AtomicLong(), 0, grid.size()));
+
+        result.setComplete(!cancelled);
+        return result;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Clears a cancel so the sweep can run again
+    public void reset() {
+        cancelled = false;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @SuppressWarnings("serial") // Never serialised
+    private final class CellTask extends RecursiveAction {
+        private final SweepGrid grid;
+        private final SweepResult result;
+        private final SweepProgressListener listener;
+        private final AtomicLong completed;
+        private final int fromCell;
+        private final int toCell;
+
+        CellTask(SweepGrid grid, SweepResult result, SweepProgressListener listener, AtomicLong completed,
+                 int fromCell, int toCell) {
+            this.grid = grid;
+            this.result = result;
+            this.listener = listener;
+            this.completed = completed;
+            this.fromCell = fromCell;
+            this.toCell = toCell;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) return;
+            if (toCell - fromCell > cellsPerTask) {
+                int middle = (fromCell + toCell) >>> 1;
+                invokeAll(new CellTask(grid, result, listener, completed, fromCell, middle),
+                        new CellTask(grid, result, listener, completed, middle, toCell));
+                return;
+            }
+
+            int velocityCount = grid.velocityCount();
+            int angleCount = grid.angleCount();
+            double[] velocities = grid.velocityArray();
+            int cellsDone = 0;
+
+            // The range may start and end part way through a row; each row's part is one kernel call
+            for (int cell = fromCell; cell < toCell && !cancelled; ) {
+                int row = cell / velocityCount;
+                int from = cell - row * velocityCount;
+                int count = Math.min(velocityCount - from, toCell - cell);
+                int angleIndex = row % angleCount;
+                kernel.sweepRow(velocities, from, count, grid.sinAngle(angleIndex), grid.sinDoubleAngle(angleIndex),
+                        grid.gravity(row / angleCount), result.rangeArray(), result.maxHeightArray(),
+                        result.flightTimeArray(), cell);
+                cell += count;
+                cellsDone += count;
+            }
+
+            long done = completed.addAndGet(cellsDone);
+            if (listener != null) listener.onProgress(done, grid.size());
+        }
+    }
+}
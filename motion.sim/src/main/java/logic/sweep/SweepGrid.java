@@ -0,0 +1,102 @@
+package logic.sweep;
+
+/**
+ * The launch parameters of a sweep: every combination of velocity, angle (degrees) and gravity.
+ * Cell {@code (v, a, g)} is stored at index {@code (g * angleCount + a) * velocityCount + v},
+ * so velocity is the fastest-varying axis.
+ */
+public final class SweepGrid {
+    private final double[] velocities;
+    private final double[] anglesDegrees;
+    private final double[] gravities;
+
+    // Per-angle trig, shared by every cell in the row
+    private final double[] sinAngle;
+    private final double[] sinDoubleAngle;
+
+    private SweepGrid(double[] velocities, double[] anglesDegrees, double[] gravities) {
+        if (velocities.length == 0 || anglesDegrees.length == 0 || gravities.length == 0) {
+            throw new IllegalArgumentException("Every sweep axis needs at least one value.");
+        }
+        for (double gravity : gravities) {
+            if (!(gravity > 0)) throw new IllegalArgumentException("Gravity must be greater than zero.");
+        }
+        long cells = (long) velocities.length * anglesDegrees.length * gravities.length;
+        if (cells > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Sweep has too many cells: " + cells);
+
+        this.velocities = velocities.clone();
+        this.anglesDegrees = anglesDegrees.clone();
+        this.gravities = gravities.clone();
+        this.sinAngle = new double[anglesDegrees.length];
+        this.sinDoubleAngle = new double[anglesDegrees.length];
+        for (int i = 0; i < anglesDegrees.length; i++) {
+            double radians = Math.toRadians(anglesDegrees[i]);
+            sinAngle[i] = Math.sin(radians);
+            sinDoubleAngle[i] = Math.sin(2 * radians);
+        }
+    }
+
+    public static SweepGrid of(double[] velocities, double[] anglesDegrees, double[] gravities) {
+        return new SweepGrid(velocities, anglesDegrees, gravities);
+    }
+
+    // count evenly spaced values from min to max inclusive
+    public static double[] linspace(double min, double max, int count) {
+        if (count < 1) throw new IllegalArgumentException("Count must be at least one.");
+        double[] values = new double[count];
+        if (count == 1) {
+            values[0] = min;
+            return values;
+        }
+        double step = (max - min) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            values[i] = min + i * step;
+        }
+        return values;
+    }
+
+    public int size() {
+        return velocities.length * anglesDegrees.length * gravities.length;
+    }
+
+    public int index(int velocityIndex, int angleIndex, int gravityIndex) {
+        return (gravityIndex * anglesDegrees.length + angleIndex) * velocities.length + velocityIndex;
+    }
+
+    public int velocityCount() {
+        return velocities.length;
+    }
+
+    public int angleCount() {
+        return anglesDegrees.length;
+    }
+
+    public int gravityCount() {
+        return gravities.length;
+    }
+
+    public double velocity(int index) {
+        return velocities[index];
+    }
+
+    public double angle(int index) {
+        return anglesDegrees[index];
+    }
+
+    public double gravity(int index) {
+        return gravities[index];
+    }
+
+    // Shared array, must not be modified
+    double[] velocityArray() {
+        return velocities;
+    }
+
+    double sinAngle(int index) {
+        return sinAngle[index];
+    }
+
+    double sinDoubleAngle(int index) {
+        return sinDoubleAngle[index];
+    }
+}
@@ -0,0 +1,10 @@
+package logic.sweep;
+
+/**
+ * Receives sweep progress. Called from worker threads, so implementations must be thread-safe
+ * and should hand off to the UI thread themselves (e.g. {@code Platform.runLater}).
+ */
+@FunctionalInterface
+public interface SweepProgressListener {
+    void onProgress(long completedCells, long totalCells);
+}
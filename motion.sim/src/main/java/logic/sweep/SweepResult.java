@@ -0,0 +1,58 @@
+package logic.sweep;
+
+/**
+ * Sweep outputs as flat primitive arrays, indexed the same way as {@link SweepGrid}.
+ * A result can be passed back into {@link ParameterSweep#run} to reuse its arrays.
+ */
+public final class SweepResult {
+    private final SweepGrid grid;
+    private final double[] range;
+    private final double[] maxHeight;
+    private final double[] flightTime;
+    private volatile boolean complete;
+
+    public SweepResult(SweepGrid grid) {
+        this.grid = grid;
+        this.range = new double[grid.size()];
+        this.maxHeight = new double[grid.size()];
+        this.flightTime = new double[grid.size()];
+    }
+
+    public SweepGrid getGrid() {
+        return grid;
+    }
+
+    public double range(int velocityIndex, int angleIndex, int gravityIndex) {
+        return range[grid.index(velocityIndex, angleIndex, gravityIndex)];
+    }
+
+    public double maxHeight(int velocityIndex, int angleIndex, int gravityIndex) {
+        return maxHeight[grid.index(velocityIndex, angleIndex, gravityIndex)];
+    }
+
+    public double flightTime(int velocityIndex, int angleIndex, int gravityIndex) {
+        return flightTime[grid.index(velocityIndex, angleIndex, gravityIndex)];
+    }
+
+    // Backing arrays, for bulk consumers such as plotting or export
+    public double[] rangeArray() {
+        return range;
+    }
+
+    public double[] maxHeightArray() {
+        return maxHeight;
+    }
+
+    public double[] flightTimeArray() {
+        return flightTime;
+    }
+
+    // False if the sweep was cancelled, in which case some cells were never written
+    public boolean isComplete() {
+        return complete;
+    }
+
+    void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
@@ -6,7 +6,9 @@ module amarit.motionsim {
     requires org.controlsfx.controls;
     requires net.synedra.validatorfx;
 	requires java.desktop;
+	requires java.management;
 	requires com.google.gson;
+	requires static jdk.incubator.vector;
 
 	opens amarit.motionsim to javafx.fxml;
     opens data to com.google.gson;
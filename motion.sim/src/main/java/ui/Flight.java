@@ -0,0 +1,106 @@
+package ui;
+
+import data.TrajectoryBuffer;
+import logic.ForceModel;
+import logic.PhysicsEngine;
+import logic.SimulationClock;
+import logic.Visualiser;
+
+/**
+ * One launch as the animation plays it. Each {@link #frame} runs the physics steps the clock allows,
+ * keeps and draws every new sample, refreshes the statistics labels a few times a second and moves the
+ * projectile between the last two states. Buffers are sized when the flight is created, so frames
+ * allocate nothing.
+ */
+final class Flight {
+    // Statistics labels refresh at most this often; faster than this they are unreadable anyway
+    private static final long LABEL_INTERVAL_NANOS = 100_000_000L;
+
+    private final PhysicsEngine engine;
+    private final SimulationClock clock;
+    private final Visualiser visualiser;
+    private final PerformanceHud hud;
+    private final LabelText heightText;
+    private final LabelText velocityText;
+    private final LabelText timeText;
+
+    // Reused every step so the steady-state loop does not allocate
+    private final double[] state = new double[4];
+    private final TrajectoryBuffer captured;
+    private double previousX;
+    private double previousY;
+    private long lastLabelNanos;
+
+    Flight(PhysicsEngine engine, SimulationClock clock, Visualiser visualiser, PerformanceHud hud,
+           LabelText heightText, LabelText velocityText, LabelText timeText) {
+        this.engine = engine;
+        this.clock = clock;
+        this.visualiser = visualiser;
+        this.hud = hud;
+        this.heightText = heightText;
+        this.velocityText = velocityText;
+        this.timeText = timeText;
+
+        engine.stateAt(0, state);
+        previousX = state[ForceModel.X];
+        previousY = state[ForceModel.Y];
+
+        // Every sample the animation produces is kept, so landing does not recompute the flight
+        int samples = engine.getSampleCount();
+        captured = new TrajectoryBuffer(samples);
+        captured.add(previousX, previousY, 0, engine.getInitialVelocity());
+        visualiser.reserveLivePoints(samples);
+        visualiser.moveProjectile(previousX, previousY);
+    }
+
+    /**
+     * Plays the frame shown at {@code now} (nanoseconds, as an AnimationTimer gets them). Returns false
+     * once the projectile has landed, with the impact as the last captured sample and on the labels.
+     */
+    boolean frame(long now) {
+        // Physics advances in fixed 1 / fps steps however often frames arrive
+        int steps = clock.tick(now);
+        hud.addSteps(steps);
+        for (int i = 0; i < steps; i++) {
+            engine.updateTime();
+
+            if (engine.hasProjectileHitGround()) {
+                engine.addImpactSample(captured);
+                int last = captured.size() - 1;
+                showStatistics(captured.getY(last), captured.getVelocity(last), captured.getTime(last));
+                return false;
+            }
+
+            previousX = state[ForceModel.X];
+            previousY = state[ForceModel.Y];
+            double time = engine.getElapsedTime();
+            engine.stateAt(time, state);
+            double velocity = Math.sqrt(state[ForceModel.VX] * state[ForceModel.VX]
+                    + state[ForceModel.VY] * state[ForceModel.VY]);
+            captured.add(state[ForceModel.X], state[ForceModel.Y], time, velocity);
+            visualiser.drawPoint(state[ForceModel.X], state[ForceModel.Y], time, velocity, visualiser.getToolTip());
+        }
+        if (steps > 0 && now - lastLabelNanos >= LABEL_INTERVAL_NANOS) {
+            lastLabelNanos = now;
+            showStatistics(state[ForceModel.Y], captured.getVelocity(captured.size() - 1), engine.getElapsedTime());
+        }
+
+        // Render between the last two physics states by the fraction of a step left over
+        double alpha = clock.getAlpha();
+        double x = state[ForceModel.X];
+        double y = state[ForceModel.Y];
+        visualiser.moveProjectile(previousX + (x - previousX) * alpha, previousY + (y - previousY) * alpha);
+        return true;
+    }
+
+    // Every sample so far; after landing, the whole flight
+    TrajectoryBuffer getCapturedTrajectory() {
+        return captured;
+    }
+
+    private void showStatistics(double height, double velocity, double time) {
+        heightText.set(height);
+        velocityText.set(velocity);
+        timeText.set(time);
+    }
+}
@@ -0,0 +1,54 @@
+package ui;
+
+import java.util.function.Consumer;
+
+/**
+ * Writes "prefix value suffix" into a label from a reusable buffer. The value is formatted by hand
+ * with a fixed number of decimals, and the text is only handed to the label when the visible text
+ * actually changes. The label gets the buffer itself and must copy it, which for a JavaFX Label
+ * means one String per change.
+ */
+final class LabelText {
+    private final Consumer<CharSequence> label;
+    private final String prefix;
+    private final String suffix;
+    private final int decimals;
+    private final long scale;
+    private final StringBuilder text = new StringBuilder(32);
+    private long shown = Long.MIN_VALUE;
+
+    LabelText(Consumer<CharSequence> label, String prefix, int decimals, String suffix) {
+        this.label = label;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.decimals = decimals;
+        this.scale = (long) Math.pow(10, decimals);
+        text.append(prefix);
+    }
+
+    void set(double value) {
+        long scaled = Math.round(value * scale);
+        if (scaled == shown) return;
+        shown = scaled;
+
+        text.setLength(prefix.length());
+        if (scaled < 0) {
+            text.append('-');
+            scaled = -scaled;
+        }
+        text.append(scaled / scale);
+        if (decimals > 0) {
+            text.append('.');
+            long fraction = scaled % scale;
+            for (long digit = scale / 10; digit > fraction && digit > 1; digit /= 10) text.append('0');
+            text.append(fraction);
+        }
+        text.append(suffix);
+        label.accept(text);
+    }
+
+    // Forgets the shown value so the next set() always writes, e.g. after the label was reset elsewhere
+    void invalidate() {
+        shown = Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,100 @@
+package ui;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import logic.FrameRecorder;
+import logic.Visualiser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Frame-time and render-cost readout drawn over the visualiser.
+ * <p>
+ * While shown, its own {@link AnimationTimer} records every pulse into a {@link FrameRecorder}
+ * together with the physics steps the simulation reported since the last pulse, the hover layer's
+ * node count and the points painted since the last pulse. The text refreshes a few times a second.
+ * While hidden nothing is recorded, so the HUD costs nothing when off.
+ */
+final class PerformanceHud {
+    // JavaFX pulses at 60 Hz unless the platform says otherwise
+    private static final long PULSE_NANOS = 1_000_000_000L / 60;
+    private static final int CAPACITY = 60 * 60; // One minute of frames
+    private static final long REFRESH_NANOS = 250_000_000L;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private final Visualiser visualiser;
+    private final FrameRecorder recorder = new FrameRecorder(CAPACITY, PULSE_NANOS);
+    private Label label; // Built when first shown, so steps can be counted without a running toolkit
+    private final AnimationTimer timer;
+    private int pendingSteps;
+    private long lastRefresh;
+
+    PerformanceHud(Visualiser visualiser) {
+        this.visualiser = visualiser;
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                recorder.record(now, pendingSteps, visualiser.getHoverNodeCount(), visualiser.takePointsDrawn());
+                pendingSteps = 0;
+                if (now - lastRefresh >= REFRESH_NANOS) {
+                    lastRefresh = now;
+                    refresh();
+                }
+            }
+        };
+    }
+
+    Label getNode() {
+        if (label != null) return label;
+        label = new Label();
+        label.setStyle("-fx-font-family: monospace; -fx-font-size: 11px; -fx-text-fill: white;"
+                + " -fx-background-color: rgba(0, 0, 0, 0.6); -fx-padding: 4;");
+        label.setMouseTransparent(true);
+        label.setVisible(false);
+        label.setMaxSize(Label.USE_PREF_SIZE, Label.USE_PREF_SIZE);
+        StackPane.setAlignment(label, Pos.TOP_LEFT);
+        return label;
+    }
+
+    // Called by the simulation loop with the physics steps it ran this frame
+    void addSteps(int steps) {
+        pendingSteps += steps;
+    }
+
+    void toggle() {
+        boolean show = !getNode().isVisible();
+        label.setVisible(show);
+        if (show) {
+            recorder.reset();
+            pendingSteps = 0;
+            visualiser.takePointsDrawn(); // Drop what was painted while hidden
+            lastRefresh = 0;
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    // Writes the held frames to a timestamped CSV file in the directory and returns its path
+    Path saveCsv(Path directory) throws IOException {
+        Path file = directory.resolve("frames-" + System.currentTimeMillis() + ".csv");
+        recorder.writeCsv(file);
+        return file;
+    }
+
+    private void refresh() {
+        label.setText(String.format(
+                "frame p50 %.1f  p95 %.1f  p99 %.1f  max %.1f ms%n"
+                        + "dropped %d of %d frames%n"
+                        + "steps/frame %d  nodes %d  points %d%n"
+                        + "gc time %d ms  heap %.1f / %.1f MB",
+                recorder.percentile(50) / 1e6, recorder.percentile(95) / 1e6,
+                recorder.percentile(99) / 1e6, recorder.percentile(100) / 1e6,
+                recorder.getTotalDropped(), recorder.getTotalFrames(),
+                recorder.lastSteps(), recorder.lastNodes(), recorder.lastPoints(),
+                recorder.lastGcMillis(), recorder.lastHeapBytes() / MB, Runtime.getRuntime().totalMemory() / MB));
+    }
+}
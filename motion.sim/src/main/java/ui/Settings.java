@@ -11,6 +11,9 @@ import utils.ThemeManager;
 import utils.SettingsManager;
 
 public class Settings {
+    // Save tolerance when compression is on: samples may move by 0.1% of the graph size
+    private static final double COMPRESSED_SAVE_TOLERANCE = 0.001;
+
     private final Stage primaryStage;
 
     // Constructor to initialize the primary stage
@@ -41,6 +44,14 @@ public class Settings {
         ButtonStyling.applyButtonStyles(fpsToggleButton);
         fpsToggleButton.setOnAction(e -> toggleFPS(fpsToggleButton));
 
+        // Save Compression Toggle Button
+        Button compressionToggleButton = new Button(compressionText());
+        ButtonStyling.applyButtonStyles(compressionToggleButton);
+        compressionToggleButton.setOnAction(e -> {
+            SettingsManager.setSaveTolerance(SettingsManager.getSaveTolerance() > 0 ? 0 : COMPRESSED_SAVE_TOLERANCE);
+            compressionToggleButton.setText(compressionText());
+        });
+
         // Theme Toggle Button
         Button themeToggleButton = new Button("Theme: " + capitalize(SettingsManager.getTheme()));
         ButtonStyling.applyButtonStyles(themeToggleButton);
@@ -62,7 +73,7 @@ public class Settings {
         settingsRow.getStyleClass().add("hbox");
         settingsRow.setAlignment(javafx.geometry.Pos.CENTER);
 
-        VBox settingsLayout = new VBox(20, settingsRow, themeToggleButton, applyButton, backButton);
+        VBox settingsLayout = new VBox(20, settingsRow, themeToggleButton, compressionToggleButton, applyButton, backButton);
         settingsLayout.getStyleClass().add("vbox");
         settingsLayout.setAlignment(javafx.geometry.Pos.CENTER);
 
@@ -90,6 +101,10 @@ public class Settings {
         }
     }
 
+    private String compressionText() {
+        return "Compress Saved Graphs: " + (SettingsManager.getSaveTolerance() > 0 ? "On" : "Off");
+    }
+
     // Cycle through themes
     private void cycleTheme() {
         String currentTheme = SettingsManager.getTheme();
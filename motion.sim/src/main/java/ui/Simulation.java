@@ -2,6 +2,8 @@ package ui;
 
 import data.DataLogger;
 import data.GraphData;
+import data.GraphSummary;
+import data.RunIndex;
 import javafx.animation.AnimationTimer;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,13 +11,26 @@ import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
-import data.DataPoint;
+import javafx.util.StringConverter;
+import data.TrajectoryDecimator;
+import data.TrajectoryView;
 import logic.PhysicsEngine;
+import logic.SimulationClock;
 import logic.Visualiser;
+import logic.render.TrajectoryOverlay;
 import utils.MusicManager;
 import utils.SceneManager;
 import utils.SettingsManager;
 import utils.ThemeManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 public class Simulation {
@@ -24,15 +39,34 @@ public class Simulation {
     private boolean isRunning = false;
     private AnimationTimer animationTimer;
     private PhysicsEngine physicsEngine;
+    private SimulationClock clock;
+    private double timeScale = 1.0;
+    private Flight flight;
     private final Label heightLabel = createStyledLabel("Height: 0.0 m");
     private final Label velocityLabel = createStyledLabel("Velocity: 0.0 m/s");
     private final Label timeLabel = createStyledLabel("Time: 0.0 s");
+    private final LabelText heightText = new LabelText(text -> heightLabel.setText(text.toString()), "Height: ", 2, " m");
+    private final LabelText velocityText = new LabelText(text -> velocityLabel.setText(text.toString()), "Velocity: ", 2, " m/s");
+    private final LabelText timeText = new LabelText(text -> timeLabel.setText(text.toString()), "Time: ", 2, " s");
     private final DataLogger dataLogger;
     private final MusicManager musicManager;
+    private final PerformanceHud hud;
+
+    // Load Graph list: orders it can be shown in and entries per page
+    private static final String NEWEST_FIRST = "Newest first";
+    private static final String LONGEST_RANGE = "Longest range";
+    private static final String HIGHEST = "Highest";
+    private static final String FASTEST_LAUNCH = "Fastest launch";
+    private static final int GRAPHS_PER_PAGE = 100;
+    private static final DateTimeFormatter SAVED_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Physics steps run in one frame before the remaining backlog is dropped
+    private static final int MAX_STEPS_PER_FRAME = 8;
 
     public Simulation(Stage primaryStage) {
         this.primaryStage = primaryStage;
         this.visualiser = new Visualiser(850, 500);
+        this.hud = new PerformanceHud(visualiser);
         this.dataLogger = new DataLogger("src/main/resources/graphs");
         List<String> audioFiles = List.of("/audio/track.mp3");
         musicManager = new MusicManager(audioFiles);
@@ -40,7 +74,10 @@ public class Simulation {
 
     public Scene createSimulationScene() {
         StackPane visualiserBox = visualiser.createVisualiserBox();
+        visualiserBox.getChildren().add(hud.getNode());
         musicManager.play();
+        // Closing the window while here must still flush and close the journal
+        primaryStage.setOnCloseRequest(e -> dataLogger.close());
 
         Slider velocitySlider = createSlider(200, 0);
         TextField velocityTextField = createTextField("0");
@@ -107,10 +144,21 @@ public class Simulation {
             }
         });
 
+        ComboBox<String> speedDropdown = new ComboBox<>();
+        speedDropdown.getStyleClass().add("combo-box");
+        speedDropdown.getItems().addAll("0.25x", "0.5x", "1x", "2x", "4x");
+        speedDropdown.setValue("1x");
+        speedDropdown.setOnAction(e -> {
+            String value = speedDropdown.getValue();
+            timeScale = Double.parseDouble(value.substring(0, value.length() - 1));
+            if (clock != null) clock.setTimeScale(timeScale);
+        });
+
         VBox inputPanel = new VBox(10,
                 createLabeledInput("Initial Velocity", velocitySlider, velocityTextField),
                 createLabeledInput("Launch Angle", angleSlider, angleTextField),
-                createLabeledInput("Gravity (Planet)", gravityDropdown, customGravityField)
+                createLabeledInput("Gravity (Planet)", gravityDropdown, customGravityField),
+                createLabeledInput("Playback Speed", speedDropdown, new Label())
         );
         inputPanel.getStyleClass().add("vboxPadded");
 
@@ -120,11 +168,15 @@ public class Simulation {
         Button resetButton = createStyledButton("Reset");
         Button saveGraphButton = createStyledButton("Save Graph");
         Button loadGraphButton = createStyledButton("Load Graph");
+        Button overlaysButton = createStyledButton("Overlays");
         Button toggleGridButton = createStyledButton("Toggle Grid");
         Button toggleAxesButton = createStyledButton("Toggle Axes");
         Button toolTips = createStyledButton("Toggle ToolTips");
+        Button hudButton = createStyledButton("Toggle HUD");
+        Button frameLogButton = createStyledButton("Save Frame Log");
 
-        VBox toggle = new VBox(10, toggleGridButton, toggleAxesButton, toolTips, saveGraphButton, loadGraphButton);
+        VBox toggle = new VBox(10, toggleGridButton, toggleAxesButton, toolTips, saveGraphButton, loadGraphButton, overlaysButton,
+                hudButton, frameLogButton);
         inputPanel.getChildren().add(toggle);
 
         Button nextTrackButton = new Button("Next Track");
@@ -140,6 +192,9 @@ public class Simulation {
         toolTips.setOnAction(e -> visualiser.toggleToolTips());
         saveGraphButton.setOnAction(e -> saveGraph());
         loadGraphButton.setOnAction(e -> loadGraph());
+        overlaysButton.setOnAction(e -> showOverlays());
+        hudButton.setOnAction(e -> hud.toggle());
+        frameLogButton.setOnAction(e -> saveFrameLog());
 
 
         launchButton.setOnAction(e -> {
@@ -161,10 +216,13 @@ public class Simulation {
                 }
 
                 physicsEngine = new PhysicsEngine(velocity, angle, gravity, SettingsManager.getFPS());
+                clock = new SimulationClock(1.0 / SettingsManager.getFPS(), MAX_STEPS_PER_FRAME);
+                clock.setTimeScale(timeScale);
 
                 double maxRange = physicsEngine.calculateRange();
                 double maxHeight = physicsEngine.calculateMaxHeight();
                 visualiser.setMaxBounds(maxRange, maxHeight);
+                flight = new Flight(physicsEngine, clock, visualiser, hud, heightText, velocityText, timeText);
 
                 startAnimation();
             }
@@ -219,6 +277,8 @@ public class Simulation {
                         stopAnimation();
                     }
                 });
+            } else if (event.getCode() == KeyCode.H) {
+                hud.toggle();
             }
         });
 
@@ -226,32 +286,18 @@ public class Simulation {
     }
 
 	private void startAnimation() {
+		if (clock != null) clock.reset(); // Time spent paused is not simulated
 		animationTimer = new AnimationTimer() {
 			@Override
 			public void handle(long now) {
-                if (physicsEngine != null) {
-                    physicsEngine.updateTime();
-
-                    double x = physicsEngine.calculateX();
-                    double y = physicsEngine.calculateY();
-                    double time = physicsEngine.getElapsedTime();
-                    double velocity = physicsEngine.getCurrentVelocity();
-
-                    if (physicsEngine.hasProjectileHitGround()) {
-                        stopAnimation();
-                        isRunning = false;
-                        List<DataPoint> dataPoints = physicsEngine.calculateTrajectory();
-                        visualiser.addTrajectoryData(dataPoints);
-
-                    } else {
-
-                        DataPoint dataPoint = new DataPoint(x, y, time, velocity);
-                        double[] coords = visualiser.transformCoordinates(dataPoint);
+                if (flight == null || flight.frame(now)) return;
 
-                        visualiser.drawPoint(dataPoint, coords, visualiser.getToolTip());
-                        updateStatistics();
-                    }
-                }
+                // Landed: the captured flight replaces the streamed points
+                stopAnimation();
+                isRunning = false;
+                visualiser.hideProjectile();
+                visualiser.addTrajectoryData(flight.getCapturedTrajectory());
+                flight = null; // Play again must not step past the impact
             }
 		};
 		animationTimer.start();
@@ -264,24 +310,20 @@ public class Simulation {
         }
     }
 
-	private void updateStatistics() {
-		if (physicsEngine != null) {
-			heightLabel.setText(String.format("Height: %.2f m", physicsEngine.getCurrentHeight()));
-			velocityLabel.setText(String.format("Velocity: %.2f m/s", physicsEngine.getCurrentVelocity()));
-			timeLabel.setText(String.format("Time: %.2f s", physicsEngine.getElapsedTime()));
-		}
-	}
-
     private void saveGraph() {
         if (physicsEngine != null && !isRunning) {
-            List<DataPoint> trajectoryData = visualiser.getTrajectoryData();
+            TrajectoryView trajectoryData = visualiser.getTrajectoryData();
             if (trajectoryData == null || trajectoryData.isEmpty()) {
                 showAlert("No Data to Save", "Cannot save graph as no trajectory data is available.");
                 return;
             }
 
+            // Drop samples the graph cannot show, keeping every point within the save tolerance
+            double tolerance = SettingsManager.getSaveTolerance() * Math.max(visualiser.getMaxX(), visualiser.getMaxY());
+            TrajectoryView savedData = tolerance > 0 ? TrajectoryDecimator.decimate(trajectoryData, tolerance) : trajectoryData;
+
             GraphData graphData = new GraphData(
-                    visualiser.getTrajectoryData(),
+                    savedData,
                     visualiser.getMaxX(),
                     visualiser.getMaxY(),
                     physicsEngine.getLaunchAngle(),
@@ -294,10 +336,21 @@ public class Simulation {
         }
     }
 
+    private void saveFrameLog() {
+        try {
+            Path file = hud.saveCsv(Path.of("src/main/resources/logs"));
+            showConfirm("Frame Log Saved", "Frame timings written to " + file);
+        } catch (IOException e) {
+            System.err.println("Error writing frame log: " + e.getMessage());
+            showAlert("Frame Log Not Saved", "Could not write the frame log: " + e.getMessage());
+        }
+    }
+
     private void loadGraph() {
-        List<GraphData> savedGraphs = dataLogger.getSavedGraphs();
+        // Summaries only; a graph's trajectory is loaded when it is picked
+        int graphCount = dataLogger.getSummaries().size();
 
-        if (savedGraphs.isEmpty()) {
+        if (graphCount == 0) {
             showAlert("No Graphs Found", "There are no graphs saved to load.");
             return;
         }
@@ -305,13 +358,52 @@ public class Simulation {
         Stage loadStage = new Stage();
         loadStage.setTitle("Load Graph");
 
-        // Dropdown for selecting graphs
-        ComboBox<String> graphDropdown = new ComboBox<>();
+        // Order of the list, and one page of it at a time so a long history stays quick to scroll
+        ComboBox<String> orderDropdown = new ComboBox<>();
+        orderDropdown.getStyleClass().add("combo-box");
+        orderDropdown.getItems().addAll(NEWEST_FIRST, LONGEST_RANGE, HIGHEST, FASTEST_LAUNCH);
+        orderDropdown.setValue(NEWEST_FIRST);
+        int pageCount = (graphCount + GRAPHS_PER_PAGE - 1) / GRAPHS_PER_PAGE;
+        int[] page = {0};
+        Label pageLabel = createStyledLabel("");
+        Button newerButton = new Button("<");
+        Button olderButton = new Button(">");
+
+        // Dropdown for selecting graphs, each labelled with when it was saved and how it was launched
+        ComboBox<GraphSummary> graphDropdown = new ComboBox<>();
         graphDropdown.getStyleClass().add("combo-box"); // Apply CSS
-        for (int i = 0; i < savedGraphs.size(); i++) {
-            graphDropdown.getItems().add("Graph " + (i + 1));
-        }
-        graphDropdown.setValue("Select a Graph");
+        graphDropdown.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(GraphSummary summary) {
+                return summary == null ? "" : describeSavedGraph(summary);
+            }
+
+            @Override
+            public GraphSummary fromString(String text) {
+                return null; // Not editable
+            }
+        });
+        graphDropdown.setPromptText("Select a Graph");
+
+        Runnable showPage = () -> {
+            graphDropdown.getItems().setAll(savedGraphPage(orderDropdown.getValue(), page[0]));
+            pageLabel.setText("Page " + (page[0] + 1) + " of " + pageCount);
+            newerButton.setDisable(page[0] == 0);
+            olderButton.setDisable(page[0] == pageCount - 1);
+        };
+        orderDropdown.setOnAction(e -> {
+            page[0] = 0;
+            showPage.run();
+        });
+        newerButton.setOnAction(e -> {
+            page[0]--;
+            showPage.run();
+        });
+        olderButton.setOnAction(e -> {
+            page[0]++;
+            showPage.run();
+        });
+        showPage.run();
 
         // Labels for graph stats
         Label maxHeightLabel = createStyledLabel("Max Height: -");
@@ -327,51 +419,60 @@ public class Simulation {
 
         // Handle selection in dropdown
         graphDropdown.setOnAction(e -> {
-            int index = graphDropdown.getSelectionModel().getSelectedIndex();
-            if (index >= 0) {
-                GraphData selectedGraph = savedGraphs.get(index);
+            GraphSummary summary = graphDropdown.getValue();
+            if (summary != null) {
 
                 // Update labels with graph stats
-                maxHeightLabel.setText(String.format("Max Height: %.2f m", selectedGraph.maxY()));
-                rangeLabel.setText(String.format("Total Range: %.2f m", selectedGraph.maxX()));
-                angleLabel.setText(String.format("Launch Angle: %.1f°", selectedGraph.launchAngle()));
-                velocityLabel.setText(String.format("Initial Velocity: %.2f m/s", selectedGraph.initialVelocity()));
-                gravityLabel.setText(String.format("Gravity: %.2f m/s²", selectedGraph.gravity()));
+                maxHeightLabel.setText(String.format("Max Height: %.2f m", summary.maxHeight()));
+                rangeLabel.setText(String.format("Total Range: %.2f m", summary.range()));
+                angleLabel.setText(String.format("Launch Angle: %.1f°", summary.launchAngle()));
+                velocityLabel.setText(String.format("Initial Velocity: %.2f m/s", summary.initialVelocity()));
+                gravityLabel.setText(String.format("Gravity: %.2f m/s²", summary.gravity()));
+
+                GraphData selectedGraph = loadSavedGraph(summary);
+                if (selectedGraph == null) return;
 
                 // Update preview
                 previewVisualiser.setMaxBounds(selectedGraph.maxX(), selectedGraph.maxY());
                 previewVisualiser.redrawCanvas();
-                for (DataPoint point : selectedGraph.trajectoryData()) {
-                    double[] coords = previewVisualiser.transformCoordinates(point);
-                    previewVisualiser.drawLoaded(point, coords, false); // No tooltips in preview
-                }
+                previewVisualiser.drawLoadedTrajectory(selectedGraph.levelOfDetail(), false); // No tooltips in preview
             }
         });
 
         // Load Button
         Button loadButton = new Button("Load Graph");
         loadButton.setOnAction(e -> {
-            int index = graphDropdown.getSelectionModel().getSelectedIndex();
-            if (index >= 0) {
-                GraphData selectedGraph = savedGraphs.get(index);
-
+            GraphSummary summary = graphDropdown.getValue();
+            GraphData selectedGraph = summary != null ? loadSavedGraph(summary) : null;
+            if (selectedGraph != null) {
                 // Load the selected graph into the main visualiser
                 visualiser.setMaxBounds(selectedGraph.maxX(), selectedGraph.maxY());
                 visualiser.redrawCanvas();
-                for (DataPoint point : selectedGraph.trajectoryData()) {
-                    double[] coords = visualiser.transformCoordinates(point);
-                    visualiser.drawLoaded(point, coords, visualiser.getToolTip());
-                }
+                visualiser.drawLoadedTrajectory(selectedGraph.levelOfDetail(), visualiser.getToolTip());
 
                 loadStage.close();
                 showConfirm("Graph Loaded", "Graph loaded successfully!");
             }
         });
 
+        // Overlay Button: keep what is on screen and add the graph as a line for comparison
+        Button overlayButton = new Button("Add as Overlay");
+        overlayButton.setOnAction(e -> {
+            GraphSummary summary = graphDropdown.getValue();
+            GraphData selectedGraph = summary != null ? loadSavedGraph(summary) : null;
+            if (selectedGraph != null) {
+                visualiser.setMaxBounds(selectedGraph.maxX(), selectedGraph.maxY());
+                visualiser.getOverlay().add(selectedGraph.levelOfDetail(), selectedGraph.toString());
+                loadStage.close();
+            }
+        });
+
         // Layout for UI
-        VBox layout = new VBox(10, new Label("Select a Saved Graph:"), graphDropdown,
+        HBox pager = new HBox(10, orderDropdown, newerButton, pageLabel, olderButton);
+        pager.setAlignment(Pos.CENTER);
+        VBox layout = new VBox(10, new Label("Select a Saved Graph:"), pager, graphDropdown,
                 maxHeightLabel, rangeLabel, angleLabel, velocityLabel, gravityLabel,
-                previewPane, loadButton);
+                previewPane, new HBox(10, loadButton, overlayButton));
         layout.getStyleClass().add("vbox");
         layout.setAlignment(Pos.CENTER);
 
@@ -382,6 +483,83 @@ public class Simulation {
         loadStage.show();
     }
 
+    /**
+     * One page of the saved graphs in the chosen order. Newest first pages through the summaries;
+     * the ranked orders ask the run index for the top entries, or sort the summaries without one.
+     */
+    private List<GraphSummary> savedGraphPage(String order, int page) {
+        int from = page * GRAPHS_PER_PAGE;
+        int to = from + GRAPHS_PER_PAGE;
+        List<GraphSummary> graphs;
+        RunIndex.Key key = switch (order) {
+            case LONGEST_RANGE -> RunIndex.Key.RANGE;
+            case HIGHEST -> RunIndex.Key.MAX_HEIGHT;
+            case FASTEST_LAUNCH -> RunIndex.Key.INITIAL_VELOCITY;
+            default -> null;
+        };
+        RunIndex index = dataLogger.getRunIndex();
+        if (key != null && index != null) {
+            graphs = index.top(key, to);
+        } else {
+            graphs = new ArrayList<>(dataLogger.getSummaries());
+            Collections.reverse(graphs); // Stored oldest first
+            if (key != null) graphs.sort(Comparator.comparingDouble((GraphSummary summary) -> switch (key) {
+                case RANGE -> summary.range();
+                case MAX_HEIGHT -> summary.maxHeight();
+                default -> summary.initialVelocity();
+            }).reversed());
+        }
+        return from >= graphs.size() ? List.of() : graphs.subList(from, Math.min(to, graphs.size()));
+    }
+
+    private static String describeSavedGraph(GraphSummary summary) {
+        String savedAt = SAVED_AT_FORMAT.format(Instant.ofEpochMilli(summary.savedAt()).atZone(ZoneId.systemDefault()));
+        return String.format("%s  %.1f°  %.1f m/s  range %.1f m", savedAt, summary.launchAngle(),
+                summary.initialVelocity(), summary.range());
+    }
+
+    private GraphData loadSavedGraph(GraphSummary summary) {
+        GraphData graph = dataLogger.getGraph(summary.id());
+        if (graph == null) showAlert("Graph Not Available", "This graph could not be read from the saved history.");
+        return graph;
+    }
+
+    private void showOverlays() {
+        TrajectoryOverlay overlay = visualiser.getOverlay();
+        if (overlay.size() == 0) {
+            showAlert("No Overlays", "Use \"Add as Overlay\" when loading a graph to compare runs.");
+            return;
+        }
+
+        Stage overlayStage = new Stage();
+        overlayStage.setTitle("Overlays");
+
+        // One visibility toggle per overlaid trajectory, drawn in its line colour
+        VBox entries = new VBox(5);
+        for (int id = 0; id < overlay.size(); id++) {
+            int overlayId = id;
+            CheckBox visible = new CheckBox(overlay.getLabel(id));
+            visible.setSelected(overlay.isVisible(id));
+            visible.setTextFill(overlay.getStyle(id).stroke());
+            visible.selectedProperty().addListener((obs, oldValue, newValue) -> overlay.setVisible(overlayId, newValue));
+            entries.getChildren().add(visible);
+        }
+
+        Button clearButton = new Button("Clear Overlays");
+        clearButton.setOnAction(e -> {
+            overlay.clear();
+            overlayStage.close();
+        });
+
+        VBox layout = new VBox(10, new ScrollPane(entries), clearButton);
+        layout.getStyleClass().add("vbox");
+        layout.setAlignment(Pos.CENTER);
+
+        Scene overlayScene = new Scene(layout, 500, 400);
+        overlayScene.getStylesheets().add(getClass().getResource("/styles/default.css").toExternalForm());
+        overlayStage.setScene(overlayScene);
+        overlayStage.show();
+    }
 
     private Slider createSlider(double max, double value) {
 		Slider slider = new Slider(0, max, value);
@@ -425,6 +603,9 @@ public class Simulation {
 	}
 
 	private void goBackToMainMenu() {
+		stopAnimation();
+		primaryStage.setOnCloseRequest(null);
+		dataLogger.close(); // The next visit opens its own logger on the same files
 		SceneManager.removeScene(primaryStage.getScene());
 		MainMenu mainMenu = new MainMenu(primaryStage);
 		primaryStage.setScene(mainMenu.createMainMenuScene());
@@ -449,12 +630,16 @@ public class Simulation {
 		if (animationTimer != null) animationTimer.stop();
 
 		visualiser.resetScaling();
+        visualiser.hideProjectile();
         visualiser.clearTrajectoryData();
         visualiser.redrawCanvas();
 
 		heightLabel.setText("Height: 0.0 m");
 		velocityLabel.setText("Velocity: 0.0 m/s");
 		timeLabel.setText("Time: 0.0 s");
+		heightText.invalidate();
+		velocityText.invalidate();
+		timeText.invalidate();
 		System.out.println("Simulation reset to default values!");
 	}
 
@@ -474,4 +659,4 @@ public class Simulation {
         alert.showAndWait();
     }
 
-}
\ No newline at end of file
+}
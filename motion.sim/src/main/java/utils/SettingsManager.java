@@ -7,6 +7,7 @@ public class SettingsManager {
     private static int fps = 30;  // Default FPS value
     private static double volume = 0.5;  // Default volume value
     private static String theme = "default";  // Default theme value
+    private static double saveTolerance = 0;  // Allowed deviation of saved graphs, as a fraction of the graph size; off by default
 
     //Returns the current FPS value.
     public static int getFPS() {
@@ -38,4 +39,14 @@ public class SettingsManager {
         SettingsManager.theme = theme;
         ThemeManager.setTheme(theme);
     }
+
+    //Returns how far a saved trajectory may deviate from the original, as a fraction of the graph size.
+    public static double getSaveTolerance() {
+        return saveTolerance;
+    }
+
+    //Sets the save tolerance. Zero saves every sample.
+    public static void setSaveTolerance(double saveTolerance) {
+        SettingsManager.saveTolerance = saveTolerance;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GraphFileTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void doubleRecordsRoundTripExactly() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		List<GraphData> graphs = List.of(graph(1, 50), graph(2, 0), graph(3, 1000));
+		GraphFile.write(graphs, file, GraphFile.Precision.DOUBLE);
+
+		GraphFile.Contents contents = GraphFile.read(file);
+		assertEquals(Files.size(file), contents.validBytes());
+		assertEquals(3, contents.graphs().size());
+		for (int i = 0; i < graphs.size(); i++) assertSameGraph(graphs.get(i), contents.graphs().get(i), 0);
+	}
+
+	@Test
+	void floatRecordsRoundTripToFloatPrecision() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		GraphData graph = graph(7, 200);
+		GraphFile.write(List.of(graph), file, GraphFile.Precision.FLOAT);
+
+		assertSameGraph(graph, GraphFile.read(file).graphs().get(0), 1e-3);
+	}
+
+	@Test
+	void headerHoldsTheSummary() {
+		GraphData graph = graph(4, 300);
+		ByteBuffer record = GraphFile.encode(graph, GraphFile.Precision.DOUBLE, 12, 1_700_000_000_000L);
+
+		GraphSummary expected = GraphSummary.of(12, 1_700_000_000_000L, graph, record.capacity());
+		assertEquals(expected, GraphFile.summary(record, 12, record.capacity()));
+		assertNull(GraphFile.summary(versionTwo(graph, 12), 12, 0));
+	}
+
+	@Test
+	void truncatedRecordIsDroppedWithEverythingAfterIt() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		GraphFile.write(List.of(graph(1, 100), graph(2, 100), graph(3, 100)), file, GraphFile.Precision.DOUBLE);
+		long size = Files.size(file);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.truncate(size - 40);
+		}
+
+		GraphFile.Contents contents = GraphFile.read(file);
+		assertEquals(2, contents.graphs().size());
+		assertEquals(size / 3 * 2, contents.validBytes());
+		assertSameGraph(graph(2, 100), contents.graphs().get(1), 0);
+	}
+
+	@Test
+	void checksumMismatchStopsTheScan() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		GraphFile.write(List.of(graph(1, 100), graph(2, 100), graph(3, 100)), file, GraphFile.Precision.DOUBLE);
+		long recordBytes = Files.size(file) / 3;
+		// One flipped bit in the second record's y column
+		flipBit(file, recordBytes + GraphFile.SUMMARY_HEADER_BYTES + 100 * Double.BYTES + 3);
+
+		GraphFile.Contents contents = GraphFile.read(file);
+		assertEquals(1, contents.graphs().size());
+		assertEquals(recordBytes, contents.validBytes());
+	}
+
+	@Test
+	void badMagicStopsTheScan() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		GraphFile.write(List.of(graph(1, 10), graph(2, 10)), file, GraphFile.Precision.DOUBLE);
+		flipBit(file, Files.size(file) / 2);
+
+		assertEquals(1, GraphFile.read(file).graphs().size());
+	}
+
+	@Test
+	void versionOneAndTwoRecordsAreStillRead() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		GraphData first = graph(1, 40);
+		GraphData second = graph(2, 60);
+		GraphData third = graph(3, 80);
+		ByteBuffer current = GraphFile.encode(third, GraphFile.Precision.DOUBLE, 3, 0);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			write(channel, versionOne(first));
+			write(channel, versionTwo(second, 2));
+			write(channel, current);
+		}
+
+		List<GraphData> graphs = GraphFile.read(file).graphs();
+		assertEquals(3, graphs.size());
+		assertSameGraph(first, graphs.get(0), 0);
+		assertSameGraph(second, graphs.get(1), 0);
+		assertSameGraph(third, graphs.get(2), 0);
+	}
+
+	@Test
+	void tombstoneRemovesTheGraphItNames() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			write(channel, GraphFile.encode(graph(1, 20), GraphFile.Precision.DOUBLE, 1, 0));
+			write(channel, GraphFile.encode(graph(2, 20), GraphFile.Precision.DOUBLE, 2, 0));
+			write(channel, GraphFile.tombstone(1));
+		}
+
+		List<GraphData> graphs = GraphFile.read(file).graphs();
+		assertEquals(1, graphs.size());
+		assertSameGraph(graph(2, 20), graphs.get(0), 0);
+	}
+
+	// A parabola-like flight whose values differ per seed, so mixed-up records show
+	static GraphData graph(int seed, int samples) {
+		TrajectoryBuffer data = new TrajectoryBuffer(samples);
+		for (int i = 0; i < samples; i++) {
+			double t = i * 0.01;
+			data.add(seed * 10 * t, seed * 10 * t - 4.9 * t * t, t, seed * 10 + 0.5 * i);
+		}
+		return new GraphData(data, seed * 100, seed * 5, 30 + seed, seed * 10, 9.81);
+	}
+
+	static void assertSameGraph(GraphData expected, GraphData actual, double tolerance) {
+		assertEquals(expected.maxX(), actual.maxX());
+		assertEquals(expected.maxY(), actual.maxY());
+		assertEquals(expected.launchAngle(), actual.launchAngle());
+		assertEquals(expected.initialVelocity(), actual.initialVelocity());
+		assertEquals(expected.gravity(), actual.gravity());
+		TrajectoryView want = expected.trajectoryData();
+		TrajectoryView got = actual.trajectoryData();
+		assertEquals(want.size(), got.size());
+		for (int i = 0; i < want.size(); i++) {
+			assertEquals(want.getX(i), got.getX(i), tolerance * Math.max(1, Math.abs(want.getX(i))));
+			assertEquals(want.getY(i), got.getY(i), tolerance * Math.max(1, Math.abs(want.getY(i))));
+			assertEquals(want.getTime(i), got.getTime(i), tolerance * Math.max(1, Math.abs(want.getTime(i))));
+			assertEquals(want.getVelocity(i), got.getVelocity(i), tolerance * Math.max(1, Math.abs(want.getVelocity(i))));
+		}
+	}
+
+	// The graph as the first format wrote it: a 64-byte header with no id or checksum
+	static ByteBuffer versionOne(GraphData graph) {
+		ByteBuffer record = withShortHeader(graph, 0);
+		record.putShort(4, GraphFile.VERSION_UNCHECKED);
+		return record;
+	}
+
+	// The graph as version 2 wrote it: a 64-byte header with id and checksum but no summary
+	static ByteBuffer versionTwo(GraphData graph, long id) {
+		ByteBuffer record = withShortHeader(graph, id);
+		record.putShort(4, GraphFile.VERSION_UNSUMMARISED);
+		record.putInt(12, GraphFile.checksum(record));
+		return record;
+	}
+
+	private static ByteBuffer withShortHeader(GraphData graph, long id) {
+		ByteBuffer current = GraphFile.encode(graph, GraphFile.Precision.DOUBLE, id, 0);
+		int shift = GraphFile.SUMMARY_HEADER_BYTES - GraphFile.HEADER_BYTES;
+		ByteBuffer record = ByteBuffer.allocate(current.capacity() - shift).order(ByteOrder.LITTLE_ENDIAN);
+		record.put(current.slice(0, GraphFile.HEADER_BYTES));
+		record.put(current.slice(GraphFile.SUMMARY_HEADER_BYTES, current.capacity() - GraphFile.SUMMARY_HEADER_BYTES));
+		record.putInt(12, 0);
+		return record.clear();
+	}
+
+	static void write(FileChannel channel, ByteBuffer record) throws IOException {
+		ByteBuffer bytes = record.duplicate().clear();
+		while (bytes.hasRemaining()) channel.write(bytes);
+	}
+
+	static void flipBit(Path file, long position) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer one = ByteBuffer.allocate(1);
+			channel.read(one, position);
+			one.put(0, (byte) (one.get(0) ^ 1)).clear();
+			channel.write(one, position);
+		}
+	}
+}
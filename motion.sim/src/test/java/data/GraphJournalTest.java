@@ -0,0 +1,145 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static data.GraphFileTest.assertSameGraph;
+import static data.GraphFileTest.graph;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphJournalTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void graphsSurviveReopening() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (GraphJournal journal = open(file)) {
+			assertEquals(1, journal.append(graph(1, 100), 1000));
+			assertEquals(2, journal.append(graph(2, 100), 2000));
+		}
+		try (GraphJournal journal = open(file)) {
+			assertEquals(List.of(1L, 2L), journal.ids());
+			assertSameGraph(graph(2, 100), journal.get(2), 0);
+			assertEquals(GraphSummary.of(2, 2000, graph(2, 100), journal.recordBytes(2)), journal.summary(2));
+			assertEquals(3, journal.append(graph(3, 10), 3000)); // Ids carry on after a reopen
+		}
+	}
+
+	@Test
+	void removedGraphStaysRemovedAfterReopening() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (GraphJournal journal = open(file)) {
+			journal.append(graph(1, 50), 0);
+			journal.append(graph(2, 50), 0);
+			assertTrue(journal.remove(1));
+			assertFalse(journal.remove(1));
+			assertNull(journal.get(1));
+		}
+		try (GraphJournal journal = open(file)) {
+			assertEquals(List.of(2L), journal.ids());
+			assertTrue(journal.getDeadBytes() > 0);
+		}
+	}
+
+	@Test
+	void compactionDropsRemovedGraphsAndKeepsTheRest() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (GraphJournal journal = open(file)) {
+			for (int seed = 1; seed <= 6; seed++) journal.append(graph(seed, 1000), seed);
+			journal.remove(2);
+			journal.remove(5);
+			long before = journal.getFileBytes();
+			journal.compact();
+
+			assertEquals(0, journal.getDeadBytes());
+			assertTrue(journal.getFileBytes() < before);
+			assertEquals(List.of(1L, 3L, 4L, 6L), journal.ids());
+			for (long id : journal.ids()) assertSameGraph(graph((int) id, 1000), journal.get(id), 0);
+			journal.append(graph(7, 10), 7); // Appends go on after the compacted records
+		}
+		try (GraphJournal journal = open(file)) {
+			assertEquals(List.of(1L, 3L, 4L, 6L, 7L), journal.ids());
+			assertSameGraph(graph(6, 1000), journal.get(6), 0);
+			assertEquals(6, journal.summary(6).savedAt());
+		}
+		assertFalse(Files.exists(directory.resolve("graphs.bin.compact")));
+	}
+
+	@Test
+	void recoveryDiscardsATornAppend() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (GraphJournal journal = open(file)) {
+			journal.append(graph(1, 100), 0);
+			journal.append(graph(2, 100), 0);
+		}
+		long validBytes = Files.size(file);
+		// Half a record, as if the program died while appending
+		ByteBuffer record = GraphFile.encode(graph(3, 100), GraphFile.Precision.DOUBLE, 3, 0);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			GraphFileTest.write(channel, record.slice(0, record.capacity() / 2));
+		}
+		Files.deleteIfExists(directory.resolve("graphs.bin.verified"));
+
+		try (GraphJournal journal = open(file)) {
+			assertEquals(List.of(1L, 2L), journal.ids());
+			assertEquals(validBytes, journal.getFileBytes());
+			assertTrue(Files.exists(directory.resolve("graphs.bin.bak")));
+			journal.append(graph(3, 100), 0);
+		}
+		try (GraphJournal journal = open(file)) {
+			assertSameGraph(graph(3, 100), journal.get(3), 0);
+		}
+	}
+
+	@Test
+	void versionOneRecordsGetIdsAndAreUpgradedByCompaction() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			GraphFileTest.write(channel, GraphFileTest.versionOne(graph(1, 30)));
+			GraphFileTest.write(channel, GraphFileTest.versionOne(graph(2, 30)));
+		}
+		try (GraphJournal journal = open(file)) {
+			assertEquals(List.of(1L, 2L), journal.ids());
+			assertNull(journal.summary(1)); // Too old to hold one
+			journal.compact();
+			assertEquals(1L, journal.summary(1).id());
+		}
+		ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(GraphFile.VERSION, header.getShort(4));
+		try (GraphJournal journal = open(file)) {
+			assertSameGraph(graph(1, 30), journal.get(1), 0);
+			assertSameGraph(graph(2, 30), journal.get(2), 0);
+		}
+	}
+
+	@Test
+	void closeLeavesAVerifiedMarkThatTheNextOpenConsumes() throws IOException {
+		Path file = directory.resolve("graphs.bin");
+		Path mark = directory.resolve("graphs.bin.verified");
+		try (GraphJournal journal = new GraphJournal(file, GraphJournal.SyncPolicy.PERIODIC, GraphFile.Precision.DOUBLE)) {
+			journal.append(graph(1, 10), 0);
+		}
+		assertTrue(Files.exists(mark));
+		try (GraphJournal journal = open(file)) {
+			assertFalse(Files.exists(mark)); // Only valid until the file next changes
+			assertEquals(1, journal.size());
+		}
+	}
+
+	private static GraphJournal open(Path file) throws IOException {
+		return new GraphJournal(file, GraphJournal.SyncPolicy.NEVER, GraphFile.Precision.DOUBLE);
+	}
+}
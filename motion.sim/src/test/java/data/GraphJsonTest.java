@@ -0,0 +1,95 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static data.GraphFileTest.assertSameGraph;
+import static data.GraphFileTest.graph;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphJsonTest {
+	@TempDir
+	Path directory;
+
+	@Test
+	void graphsRoundTripExactly() throws IOException {
+		List<GraphData> graphs = List.of(graph(1, 100), graph(2, 0), graph(3, 7));
+		StringWriter out = new StringWriter();
+		try (GraphJsonWriter writer = new GraphJsonWriter(out)) {
+			for (GraphData graph : graphs) writer.write(graph);
+			writer.finish();
+			assertEquals(3, writer.getCount());
+		}
+
+		List<GraphData> read = readAll(out.toString());
+		assertEquals(graphs.size(), read.size());
+		for (int i = 0; i < graphs.size(); i++) assertSameGraph(graphs.get(i), read.get(i), 0);
+	}
+
+	@Test
+	void nullIsAnEmptyList() throws IOException {
+		assertTrue(readAll("null").isEmpty());
+		assertTrue(readAll("[]").isEmpty());
+	}
+
+	@Test
+	void unfinishedOutputIsRejected() throws IOException {
+		StringWriter out = new StringWriter();
+		try (GraphJsonWriter writer = new GraphJsonWriter(out)) {
+			writer.write(graph(1, 10));
+			// No finish(), as after a failure part way through an export
+		}
+		assertThrows(UncheckedIOException.class, () -> readAll(out.toString()));
+	}
+
+	@Test
+	void exportImportsIntoAnotherHistory() throws IOException {
+		DataLogger source = new DataLogger(directory.resolve("source").toString());
+		for (int seed = 1; seed <= 3; seed++) source.saveGraph(graph(seed, 50));
+		Path json = directory.resolve("export.json");
+		assertEquals(3, source.exportJson(json));
+		source.close();
+		assertFalse(Files.exists(directory.resolve("export.json.tmp")));
+
+		DataLogger target = new DataLogger(directory.resolve("target").toString());
+		assertEquals(3, target.importJson(json));
+		List<GraphSummary> summaries = target.getSummaries();
+		for (int i = 0; i < 3; i++) assertSameGraph(graph(i + 1, 50), target.getGraph(summaries.get(i).id()), 0);
+		target.close();
+	}
+
+	@Test
+	void failedExportLeavesTheTargetAlone() throws IOException {
+		DataLogger logger = new DataLogger(directory.resolve("history").toString());
+		logger.saveGraph(graph(1, 10));
+		// A non-empty directory cannot be replaced by the finished export
+		Path target = directory.resolve("export.json");
+		Files.createDirectories(target);
+		Files.writeString(target.resolve("keep.txt"), "earlier");
+
+		assertThrows(IOException.class, () -> logger.exportJson(target));
+		assertEquals("earlier", Files.readString(target.resolve("keep.txt")));
+		assertFalse(Files.exists(directory.resolve("export.json.tmp")));
+		logger.close();
+	}
+
+	private static List<GraphData> readAll(String json) throws IOException {
+		List<GraphData> graphs = new ArrayList<>();
+		try (GraphJsonReader reader = new GraphJsonReader(new StringReader(json))) {
+			reader.forEachRemaining(graphs::add);
+		}
+		return graphs;
+	}
+}
@@ -0,0 +1,156 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunIndexTest {
+	private static final int RUNS = 2000;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void queriesMatchAScanOfEveryRun() throws IOException {
+		List<GraphSummary> live = new ArrayList<>();
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			fill(index, live);
+			assertQueriesMatch(index, live);
+		}
+	}
+
+	@Test
+	void rowsAndRemovalsSurviveReopening() throws IOException {
+		List<GraphSummary> live = new ArrayList<>();
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			fill(index, live);
+		}
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			assertEquals(live, index.all());
+			assertEquals(RUNS, index.lastId());
+			assertQueriesMatch(index, live);
+		}
+	}
+
+	@Test
+	void tornLastRowIsDropped() throws IOException {
+		List<GraphSummary> live = new ArrayList<>();
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			fill(index, live);
+		}
+		try (FileChannel rows = FileChannel.open(directory.resolve("graphs.idx"), StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			rows.write(ByteBuffer.allocate(20)); // Part of a row, as if the program died while adding it
+		}
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			assertEquals(live, index.all());
+			GraphSummary next = summary(RUNS + 1, new SplittableRandom(1));
+			index.add(next);
+			assertEquals(next, index.get(RUNS + 1));
+		}
+	}
+
+	@Test
+	void idsMustIncrease() throws IOException {
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			index.add(summary(5, new SplittableRandom(1)));
+			assertThrows(IllegalArgumentException.class, () -> index.add(summary(5, new SplittableRandom(2))));
+		}
+	}
+
+	@Test
+	void clearDropsEveryRun() throws IOException {
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			fill(index, new ArrayList<>());
+			index.clear();
+			assertEquals(0, index.size());
+			assertEquals(0, index.lastId());
+			assertTrue(index.top(RunIndex.Key.RANGE, 10).isEmpty());
+		}
+		try (RunIndex index = new RunIndex(directory, "graphs")) {
+			assertEquals(0, index.size());
+		}
+	}
+
+	// Adds RUNS summaries and removes every third, keeping what should be live in order
+	private static void fill(RunIndex index, List<GraphSummary> live) throws IOException {
+		SplittableRandom random = new SplittableRandom(42);
+		for (int id = 1; id <= RUNS; id++) {
+			GraphSummary summary = summary(id, random);
+			index.add(summary);
+			live.add(summary);
+		}
+		for (int id = 3; id <= RUNS; id += 3) {
+			assertTrue(index.remove(id));
+			assertFalse(index.remove(id));
+			assertNull(index.get(id));
+		}
+		live.removeIf(summary -> summary.id() % 3 == 0);
+		assertEquals(live.size(), index.size());
+	}
+
+	private static GraphSummary summary(long id, SplittableRandom random) {
+		// Coarse values so that ties are common
+		return new GraphSummary(id, 1_000 * id, random.nextInt(90), random.nextInt(50), random.nextInt(3) + 1,
+				random.nextInt(400), random.nextDouble(100), 1000 + id);
+	}
+
+	private static void assertQueriesMatch(RunIndex index, List<GraphSummary> live) {
+		for (RunIndex.Key key : RunIndex.Key.values()) {
+			ToDoubleFunction<GraphSummary> value = valueOf(key);
+
+			List<GraphSummary> inRange = index.range(key, 10, 30);
+			List<Long> expected = live.stream().filter(s -> value.applyAsDouble(s) >= 10 && value.applyAsDouble(s) <= 30)
+					.map(GraphSummary::id).sorted().toList();
+			assertEquals(expected, inRange.stream().map(GraphSummary::id).sorted().toList());
+			for (int i = 1; i < inRange.size(); i++) {
+				assertTrue(value.applyAsDouble(inRange.get(i - 1)) <= value.applyAsDouble(inRange.get(i)));
+			}
+			assertTrue(index.estimate(key, 10, 30) >= inRange.size());
+
+			assertEquals(topValues(live, value, 25), index.top(key, 25).stream().map(value::applyAsDouble).toList());
+
+			// Gravity is only 1, 2 or 3, so this filter also takes the walk-the-sort-key path
+			for (double gravity = 1; gravity <= 3; gravity++) {
+				double g = gravity;
+				List<GraphSummary> filtered = live.stream().filter(s -> s.gravity() == g).toList();
+				assertEquals(topValues(filtered, value, 25),
+						index.top(key, 25, RunIndex.Key.GRAVITY, g, g).stream().map(value::applyAsDouble).toList());
+			}
+			// A narrow filter takes the select-from-the-filter-range path
+			List<GraphSummary> narrow = live.stream().filter(s -> s.launchAngle() == 45).toList();
+			assertEquals(topValues(narrow, value, 5),
+					index.top(key, 5, RunIndex.Key.LAUNCH_ANGLE, 45, 45).stream().map(value::applyAsDouble).toList());
+		}
+	}
+
+	private static List<Double> topValues(List<GraphSummary> runs, ToDoubleFunction<GraphSummary> value, int k) {
+		return runs.stream().map(value::applyAsDouble).sorted(Comparator.reverseOrder()).limit(k).toList();
+	}
+
+	private static ToDoubleFunction<GraphSummary> valueOf(RunIndex.Key key) {
+		return switch (key) {
+			case LAUNCH_ANGLE -> GraphSummary::launchAngle;
+			case INITIAL_VELOCITY -> GraphSummary::initialVelocity;
+			case GRAVITY -> GraphSummary::gravity;
+			case RANGE -> GraphSummary::range;
+			case MAX_HEIGHT -> GraphSummary::maxHeight;
+		};
+	}
+}
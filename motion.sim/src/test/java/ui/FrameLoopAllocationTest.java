@@ -0,0 +1,124 @@
+package ui;
+
+import javafx.scene.paint.Color;
+import logic.PhysicsEngine;
+import logic.SimulationClock;
+import logic.Visualiser;
+import logic.forces.AerodynamicDrag;
+import logic.forces.Wind;
+import logic.render.PlotSurface;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The frames of a flight must not allocate once it is launched. Each frame is played through
+ * {@link Flight#frame} as Simulation's animation timer plays it: clock tick, physics steps, state read,
+ * capture, Visualiser.drawPoint into the live layer and hover index, the HUD's step count, the statistics
+ * labels and the projectile marker. Points are painted onto a counting stand-in surface and label text
+ * goes to a stand-in label, so no JavaFX toolkit is needed. Allocation is measured with the thread
+ * allocation counter of {@code com.sun.management.ThreadMXBean}, looked up reflectively because the
+ * module does not read jdk.management.
+ */
+class FrameLoopAllocationTest {
+    private static final int FPS = 60;
+    private static final long FRAME_NANOS = 16_666_667;
+    private static final int WARM_UP_RUNS = 200;
+
+    private static final MethodHandle ALLOCATED_BYTES = allocatedBytesHandle();
+    private static final Object THREADS = ManagementFactory.getThreadMXBean();
+
+    private final CountingSurface points = new CountingSurface();
+    // Overlay hand-overs are dropped; there is no FX thread and no overlay to show
+    private final Visualiser visualiser = new Visualiser(850, 500, points, task -> { });
+    private final PerformanceHud hud = new PerformanceHud(visualiser);
+    private final int[] labelWrites = new int[1];
+    private final LabelText heightText = new LabelText(text -> labelWrites[0]++, "Height: ", 2, " m");
+    private final LabelText velocityText = new LabelText(text -> labelWrites[0]++, "Velocity: ", 2, " m/s");
+    private final LabelText timeText = new LabelText(text -> labelWrites[0]++, "Time: ", 2, " s");
+
+    @Test
+    void closedFormFlightAllocatesNothingPerFrame() throws Throwable {
+        assertFramesAllocateNothing(false);
+    }
+
+    @Test
+    void dragFlightAllocatesNothingPerFrame() throws Throwable {
+        assertFramesAllocateNothing(true);
+    }
+
+    private void assertFramesAllocateNothing(boolean drag) throws Throwable {
+        for (int i = 0; i < WARM_UP_RUNS; i++) fly(launch(drag));
+
+        Flight flight = launch(drag);
+        points.dots = 0;
+        labelWrites[0] = 0;
+        long overhead = allocatedBytes() - allocatedBytes(); // Normally zero; subtracted in case it is not
+        long before = allocatedBytes();
+        int frames = fly(flight);
+        long allocated = allocatedBytes() - before + overhead;
+
+        int samples = flight.getCapturedTrajectory().size();
+        assertTrue(frames > 100, "The flight should take many frames");
+        // Every sample but the launch and the impact is streamed to the live layer
+        assertEquals(samples - 2, points.dots, "Dots painted");
+        assertTrue(labelWrites[0] > 3, "Labels should have been refreshed during the flight");
+        assertEquals(0, allocated, "Bytes allocated over " + frames + " frames");
+    }
+
+    // What Simulation does when Launch is pressed; allocating here is allowed
+    private Flight launch(boolean drag) {
+        PhysicsEngine engine = new PhysicsEngine(40, 50, 9.81, FPS);
+        if (drag) engine.addForce(AerodynamicDrag.sphere(0.145, 0.074, Wind.constant(3)));
+        SimulationClock clock = new SimulationClock(1.0 / FPS, 5);
+        visualiser.setMaxBounds(engine.calculateRange(), engine.calculateMaxHeight());
+        return new Flight(engine, clock, visualiser, hud, heightText, velocityText, timeText);
+    }
+
+    // Plays frames until the projectile lands; returns how many were played
+    private static int fly(Flight flight) {
+        int frames = 0;
+        for (long now = 0; flight.frame(now); now += FRAME_NANOS) frames++;
+        return frames + 1;
+    }
+
+    private static long allocatedBytes() throws Throwable {
+        return (long) ALLOCATED_BYTES.invokeExact(THREADS);
+    }
+
+    // Current thread's allocated bytes, called without boxing so the measurement itself allocates nothing
+    private static MethodHandle allocatedBytesHandle() {
+        try {
+            Class<?> threads = Class.forName("com.sun.management.ThreadMXBean");
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .findVirtual(threads, "getCurrentThreadAllocatedBytes", MethodType.methodType(long.class));
+            return handle.asType(MethodType.methodType(long.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Thread allocation counters are not available on this JVM", e);
+        }
+    }
+
+    // Drawing target standing in for the point layer canvases; counts dots and keeps nothing
+    private static final class CountingSurface implements PlotSurface {
+        private int dots;
+
+        @Override
+        public void line(double x1, double y1, double x2, double y2, Color color, double width) {
+        }
+
+        @Override
+        public void text(String text, double x, double y, Color color) {
+        }
+
+        @Override
+        public void dot(double centerX, double centerY, double radius, Color color) {
+            dots++;
+        }
+    }
+}